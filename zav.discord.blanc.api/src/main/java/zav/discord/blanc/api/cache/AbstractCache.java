@@ -17,7 +17,10 @@ import org.jetbrains.annotations.Contract;
  * @param <V> The object to be stored.
  */
 public abstract class AbstractCache<U, V> {
-  private static final int MAX_CACHE_SIZE = 1024;
+  /**
+   * The maximum number of cached elements.
+   */
+  protected static final int MAX_CACHE_SIZE = 1024;
   /**
    * The internal object cache.
    */
@@ -1,25 +1,100 @@
 package zav.discord.blanc.api.cache;
 
-import net.dv8tion.jda.api.entities.Guild;
-import zav.discord.blanc.api.util.RegularExpressionMatcher;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import zav.discord.blanc.api.util.AutoResponseMatcher;
+import zav.discord.blanc.api.util.AutomatonMatcher;
 import zav.discord.blanc.databind.GuildEntity;
 
 /**
- * A cache built upon the JPA persistence layer. For each guild, it stores a regular expression
- * including all registered entries. This means that the expensive task of parsing this expression
- * only has to be done once. The entry has to be invalidated, whenever one of the entries is
- * modified.
+ * A cache built upon the JPA persistence layer. For each guild, it stores an automaton including
+ * all registered entries. This means that the expensive task of building this automaton only has
+ * to be done once. Entries are identified by the id of their guild.<br>
+ * Guilds without any responses are cached as well, using an automaton which doesn't match any
+ * input. Otherwise, every message in such a guild would result in another database request.<br>
+ * Whenever a response is added or removed, the cached automaton is replaced by a new version which
+ * is built from the committed responses. Messages which are currently matched continue to use the
+ * old version, while new messages use the new version. Because the new version is always built
+ * from the database rather than patched, concurrent modifications can't leave the cache out of
+ * sync with the persisted responses.
  */
-public class AutoResponseCache extends AbstractCache<Guild, RegularExpressionMatcher> {
+public class AutoResponseCache extends AbstractCache<Long, AutoResponseMatcher> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AutoResponseCache.class);
+  /**
+   * Sentinel for all guilds without automatic responses.
+   */
+  private static final AutoResponseMatcher NO_RESPONSES = new AutomatonMatcher(List.of());
+  
+  /**
+   * Loads the automatons of all given guilds into the cache. Guilds which are already cached are
+   * skipped, in order to retain any modifications made in the meantime.<br>
+   * At most {@link #MAX_CACHE_SIZE} guilds are loaded, as any further guild would only evict
+   * another one. Guilds with automatic responses are loaded first.
+   *
+   * @param guildIds The ids of all guilds handled by a shard.
+   */
+  @Contract(mutates = "this")
+  public void warmUp(Collection<Long> guildIds) {
+    List<Long> missing = guildIds.stream()
+        .filter(guildId -> !cache.asMap().containsKey(guildId))
+        .collect(Collectors.toList());
+    
+    if (missing.isEmpty()) {
+      return;
+    }
+    
+    // Load all guilds at once, rather than querying each guild individually
+    Map<Long, GuildEntity> entities = GuildEntity.findAll(missing).stream()
+        .collect(Collectors.toMap(GuildEntity::getId, Function.identity()));
+    Map<Boolean, List<Long>> partition = missing.stream()
+        .collect(Collectors.partitioningBy(guildId -> hasResponses(entities.get(guildId))));
+    
+    List<Long> loaded = Stream.concat(partition.get(true).stream(), partition.get(false).stream())
+        .limit(MAX_CACHE_SIZE)
+        .collect(Collectors.toList());
+    
+    for (long guildId : loaded) {
+      cache.asMap().computeIfAbsent(guildId, key -> create(entities.get(key)));
+    }
+    
+    LOGGER.info("Loaded automatic responses of {} guild(s).", loaded.size());
+  }
+  
+  /**
+   * Replaces the cached automaton of the given guild by one which is built from the responses
+   * stored in the database. Has to be called once a modification of the responses has been
+   * committed. If no automaton is cached, it is created with the next request.<br>
+   * The database is read while the entry is locked, so that a refresh which has been started after
+   * the last commit always determines the cached version.
+   *
+   * @param guildId The id of the guild whose responses have been modified.
+   */
+  @Contract(mutates = "this")
+  public void refresh(long guildId) {
+    cache.asMap().computeIfPresent(guildId, (key, matcher) -> fetch(key));
+  }
   
   @Override
-  protected RegularExpressionMatcher fetch(Guild guild) {
-    GuildEntity entity = GuildEntity.find(guild);
-
-    if (entity.getAutoResponses().isEmpty()) {
-      return null;
+  protected AutoResponseMatcher fetch(Long guildId) {
+    return create(GuildEntity.find(guildId));
+  }
+  
+  private static AutoResponseMatcher create(GuildEntity entity) {
+    if (!hasResponses(entity)) {
+      return NO_RESPONSES;
     }
 
-    return new RegularExpressionMatcher(entity.getAutoResponses());
+    return new AutomatonMatcher(entity.getAutoResponses());
+  }
+  
+  private static boolean hasResponses(GuildEntity entity) {
+    return entity != null && !entity.getAutoResponses().isEmpty();
   }
 }
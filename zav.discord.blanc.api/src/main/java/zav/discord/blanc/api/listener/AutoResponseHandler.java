@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.api.listener;
+
+import java.util.Optional;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import zav.discord.blanc.api.cache.AutoResponseCache;
+import zav.discord.blanc.api.util.ResponseCooldown;
+
+/**
+ * The handler for automatically responding to specific messages. Per guild, an arbitrary number
+ * of regular expressions can be mapped to pre-defined strings. Whenever a message matches at least
+ * one of those messages, this string is returned.<br>
+ * Replies are throttled by the {@link ResponseCooldown}.
+ */
+@NonNullByDefault
+public class AutoResponseHandler implements MessageHandler {
+  private final AutoResponseCache responseCache;
+  private final ResponseCooldown cooldown;
+  
+  /**
+   * Creates a new instance of this class.
+   *
+   * @param responseCache The global cache of all automatic responses.
+   * @param cooldown The cooldowns restricting how often a reply is sent.
+   */
+  public AutoResponseHandler(AutoResponseCache responseCache, ResponseCooldown cooldown) {
+    this.responseCache = responseCache;
+    this.cooldown = cooldown;
+  }
+  
+  /**
+   * Checks whether the message matches one of the registered auto-responses. Replies with the first
+   * valid, pre-defined answer on success.
+   *
+   * @param context The preprocessed message.
+   * @return {@code true}, if a reply has been sent.
+   */
+  @Override
+  public boolean handle(MessageContext context) {
+    // Patterns which can't be folded are still matched against the original content
+    Optional<String> response = responseCache.get(context.getGuildId())
+          .flatMap(matcher -> matcher.match(context.getContent(), context.getFoldedContent()));
+    
+    if (response.isEmpty()) {
+      return false;
+    }
+    
+    if (!cooldown.tryAcquire(context.getGuildId(), context.getChannelId(), context.getContent(),
+          response.get())) {
+      return false;
+    }
+    
+    context.getMessage().reply(response.get()).queue();
+    return true;
+  }
+}
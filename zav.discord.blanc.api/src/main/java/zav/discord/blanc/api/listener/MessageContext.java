@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.api.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import zav.discord.blanc.api.util.CaseFolding;
+
+/**
+ * A received guild message, which has been preprocessed for the {@link MessageHandler}s. The
+ * content of the message is only retrieved and folded once, regardless of how many handlers are
+ * inspecting it.<br>
+ * Instances of this class are passed through the handlers sequentially and are therefore not
+ * thread-safe.
+ */
+@NonNullByDefault
+public final class MessageContext {
+  private final Message message;
+  private final long guildId;
+  private final long channelId;
+  private final String content;
+  private final String foldedContent;
+  private @Nullable List<String> tokens;
+  
+  /**
+   * Creates a new instance of this class.
+   *
+   * @param event The event containing the received guild message.
+   */
+  public MessageContext(GuildMessageReceivedEvent event) {
+    this.message = event.getMessage();
+    this.guildId = event.getGuild().getIdLong();
+    this.channelId = event.getChannel().getIdLong();
+    this.content = message.getContentRaw();
+    this.foldedContent = CaseFolding.fold(content);
+  }
+  
+  /**
+   * Returns the received message, e.g. in order to reply to it.
+   *
+   * @return The received message.
+   */
+  public Message getMessage() {
+    return message;
+  }
+  
+  /**
+   * Returns the id of the guild in which the message has been received.
+   *
+   * @return The guild id.
+   */
+  public long getGuildId() {
+    return guildId;
+  }
+  
+  /**
+   * Returns the id of the channel in which the message has been received.
+   *
+   * @return The channel id.
+   */
+  public long getChannelId() {
+    return channelId;
+  }
+  
+  /**
+   * Returns the raw content of the message.
+   *
+   * @return The content as returned by {@link Message#getContentRaw()}.
+   */
+  public String getContent() {
+    return content;
+  }
+  
+  /**
+   * Returns the content of the message, with all US-ASCII letters in lower case. Both strings have
+   * the same length, so positions in either string can be used interchangeably.
+   *
+   * @return The folded content.
+   * @see CaseFolding#fold(String)
+   */
+  public String getFoldedContent() {
+    return foldedContent;
+  }
+  
+  /**
+   * Returns all words of the folded content. A word is a maximal sequence of letters, digits and
+   * underscores. The words are only computed on first use.
+   *
+   * @return An unmodifiable list of all words, in the order in which they occur.
+   */
+  public List<String> getTokens() {
+    if (tokens == null) {
+      tokens = tokenize(foldedContent);
+    }
+    
+    return tokens;
+  }
+  
+  private static List<String> tokenize(String source) {
+    List<String> result = new ArrayList<>();
+    int start = -1;
+    int index = 0;
+    
+    while (index < source.length()) {
+      int cp = source.codePointAt(index);
+      boolean isWord = cp == '_' || Character.isLetterOrDigit(cp);
+      
+      if (isWord && start < 0) {
+        start = index;
+      } else if (!isWord && start >= 0) {
+        result.add(source.substring(start, index));
+        start = -1;
+      }
+      
+      index += Character.charCount(cp);
+    }
+    
+    if (start >= 0) {
+      result.add(source.substring(start));
+    }
+    
+    return Collections.unmodifiableList(result);
+  }
+}
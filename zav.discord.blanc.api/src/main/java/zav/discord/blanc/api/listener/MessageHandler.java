@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.api.listener;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * A single step of the {@link MessagePipeline}. Each received guild message is passed through all
+ * handlers in the order in which they have been registered, until one of them has consumed the
+ * message.
+ */
+@NonNullByDefault
+@FunctionalInterface
+public interface MessageHandler {
+  /**
+   * Inspects the received message and reacts to it, if necessary.
+   *
+   * @param context The preprocessed message.
+   * @return {@code true}, if the message has been consumed and must not be passed to the remaining
+   *     handlers.
+   */
+  boolean handle(MessageContext context);
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.api.listener;
+
+import java.util.List;
+import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import zav.discord.blanc.api.util.MatcherPool;
+
+/**
+ * The single listener for all received guild messages. Each message is preprocessed once and then
+ * passed through an ordered chain of {@link MessageHandler}s, e.g. a filter for banned words,
+ * followed by the automatic responses. Any handler may stop the chain early.<br>
+ * Messages are processed asynchronously by the {@link MatcherPool}, so that the handlers never
+ * block the event thread. Messages sent by bots are ignored.
+ */
+@NonNullByDefault
+public class MessagePipeline extends ListenerAdapter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MessagePipeline.class);
+  private final MatcherPool matcherPool;
+  private final List<MessageHandler> handlers;
+  
+  /**
+   * Creates a new instance of this class.
+   *
+   * @param matcherPool The pool over which the messages are processed.
+   * @param handlers The handlers for each received message, in the order in which they are called.
+   */
+  public MessagePipeline(MatcherPool matcherPool, List<MessageHandler> handlers) {
+    this.matcherPool = matcherPool;
+    this.handlers = List.copyOf(handlers);
+  }
+  
+  /**
+   * Passes every guild message through all handlers, until the message has been consumed.
+   *
+   * @param event The event containing the received guild message.
+   */
+  @Override
+  public void onGuildMessageReceived(GuildMessageReceivedEvent event) {
+    if (event.getAuthor().isBot() || handlers.isEmpty()) {
+      return;
+    }
+    
+    // If the pool is overloaded, the message is ignored
+    matcherPool.submit(() -> handle(new MessageContext(event)));
+  }
+  
+  private void handle(MessageContext context) {
+    for (MessageHandler handler : handlers) {
+      try {
+        if (handler.handle(context)) {
+          return;
+        }
+      } catch (RuntimeException e) {
+        // A broken handler shouldn't prevent the remaining handlers from being called
+        LOGGER.error("Failed to handle message {}.", context.getMessage().getIdLong(), e);
+      }
+    }
+  }
+}
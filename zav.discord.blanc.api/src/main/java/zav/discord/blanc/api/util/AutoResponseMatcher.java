@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.api.util;
+
+import java.util.Optional;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import zav.discord.blanc.databind.AutoResponseEntity;
+
+/**
+ * Base interface for all automatic-response matchers. Given a list of patterns, each associated
+ * with a response, the response of the first matching pattern is returned.<br>
+ * A pattern matches before another pattern if it matches at an earlier position of the input. If
+ * both patterns match at the same position, the pattern registered first takes precedence.
+ */
+@NonNullByDefault
+public interface AutoResponseMatcher {
+  /**
+   * Checks the input string for any pattern matches. Returns the first response if a match is
+   * found, otherwise {@link Optional#empty()}.
+   *
+   * @param source An arbitrary string.
+   * @return The automatic response of the first matching pattern.
+   */
+  default Optional<String> match(String source) {
+    return match(source, CaseFolding.fold(source));
+  }
+  
+  /**
+   * Checks the input string for any pattern matches. Returns the first response if a match is
+   * found, otherwise {@link Optional#empty()}.<br>
+   * Patterns which can be folded are matched against the folded input, all other patterns against
+   * the original input. This avoids folding the same input more than once.
+   *
+   * @param source An arbitrary string.
+   * @param foldedSource The same string, folded via {@link CaseFolding#fold(String)}.
+   * @return The automatic response of the first matching pattern.
+   */
+  Optional<String> match(String source, String foldedSource);
+  
+  /**
+   * Creates a new matcher containing all patterns of this matcher, followed by the given pattern.
+   * This matcher remains unchanged, so that it can still be used by concurrent callers.
+   *
+   * @param entry The automatic response to add.
+   * @return A new matcher instance.
+   * @throws java.util.regex.PatternSyntaxException If the pattern is invalid.
+   */
+  AutoResponseMatcher add(AutoResponseEntity entry);
+  
+  /**
+   * Creates a new matcher containing all patterns of this matcher, except for the pattern at the
+   * given index. This matcher remains unchanged, so that it can still be used by concurrent
+   * callers.
+   *
+   * @param index The index of the automatic response to remove.
+   * @return A new matcher instance.
+   * @throws IndexOutOfBoundsException If no pattern exists at the given index.
+   */
+  AutoResponseMatcher remove(int index);
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.api.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import zav.discord.blanc.api.util.InterruptibleCharSequence.Budget;
+import zav.discord.blanc.api.util.InterruptibleCharSequence.BudgetExceededException;
+import zav.discord.blanc.api.util.RegexParser.Node;
+import zav.discord.blanc.databind.AutoResponseEntity;
+
+/**
+ * An automaton-based pattern matcher. All patterns are combined into a single finite automaton,
+ * which checks the input in time linear to its length, regardless of the number of patterns.<br>
+ * Patterns which can't be expressed by a finite automaton (e.g. because they contain backreferences
+ * or lookarounds) are matched individually via {@link Pattern}. Those patterns share a fixed budget
+ * per input, so that they can't stall the caller by backtracking excessively. Patterns which exceed
+ * the budget repeatedly are quarantined and no longer matched.<br>
+ * The input is folded only once and then shared by the automaton and all patterns which can be
+ * folded, see {@link CaseFolding}.<br>
+ * The response is the same as the one returned by the {@link RegularExpressionMatcher}.<br>
+ * The patterns of a matcher never change. Adding or removing a response creates a new matcher,
+ * which reuses the parsed patterns of this instance.
+ */
+@NonNullByDefault
+public class AutomatonMatcher implements AutoResponseMatcher {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AutomatonMatcher.class);
+  private final List<Entry> entries;
+  private final List<Integer> expressions = new ArrayList<>();
+  private final List<Integer> fallbacks = new ArrayList<>();
+  private final BitSet automaton = new BitSet();
+  private final AtomicIntegerArray violations;
+  private final LiteralFilter filter;
+  private final Dfa dfa;
+  
+  /**
+   * Creates a new matcher instance.
+   *
+   * @param entries A list of automatic responses.
+   * @throws java.util.regex.PatternSyntaxException If one of the patterns is invalid.
+   */
+  public AutomatonMatcher(List<AutoResponseEntity> entries) {
+    this(entries.stream().map(Entry::new).collect(Collectors.toList()), new int[entries.size()]);
+  }
+  
+  private AutomatonMatcher(List<Entry> entries, int[] violations) {
+    List<@Nullable Set<String>> literals = new ArrayList<>();
+    Nfa nfa = new Nfa();
+    
+    for (int i = 0; i < entries.size(); ++i) {
+      Entry entry = entries.get(i);
+      
+      try {
+        nfa.add(entry.getNode());
+        expressions.add(i);
+        automaton.set(i);
+        literals.add(entry.literals);
+      } catch (IllegalArgumentException e) {
+        LOGGER.debug("Pattern {} is matched via java.util.regex: {}", entry.pattern,
+              e.getMessage());
+        fallbacks.add(i);
+        literals.add(null);
+      }
+    }
+    
+    this.entries = List.copyOf(entries);
+    this.violations = new AtomicIntegerArray(violations);
+    this.filter = new LiteralFilter(literals);
+    this.dfa = new Dfa(nfa);
+  }
+  
+  @Override
+  public AutomatonMatcher add(AutoResponseEntity entry) {
+    List<Entry> result = new ArrayList<>(entries);
+    result.add(new Entry(entry));
+    return new AutomatonMatcher(result, Arrays.copyOf(getViolations(), entries.size() + 1));
+  }
+  
+  @Override
+  public AutomatonMatcher remove(int index) {
+    List<Entry> result = new ArrayList<>(entries);
+    result.remove(index);
+    
+    int[] source = getViolations();
+    int[] target = new int[result.size()];
+    System.arraycopy(source, 0, target, 0, index);
+    System.arraycopy(source, index + 1, target, index, target.length - index);
+    
+    return new AutomatonMatcher(result, target);
+  }
+  
+  private int[] getViolations() {
+    int[] result = new int[violations.length()];
+    
+    for (int i = 0; i < result.length; ++i) {
+      result[i] = violations.get(i);
+    }
+    
+    return result;
+  }
+  
+  @Override
+  public Optional<String> match(String source, String foldedSource) {
+    // The automaton and all folded patterns are matched against the folded input
+    String input = foldedSource;
+    // The automaton can be skipped if the input can't match any of its patterns
+    boolean isCandidate = filter.getCandidates(input).intersects(automaton);
+    int expression = isCandidate ? dfa.match(input) : -1;
+    int result = expression < 0 ? -1 : expressions.get(expression);
+    int start = Integer.MAX_VALUE;
+    int fallback = -1;
+    // All fallbacks share the same budget, regardless of how many there are
+    Budget budget = new Budget();
+    
+    for (int index : fallbacks) {
+      int position = find(index, source, input, budget);
+      
+      if (position < start) {
+        fallback = index;
+        start = position;
+      }
+    }
+    
+    // Compare the position of both matches, without having to backtrack through the automaton
+    if (result >= 0 && fallback >= 0) {
+      if (start > 0 && dfa.match(input, start - 1) >= 0) {
+        fallback = -1;
+      } else if (dfa.match(input, start) < 0 || fallback < result) {
+        result = -1;
+      } else {
+        fallback = -1;
+      }
+    }
+    
+    result = Math.max(result, fallback);
+    return result < 0 ? Optional.empty() : Optional.ofNullable(entries.get(result).response);
+  }
+  
+  /**
+   * Returns the start position of the first match of the given fallback pattern.
+   *
+   * @param source The original input.
+   * @param input The folded input.
+   * @param budget The budget shared by all fallbacks.
+   * @return The start position or {@link Integer#MAX_VALUE}, if the pattern doesn't match.
+   */
+  private int find(int index, String source, String input, Budget budget) {
+    // Only the pattern which exceeded the budget is held responsible
+    if (isQuarantined(index) || budget.isExceeded()) {
+      return Integer.MAX_VALUE;
+    }
+    
+    try {
+      Entry entry = entries.get(index);
+      Matcher matcher = entry.pattern.matcher(
+            new InterruptibleCharSequence(entry.folded ? input : source, budget));
+      return matcher.find() ? matcher.start() : Integer.MAX_VALUE;
+    } catch (BudgetExceededException e) {
+      int count = violations.incrementAndGet(index);
+      
+      if (count == InterruptibleCharSequence.MAX_VIOLATIONS) {
+        LOGGER.warn("Pattern {} exceeded its budget {} times and has been quarantined.",
+              entries.get(index).pattern, count);
+      } else {
+        LOGGER.warn("Pattern {} exceeded its budget: {}", entries.get(index).pattern,
+              e.getMessage());
+      }
+      
+      return Integer.MAX_VALUE;
+    }
+  }
+  
+  /**
+   * Checks whether the given pattern has been quarantined for repeatedly exceeding its budget.
+   *
+   * @param index The index of the pattern.
+   * @return {@code true}, if the pattern is no longer matched.
+   */
+  /*package*/ boolean isQuarantined(int index) {
+    return violations.get(index) >= InterruptibleCharSequence.MAX_VIOLATIONS;
+  }
+  
+  /**
+   * Returns the number of patterns which are matched via {@link Pattern}.
+   *
+   * @return The number of patterns not contained in the automaton.
+   */
+  /*package*/ int getFallbacks() {
+    return fallbacks.size();
+  }
+  
+  /**
+   * A single automatic response. The pattern is only parsed once, so that it can be shared by all
+   * versions of this matcher.
+   */
+  private static final class Entry {
+    private final Pattern pattern;
+    private final boolean folded;
+    private final @Nullable String response;
+    private final @Nullable Node node;
+    private final @Nullable Set<String> literals;
+    private final @Nullable String reason;
+    
+    private Entry(AutoResponseEntity entity) {
+      // Also validates the pattern
+      @Nullable String foldedPattern = CaseFolding.foldPattern(entity.getPattern());
+      
+      if (foldedPattern != null) {
+        this.pattern = Pattern.compile(foldedPattern);
+        this.folded = true;
+      } else {
+        this.pattern = Pattern.compile(entity.getPattern(), Pattern.CASE_INSENSITIVE);
+        this.folded = false;
+      }
+      
+      this.response = entity.getAnswer();
+      
+      @Nullable Node node = null;
+      @Nullable String reason = null;
+      
+      try {
+        node = RegexParser.parse(entity.getPattern());
+      } catch (IllegalArgumentException e) {
+        reason = e.getMessage();
+      }
+      
+      this.node = node;
+      this.literals = node == null ? null : LiteralFilter.getLiterals(node);
+      this.reason = reason;
+    }
+    
+    private Node getNode() {
+      if (node == null) {
+        throw new IllegalArgumentException(reason);
+      }
+      
+      return node;
+    }
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.api.util;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Case-insensitive matching without folding the input for every comparison.<br>
+ * With {@link java.util.regex.Pattern#CASE_INSENSITIVE}, every character of the input is folded
+ * whenever it is compared against a pattern. Instead, the input is folded once via
+ * {@link #fold(String)} and then matched against the folded, case-sensitive variant of the pattern
+ * created by {@link #foldPattern(String)}. Like {@link java.util.regex.Pattern}, only US-ASCII
+ * letters are case-folded. Folding never changes the length of the input, so the positions of a
+ * match are the same for both the original and the folded input.
+ */
+@NonNullByDefault
+public final class CaseFolding {
+  private CaseFolding() {
+  }
+  
+  /**
+   * Converts all US-ASCII letters of the given string to lower case. Other characters remain
+   * unchanged.
+   *
+   * @param source An arbitrary string.
+   * @return The folded string. If the string doesn't contain any upper-case letters, the string
+   *     itself is returned.
+   */
+  public static String fold(String source) {
+    int index = 0;
+    
+    // Fast path for messages which are already in lower case
+    while (index < source.length() && !isUpperCase(source.charAt(index))) {
+      ++index;
+    }
+    
+    if (index == source.length()) {
+      return source;
+    }
+    
+    char[] result = source.toCharArray();
+    
+    for (int i = index; i < result.length; ++i) {
+      result[i] = fold(result[i]);
+    }
+    
+    return new String(result);
+  }
+  
+  /**
+   * Converts the given character to lower case, if it is a US-ASCII letter.
+   *
+   * @param c An arbitrary character.
+   * @return The folded character.
+   */
+  public static char fold(char c) {
+    return isUpperCase(c) ? (char) (c + ('a' - 'A')) : c;
+  }
+  
+  /**
+   * Creates the case-sensitive variant of a case-insensitive pattern. Matching a folded string
+   * against the returned pattern yields the same result as matching the original string against
+   * the given pattern with {@link java.util.regex.Pattern#CASE_INSENSITIVE}.<br>
+   * Constructs whose case-insensitive semantics can't be expressed this way, e.g. inline flags,
+   * Unicode properties or characters given by their code, are not supported.
+   *
+   * @param pattern A valid regular expression.
+   * @return The folded pattern or {@code null}, if the pattern can't be folded.
+   */
+  public static @Nullable String foldPattern(String pattern) {
+    StringBuilder result = new StringBuilder(pattern.length());
+    // The nesting depth of character classes
+    int depth = 0;
+    // Whether the last element of the current character class is a single character
+    boolean isSingle = false;
+    int index = 0;
+    
+    while (index < pattern.length()) {
+      char c = pattern.charAt(index);
+      
+      if (c == '\\') {
+        int end = skipEscape(pattern, index);
+        
+        if (end < 0) {
+          return null;
+        }
+        
+        // Escaped letters are either predefined classes or represent other characters
+        if (depth > 0 && end < pattern.length() - 1 && pattern.charAt(end) == '-'
+              && pattern.charAt(end + 1) != ']') {
+          return null;
+        }
+        
+        result.append(pattern, index, end);
+        isSingle = false;
+        index = end;
+      } else if (depth == 0 && c == '(' && index + 1 < pattern.length()
+            && pattern.charAt(index + 1) == '?') {
+        int end = skipGroup(pattern, index);
+        
+        if (end < 0) {
+          return null;
+        }
+        
+        result.append(pattern, index, end);
+        index = end;
+      } else if (c == '[') {
+        int end = index + 1;
+        
+        if (end < pattern.length() && pattern.charAt(end) == '^') {
+          ++end;
+        }
+        
+        // A closing bracket at the beginning of a class is a literal
+        if (end < pattern.length() && pattern.charAt(end) == ']') {
+          return null;
+        }
+        
+        result.append(pattern, index, end);
+        isSingle = false;
+        index = end;
+        ++depth;
+      } else if (depth > 0 && c == ']') {
+        result.append(c);
+        isSingle = false;
+        ++index;
+        --depth;
+      } else if (depth > 0 && c == '-' && isSingle && index + 1 < pattern.length()
+            && pattern.charAt(index + 1) != ']') {
+        char to = pattern.charAt(index + 1);
+        char from = result.charAt(result.length() - 1);
+        
+        if (to == '\\' || to == '[' || Character.isSurrogate(to) || Character.isSurrogate(from)) {
+          return null;
+        }
+        
+        // The lower bound has already been folded
+        from = pattern.charAt(index - 1);
+        
+        if (isUpperCase(from) && isUpperCase(to)) {
+          result.append(c).append(fold(to));
+        } else if (isFoldable(from, to)) {
+          result.setCharAt(result.length() - 1, from);
+          result.append(c).append(to);
+        } else {
+          return null;
+        }
+        
+        isSingle = false;
+        index += 2;
+      } else {
+        result.append(fold(c));
+        isSingle = depth > 0;
+        ++index;
+      }
+    }
+    
+    return result.toString();
+  }
+  
+  /**
+   * Returns the end of the escape sequence starting at the given position.
+   *
+   * @return The index after the escape sequence or {@code -1}, if the sequence can't be folded.
+   */
+  private static int skipEscape(String pattern, int index) {
+    if (index + 1 >= pattern.length()) {
+      return -1;
+    }
+    
+    char c = pattern.charAt(index + 1);
+    
+    // Named back reference
+    if (c == 'k') {
+      int end = pattern.indexOf('>', index);
+      return end < 0 ? -1 : end + 1;
+    }
+    
+    // Characters given by their code, quotations and Unicode properties
+    if ("0xuNcQEpP".indexOf(c) >= 0) {
+      return -1;
+    }
+    
+    return index + 2;
+  }
+  
+  /**
+   * Returns the end of the group prefix starting at the given position, e.g. {@code (?:}.
+   *
+   * @return The index after the prefix or {@code -1}, if the group can't be folded.
+   */
+  private static int skipGroup(String pattern, int index) {
+    if (index + 2 >= pattern.length()) {
+      return -1;
+    }
+    
+    char c = pattern.charAt(index + 2);
+    
+    // Non-capturing groups, lookaheads and atomic groups
+    if (c == ':' || c == '=' || c == '!' || c == '>') {
+      return index + 3;
+    }
+    
+    if (c == '<' && index + 3 < pattern.length()) {
+      char d = pattern.charAt(index + 3);
+      
+      // Lookbehinds
+      if (d == '=' || d == '!') {
+        return index + 4;
+      }
+      
+      // Named groups
+      int end = pattern.indexOf('>', index);
+      return end < 0 ? -1 : end + 1;
+    }
+    
+    // Inline flags
+    return -1;
+  }
+  
+  /**
+   * Checks whether a range can be kept as is. This is the case if the range contains the lower-case
+   * variant of every upper-case letter it contains.
+   */
+  private static boolean isFoldable(char from, char to) {
+    for (char c = 'A'; c <= 'Z'; ++c) {
+      if (c >= from && c <= to && (fold(c) < from || fold(c) > to)) {
+        return false;
+      }
+    }
+    
+    return true;
+  }
+  
+  private static boolean isUpperCase(char c) {
+    return c >= 'A' && c <= 'Z';
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.api.util;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * A set of code points, as described by a single character or a character class of a regular
+ * expression. Character classes follow the semantics of {@link java.util.regex.Pattern}.
+ */
+@NonNullByDefault
+@FunctionalInterface
+/*package*/ interface CharClass {
+  /**
+   * Matches every code point except line terminators. Corresponds to {@code .}.
+   */
+  CharClass DOT = cp -> cp != '\n' && cp != '\r' && cp != '\u0085' && (cp | 1) != '\u2029';
+  /**
+   * Corresponds to {@code \d}.
+   */
+  CharClass DIGIT = cp -> cp >= '0' && cp <= '9';
+  /**
+   * Corresponds to {@code \w}.
+   */
+  CharClass WORD = cp -> (cp >= 'a' && cp <= 'z') || (cp >= 'A' && cp <= 'Z') || cp == '_'
+        || (cp >= '0' && cp <= '9');
+  /**
+   * Corresponds to {@code \s}.
+   */
+  CharClass SPACE = cp -> cp == ' ' || (cp >= '\t' && cp <= '\r');
+  
+  /**
+   * Checks whether the given code point is contained in this set.
+   *
+   * @param cp A Unicode code point.
+   * @return {@code true}, if the code point is contained in this set.
+   */
+  boolean matches(int cp);
+  
+  /**
+   * Returns the complement of this set.
+   *
+   * @return A set containing all code points not contained in this set.
+   */
+  default CharClass negate() {
+    return cp -> !matches(cp);
+  }
+  
+  /**
+   * Returns the union of this and the given set.
+   *
+   * @param other Another set of code points.
+   * @return A set containing all code points of both sets.
+   */
+  default CharClass or(CharClass other) {
+    return cp -> matches(cp) || other.matches(cp);
+  }
+  
+  /**
+   * Returns the case-insensitive variant of this set. Like {@link java.util.regex.Pattern}, only
+   * US-ASCII letters are case-folded.
+   *
+   * @return A set which also contains the upper- and lower-case variants of all letters.
+   */
+  default CharClass ignoreCase() {
+    return cp -> {
+      if (matches(cp)) {
+        return true;
+      }
+      
+      if (cp >= 'a' && cp <= 'z') {
+        return matches(cp - 'a' + 'A');
+      }
+      
+      if (cp >= 'A' && cp <= 'Z') {
+        return matches(cp - 'A' + 'a');
+      }
+      
+      return false;
+    };
+  }
+  
+  /**
+   * Creates a set containing all code points between {@code from} and {@code to} (inclusive).
+   *
+   * @param from The first code point of the range.
+   * @param to The last code point of the range.
+   * @return A set containing the given range.
+   */
+  static CharClass range(int from, int to) {
+    return cp -> cp >= from && cp <= to;
+  }
+  
+  /**
+   * Creates a set containing a single code point.
+   *
+   * @param value A Unicode code point.
+   * @return A set containing only the given code point.
+   */
+  static CharClass of(int value) {
+    return cp -> cp == value;
+  }
+  
+  /**
+   * Checks whether the given code point is a word character, as used for {@code \b}.
+   *
+   * @param cp A Unicode code point or {@code -1} for the start and end of the input.
+   * @return {@code true}, if the code point is a letter, digit or underscore.
+   */
+  static boolean isWord(int cp) {
+    return cp == '_' || (cp >= 0 && Character.isLetterOrDigit(cp));
+  }
+}
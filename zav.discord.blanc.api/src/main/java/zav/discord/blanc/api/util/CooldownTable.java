@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.api.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Lock-free table storing when a key has been used for the last time.<br>
+ * The table has a fixed capacity and uses open addressing. Each slot is a single {@code long},
+ * combining a fingerprint of the key with the time it was last used, so that a slot can be updated
+ * atomically. Slots whose cooldown has expired are reused for new keys. If no slot is available,
+ * the key is never considered to be on cooldown, i.e. the table fails open.<br>
+ * Two keys sharing the same slot and fingerprint are treated as the same key. Similarly, if the
+ * same key is acquired concurrently for the first time, both callers may succeed. Both cases are
+ * rare enough to be acceptable for throttling replies.
+ */
+@NonNullByDefault
+/*package*/ final class CooldownTable {
+  /**
+   * The number of bits used for storing the time. Sufficient for about 34 years in milliseconds.
+   */
+  private static final int TIME_BITS = 40;
+  private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+  /**
+   * Upper bound for the slots which are checked for a single key.
+   */
+  private static final int MAX_PROBES = 8;
+  private final AtomicLongArray slots;
+  private final long cooldown;
+  private final int mask;
+  
+  /**
+   * Creates a new table.
+   *
+   * @param capacity The number of slots. Must be a power of two.
+   * @param cooldown The cooldown of each key in milliseconds.
+   */
+  /*package*/ CooldownTable(int capacity, long cooldown) {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+    }
+    
+    this.slots = new AtomicLongArray(capacity);
+    this.cooldown = cooldown;
+    this.mask = capacity - 1;
+  }
+  
+  /**
+   * Checks whether the given key is currently on cooldown.
+   *
+   * @param key An arbitrary key.
+   * @param now The current time in milliseconds. Must be positive.
+   * @return {@code true}, if the key has been used within the cooldown.
+   */
+  /*package*/ boolean isActive(long key, long now) {
+    long hash = mix(key);
+    long fingerprint = hash >>> TIME_BITS;
+    
+    for (int probe = 0; probe < MAX_PROBES; ++probe) {
+      long slot = slots.get(((int) hash + probe) & mask);
+      
+      // Slots are never cleared, so the key can't be stored after an empty slot
+      if (slot == 0) {
+        return false;
+      }
+      
+      if (slot >>> TIME_BITS == fingerprint) {
+        return now - (slot & TIME_MASK) < cooldown;
+      }
+    }
+    
+    return false;
+  }
+  
+  /**
+   * Marks the given key as used and starts its cooldown.
+   *
+   * @param key An arbitrary key.
+   * @param now The current time in milliseconds. Must be positive.
+   */
+  /*package*/ void acquire(long key, long now) {
+    long hash = mix(key);
+    long fingerprint = hash >>> TIME_BITS;
+    long value = fingerprint << TIME_BITS | (now & TIME_MASK);
+    int free = -1;
+    
+    for (int probe = 0; probe < MAX_PROBES; ++probe) {
+      int index = ((int) hash + probe) & mask;
+      long slot = slots.get(index);
+      
+      if (slot == 0) {
+        free = free < 0 ? index : free;
+        break;
+      }
+      
+      if (slot >>> TIME_BITS == fingerprint) {
+        slots.set(index, value);
+        return;
+      }
+      
+      // Expired slots may be reused, but the key might still be stored in one of the next slots
+      if (free < 0 && now - (slot & TIME_MASK) >= cooldown) {
+        free = index;
+      }
+    }
+    
+    if (free >= 0) {
+      long slot = slots.get(free);
+      
+      // Another key may have claimed the slot in the meantime
+      if (slot == 0 || now - (slot & TIME_MASK) >= cooldown) {
+        slots.compareAndSet(free, slot, value);
+      }
+    }
+  }
+  
+  /**
+   * Spreads the bits of the key, so that consecutive keys are distributed across the table.
+   */
+  private static long mix(long key) {
+    key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+    key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return key ^ (key >>> 33);
+  }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.api.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import zav.discord.blanc.api.util.RegexParser.Assertion;
+
+/**
+ * Lazily constructed deterministic automaton over a {@link Nfa}.<br>
+ * Each state is the ordered list of all active threads of the non-deterministic automaton. Threads
+ * which started earlier take precedence over threads which started later and, for the same start
+ * position, threads of expressions with a lower index take precedence over expressions with a
+ * higher index. Once a thread reaches its match, all threads of lower precedence are discarded.
+ * This mirrors the semantics of an alternation {@code e0|e1|...} in
+ * {@link java.util.regex.Pattern}.<br>
+ * States and transitions are computed on demand and then cached, so that each input character
+ * only costs a single lookup. Should the number of states exceed {@link #MAX_STATES}, new states
+ * are no longer cached. The input is still evaluated in linear time, just slower.
+ */
+@NonNullByDefault
+/*package*/ final class Dfa {
+  private static final int MAX_STATES = 2_000;
+  private static final int ASCII = 128;
+  private static final int[] EMPTY = new int[0];
+  private final Map<State, State> states = new ConcurrentHashMap<>();
+  private final Nfa nfa;
+  private final State initial;
+  
+  /*package*/ Dfa(Nfa nfa) {
+    this.nfa = nfa;
+    this.initial = intern(new State(EMPTY, false, false, true, false));
+  }
+  
+  /**
+   * Searches for the first expression matching the input.
+   *
+   * @param source An arbitrary string.
+   * @return The index of the matched expression or {@code -1}, if no expression matches.
+   */
+  /*package*/ int match(String source) {
+    return match(source, Integer.MAX_VALUE);
+  }
+  
+  /**
+   * Searches for the first expression matching the input, starting at or before the given
+   * position.
+   *
+   * @param source An arbitrary string.
+   * @param lastStart The last position at which a match may start.
+   * @return The index of the matched expression or {@code -1}, if no expression matches.
+   */
+  /*package*/ int match(String source, int lastStart) {
+    int length = source.length();
+    State state = initial;
+    int result = -1;
+    int index = 0;
+    
+    while (true) {
+      int cp = index < length ? source.codePointAt(index) : -1;
+      Transition transition;
+      
+      // Don't start any new threads past the last position
+      if (index > lastStart && state.searching) {
+        state = intern(new State(state.threads, state.prevWord, state.prevBase, false, false));
+      }
+      
+      // The boundary matchers ^ and $ depend on the position and can't be cached
+      if (index > 0 && index < length - 2) {
+        transition = state.get(cp);
+        
+        if (transition == null) {
+          transition = step(state, cp, false, false);
+          state.put(cp, transition);
+        }
+      } else {
+        transition = step(state, cp, index == 0, isEnd(source, index));
+      }
+      
+      if (transition.match >= 0) {
+        result = transition.match;
+      }
+      
+      state = transition.next;
+      
+      // Either the end of the input has been reached or no thread is left which could match
+      if (cp < 0 || (!state.searching && state.threads.length == 0)) {
+        return result;
+      }
+      
+      index += Character.charCount(cp);
+    }
+  }
+  
+  /**
+   * Returns the number of cached states.
+   *
+   * @return The number of cached states.
+   */
+  /*package*/ int size() {
+    return states.size();
+  }
+  
+  private Transition step(State state, int cp, boolean begin, boolean end) {
+    // Like Pattern, non-spacing marks are treated as word characters if they follow a letter
+    boolean isMark = cp >= 0 && Character.getType(cp) == Character.NON_SPACING_MARK;
+    boolean nextWord = CharClass.isWord(cp) || (isMark && state.prevBase);
+    boolean nextBase = (cp >= 0 && Character.isLetterOrDigit(cp)) || (isMark && state.prevBase);
+    
+    Closure closure = new Closure(state.prevWord, nextWord, begin, end);
+    int match = -1;
+    
+    for (int thread : state.threads) {
+      match = closure.add(thread);
+      
+      if (match >= 0) {
+        break;
+      }
+    }
+    
+    // Start a new thread for each expression at the current position
+    for (int i = 0; state.searching && match < 0 && i < nfa.getExpressions(); ++i) {
+      match = closure.add(nfa.getStart(i));
+    }
+    
+    // Threads starting at later positions can't take precedence over the current match
+    boolean searching = state.searching && match < 0;
+    int[] threads = cp < 0 ? EMPTY : closure.consume(cp);
+    State next = intern(new State(threads, nextWord, nextBase, searching, false));
+    return new Transition(next, match);
+  }
+    
+  private State intern(State state) {
+    @Nullable State result = states.get(state);
+    
+    if (result != null) {
+      return result;
+    }
+    
+    if (states.size() >= MAX_STATES) {
+      return state;
+    }
+    
+    State cached = new State(state.threads, state.prevWord, state.prevBase, state.searching, true);
+    result = states.putIfAbsent(cached, cached);
+    return result == null ? cached : result;
+  }
+  
+  /**
+   * Checks whether {@code $} matches at the given position. Like {@link java.util.regex.Pattern},
+   * it matches at the end of the input and before a final line terminator.
+   */
+  private static boolean isEnd(String source, int index) {
+    int length = source.length();
+    
+    if (index >= length) {
+      return true;
+    }
+    
+    if (index == length - 2) {
+      return source.charAt(index) == '\r' && source.charAt(index + 1) == '\n';
+    }
+    
+    if (index == length - 1) {
+      char c = source.charAt(index);
+      
+      if (c == '\n') {
+        return index == 0 || source.charAt(index - 1) != '\r';
+      }
+      
+      return c == '\r' || c == '\u0085' || (c | 1) == '\u2029';
+    }
+    
+    return false;
+  }
+  
+  /**
+   * Computes all instructions reachable from the threads of a state, in order of precedence.
+   */
+  private final class Closure {
+    private final boolean[] visited = new boolean[nfa.size()];
+    private final boolean prevWord;
+    private final boolean nextWord;
+    private final boolean begin;
+    private final boolean end;
+    private int[] stack = new int[16];
+    private int[] candidates = new int[16];
+    private int size;
+    
+    private Closure(boolean prevWord, boolean nextWord, boolean begin, boolean end) {
+      this.prevWord = prevWord;
+      this.nextWord = nextWord;
+      this.begin = begin;
+      this.end = end;
+    }
+    
+    /**
+     * Follows all instructions reachable from the thread without consuming any input.
+     *
+     * @return The index of the matched expression or {@code -1}, if no match has been reached.
+     */
+    private int add(int thread) {
+      int top = 0;
+      stack[top++] = thread;
+      
+      while (top > 0) {
+        int instruction = stack[--top];
+        
+        if (visited[instruction]) {
+          continue;
+        }
+        
+        visited[instruction] = true;
+        
+        switch (nfa.getOpcode(instruction)) {
+          case Nfa.CHAR:
+            candidates = push(candidates, size++, instruction);
+            break;
+          case Nfa.SPLIT:
+            // The first instruction has to be at the top
+            stack = push(stack, top++, nfa.getSecond(instruction));
+            stack = push(stack, top++, nfa.getFirst(instruction));
+            break;
+          case Nfa.ASSERT:
+            if (holds(nfa.getSecond(instruction))) {
+              stack = push(stack, top++, nfa.getFirst(instruction));
+            }
+            break;
+          default:
+            return nfa.getFirst(instruction);
+        }
+      }
+      
+      return -1;
+    }
+    
+    private boolean holds(int assertion) {
+      switch (assertion) {
+        case Assertion.BEGIN:
+          return begin;
+        case Assertion.END:
+          return end;
+        case Assertion.WORD_BOUNDARY:
+          return prevWord != nextWord;
+        default:
+          throw new IllegalStateException("Unknown assertion " + assertion);
+      }
+    }
+    
+    /**
+     * Consumes the code point with all collected instructions.
+     *
+     * @return The instructions of the next state, in order of precedence.
+     */
+    private int[] consume(int cp) {
+      boolean[] added = new boolean[nfa.size()];
+      int[] result = new int[size];
+      int count = 0;
+      
+      for (int i = 0; i < size; ++i) {
+        if (nfa.matches(candidates[i], cp)) {
+          int next = nfa.getFirst(candidates[i]);
+          
+          if (!added[next]) {
+            added[next] = true;
+            result[count++] = next;
+          }
+        }
+      }
+      
+      return count == 0 ? EMPTY : Arrays.copyOf(result, count);
+    }
+  }
+  
+  private static int[] push(int[] array, int index, int value) {
+    int[] result = index < array.length ? array : Arrays.copyOf(array, array.length * 2);
+    result[index] = value;
+    return result;
+  }
+  
+  private static final class Transition {
+    private final State next;
+    private final int match;
+    
+    private Transition(State next, int match) {
+      this.next = next;
+      this.match = match;
+    }
+  }
+  
+  private static final class State {
+    private final int[] threads;
+    private final boolean prevWord;
+    private final boolean prevBase;
+    private final boolean searching;
+    private final boolean cached;
+    private final int hashCode;
+    private final Transition[] ascii;
+    private final Map<Integer, Transition> others;
+    
+    private State(int[] threads, boolean prevWord, boolean prevBase, boolean searching,
+          boolean cached) {
+      this.threads = threads;
+      this.prevWord = prevWord;
+      this.prevBase = prevBase;
+      this.searching = searching;
+      this.cached = cached;
+      this.hashCode = Arrays.hashCode(threads) * 8
+            + (prevWord ? 4 : 0) + (prevBase ? 2 : 0) + (searching ? 1 : 0);
+      this.ascii = cached ? new Transition[ASCII] : new Transition[0];
+      this.others = cached ? new ConcurrentHashMap<>() : Map.of();
+    }
+    
+    private @Nullable Transition get(int cp) {
+      if (cp < ascii.length) {
+        return ascii[cp];
+      }
+      
+      return cached ? others.get(cp) : null;
+    }
+    
+    private void put(int cp, Transition transition) {
+      // Uncached states must not be reachable from cached states
+      if (!cached || !transition.next.cached) {
+        return;
+      }
+      
+      if (cp < ASCII) {
+        ascii[cp] = transition;
+      } else {
+        others.put(cp, transition);
+      }
+    }
+    
+    @Override
+    public boolean equals(@Nullable Object other) {
+      if (!(other instanceof State)) {
+        return false;
+      }
+      
+      State state = (State) other;
+      return prevWord == state.prevWord
+            && prevBase == state.prevBase
+            && searching == state.searching
+            && Arrays.equals(threads, state.threads);
+    }
+    
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.api.util;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Character sequence which limits how often a regular expression may access the input.<br>
+ * Patterns like {@code (a+)+$} may backtrack exponentially often before they fail. Every access
+ * counts as a single step of the matcher. Once either the number of steps or the elapsed time
+ * exceeds the budget, all further accesses fail with a {@link BudgetExceededException}, aborting
+ * the matcher.<br>
+ * A single {@link Budget} may be shared by multiple sequences, so that all patterns which are
+ * matched against the same input are limited by a common budget.
+ */
+@NonNullByDefault
+/*package*/ final class InterruptibleCharSequence implements CharSequence {
+  /**
+   * The maximum number of character accesses per input, across all patterns.
+   */
+  /*package*/ static final long MAX_STEPS = 1_000_000;
+  /**
+   * The maximum time in nanoseconds spent per input, across all patterns.
+   */
+  /*package*/ static final long MAX_NANOS = 50_000_000;
+  /**
+   * The number of times a pattern may exceed its budget before it is quarantined.
+   */
+  /*package*/ static final int MAX_VIOLATIONS = 3;
+  /**
+   * The time is only checked every few steps, as {@link System#nanoTime()} isn't free.
+   */
+  private static final int CHECK_INTERVAL = 1024;
+  private final CharSequence source;
+  private final Budget budget;
+  
+  /**
+   * Creates a new character sequence with the default budget.
+   *
+   * @param source The input of the matcher.
+   */
+  /*package*/ InterruptibleCharSequence(CharSequence source) {
+    this(source, new Budget());
+  }
+  
+  /**
+   * Creates a new character sequence which consumes the given budget.
+   *
+   * @param source The input of the matcher.
+   * @param budget The budget shared with other sequences.
+   */
+  /*package*/ InterruptibleCharSequence(CharSequence source, Budget budget) {
+    this.source = source;
+    this.budget = budget;
+  }
+  
+  @Override
+  public char charAt(int index) {
+    budget.step();
+    return source.charAt(index);
+  }
+  
+  @Override
+  public int length() {
+    return source.length();
+  }
+  
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    // Shares the budget with the original sequence
+    return new InterruptibleCharSequence(source.subSequence(start, end), budget);
+  }
+  
+  @Override
+  public String toString() {
+    return source.toString();
+  }
+  
+  /**
+   * Thrown whenever a matcher exceeds its budget.
+   */
+  /*package*/ static final class BudgetExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    
+    private BudgetExceededException(String message) {
+      super(message);
+    }
+  }
+  
+  /**
+   * The number of steps and the time a matcher may spend on a single input. Instances are not
+   * thread-safe and must only be shared by sequences which are matched by the same thread.
+   */
+  /*package*/ static final class Budget {
+    private final long maxSteps;
+    private final long deadline;
+    private long steps;
+    private boolean exceeded;
+    
+    /**
+     * Creates a new budget with the default limits. The time limit starts immediately.
+     */
+    /*package*/ Budget() {
+      this(MAX_STEPS, MAX_NANOS);
+    }
+    
+    private Budget(long maxSteps, long maxNanos) {
+      this.maxSteps = maxSteps;
+      this.deadline = System.nanoTime() + maxNanos;
+    }
+    
+    /**
+     * Checks whether a matcher has already exceeded this budget.
+     *
+     * @return {@code true}, if all further accesses fail.
+     */
+    /*package*/ boolean isExceeded() {
+      return exceeded;
+    }
+    
+    private void step() {
+      steps++;
+      
+      if (steps > maxSteps) {
+        exceeded = true;
+        throw new BudgetExceededException("Exceeded " + maxSteps + " steps");
+      }
+      
+      if (steps % CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+        exceeded = true;
+        throw new BudgetExceededException("Exceeded the time limit after " + steps + " steps");
+      }
+    }
+  }
+}
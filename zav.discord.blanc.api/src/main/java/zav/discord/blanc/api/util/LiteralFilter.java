@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.api.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import zav.discord.blanc.api.util.RegexParser.Alternation;
+import zav.discord.blanc.api.util.RegexParser.Concatenation;
+import zav.discord.blanc.api.util.RegexParser.Literal;
+import zav.discord.blanc.api.util.RegexParser.Node;
+import zav.discord.blanc.api.util.RegexParser.Repetition;
+
+/**
+ * Cheap prefilter for a list of patterns.<br>
+ * For each pattern, a set of literals is extracted of which at least one has to be contained in
+ * every matching string. All literals are then searched at once using the Aho-Corasick algorithm,
+ * which requires only a single pass over the input. Patterns whose literals don't occur in the
+ * input can't match and therefore don't have to be evaluated. Patterns without such literals are
+ * always evaluated.<br>
+ * Literals are compared case-insensitively, in the same way as
+ * {@link java.util.regex.Pattern#CASE_INSENSITIVE}, i.e. only US-ASCII characters are folded.
+ */
+@NonNullByDefault
+/*package*/ final class LiteralFilter {
+  /**
+   * Shorter literals occur in too many messages to be worth filtering for.
+   */
+  private static final int MIN_LENGTH = 2;
+  /**
+   * Upper bound for the literals per pattern, e.g. for large alternations.
+   */
+  private static final int MAX_LITERALS = 32;
+  private static final int ASCII = 128;
+  private final BitSet unfiltered = new BitSet();
+  private final int[] transitions;
+  private final List<Map<Character, Integer>> children = new ArrayList<>();
+  private final int[] failures;
+  private final @Nullable BitSet[] outputs;
+  
+  /**
+   * Creates a new filter.
+   *
+   * @param literals For each pattern, the literals of which at least one is contained in every
+   *     matching string. {@code null}, if no such literals exist.
+   */
+  /*package*/ LiteralFilter(List<@Nullable Set<String>> literals) {
+    List<BitSet> matches = new ArrayList<>();
+    addNode(matches);
+    
+    // Build the trie over all literals
+    for (int i = 0; i < literals.size(); ++i) {
+      @Nullable Set<String> patternLiterals = literals.get(i);
+      
+      if (!isSelective(patternLiterals)) {
+        unfiltered.set(i);
+        continue;
+      }
+      
+      for (String literal : patternLiterals) {
+        int node = 0;
+        
+        for (int j = 0; j < literal.length(); ++j) {
+          Map<Character, Integer> edges = children.get(node);
+          @Nullable Integer next = edges.get(literal.charAt(j));
+          
+          if (next == null) {
+            next = addNode(matches);
+            edges.put(literal.charAt(j), next);
+          }
+          
+          node = next;
+        }
+        
+        matches.get(node).set(i);
+      }
+    }
+    
+    int size = children.size();
+    this.transitions = new int[size * ASCII];
+    this.failures = new int[size];
+    this.outputs = new BitSet[size];
+    
+    // Compute the failure links in breadth-first order
+    Queue<Integer> queue = new ArrayDeque<>();
+    queue.add(0);
+    
+    while (!queue.isEmpty()) {
+      int node = queue.remove();
+      int failure = failures[node];
+      
+      if (node != 0) {
+        matches.get(node).or(matches.get(failure));
+      }
+      
+      outputs[node] = matches.get(node).isEmpty() ? null : matches.get(node);
+      
+      for (int c = 0; c < ASCII; ++c) {
+        @Nullable Integer child = children.get(node).get((char) c);
+        
+        if (child != null) {
+          transitions[node * ASCII + c] = child;
+        } else {
+          transitions[node * ASCII + c] = node == 0 ? 0 : transitions[failure * ASCII + c];
+        }
+      }
+      
+      for (Map.Entry<Character, Integer> entry : children.get(node).entrySet()) {
+        int child = entry.getValue();
+        failures[child] = node == 0 ? 0 : next(failure, entry.getKey());
+        queue.add(child);
+      }
+    }
+  }
+  
+  private int addNode(List<BitSet> matches) {
+    children.add(new HashMap<>());
+    matches.add(new BitSet());
+    return children.size() - 1;
+  }
+  
+  /**
+   * Returns all patterns which may match the given input.
+   *
+   * @param source An arbitrary string.
+   * @return A set containing the indices of all candidate patterns.
+   */
+  /*package*/ BitSet getCandidates(String source) {
+    BitSet result = (BitSet) unfiltered.clone();
+    
+    // No pattern can be filtered
+    if (children.size() == 1) {
+      return result;
+    }
+    
+    int node = 0;
+    
+    for (int i = 0; i < source.length(); ++i) {
+      char c = CaseFolding.fold(source.charAt(i));
+      node = c < ASCII ? transitions[node * ASCII + c] : next(node, c);
+      @Nullable BitSet output = outputs[node];
+      
+      if (output != null) {
+        result.or(output);
+      }
+    }
+    
+    return result;
+  }
+  
+  private int next(int node, char c) {
+    while (true) {
+      if (c < ASCII) {
+        return transitions[node * ASCII + c];
+      }
+      
+      @Nullable Integer child = children.get(node).get(c);
+      
+      if (child != null) {
+        return child;
+      }
+      
+      if (node == 0) {
+        return 0;
+      }
+      
+      node = failures[node];
+    }
+  }
+  
+  /**
+   * Extracts the literals of which at least one has to be contained in every string matched by the
+   * given node.
+   *
+   * @param node The syntax tree of a pattern.
+   * @return The normalized literals or {@code null}, if no such literals exist.
+   */
+  /*package*/ static @Nullable Set<String> getLiterals(Node node) {
+    if (node instanceof Literal) {
+      int codePoint = ((Literal) node).codePoint;
+      return codePoint < 0 ? null : Set.of(CaseFolding.fold(Character.toString(codePoint)));
+    } else if (node instanceof Concatenation) {
+      return getLiterals((Concatenation) node);
+    } else if (node instanceof Alternation) {
+      return getLiterals(((Alternation) node).nodes);
+    } else if (node instanceof Repetition) {
+      Repetition repetition = (Repetition) node;
+      return repetition.min > 0 ? getLiterals(repetition.node) : null;
+    } else {
+      return null;
+    }
+  }
+  
+  private static @Nullable Set<String> getLiterals(Concatenation node) {
+    @Nullable Set<String> result = null;
+    StringBuilder sequence = new StringBuilder();
+    
+    // Either a sequence of consecutive characters or the literals of a single node
+    for (Node child : node.nodes) {
+      if (child instanceof Literal && ((Literal) child).codePoint >= 0) {
+        sequence.appendCodePoint(((Literal) child).codePoint);
+      } else {
+        result = select(result, getSequence(sequence));
+        result = select(result, getLiterals(child));
+        sequence.setLength(0);
+      }
+    }
+    
+    return select(result, getSequence(sequence));
+  }
+  
+  private static @Nullable Set<String> getLiterals(Collection<Node> nodes) {
+    Set<String> result = new HashSet<>();
+    
+    // Every alternative must contain at least one literal
+    for (Node child : nodes) {
+      @Nullable Set<String> literals = getLiterals(child);
+      
+      if (literals == null) {
+        return null;
+      }
+      
+      result.addAll(literals);
+    }
+    
+    return result.size() > MAX_LITERALS ? null : result;
+  }
+  
+  private static @Nullable Set<String> getSequence(CharSequence sequence) {
+    return sequence.length() == 0 ? null : Set.of(CaseFolding.fold(sequence.toString()));
+  }
+  
+  /**
+   * Selects the literals which are more likely to filter the input.
+   */
+  private static @Nullable Set<String> select(@Nullable Set<String> left,
+        @Nullable Set<String> right) {
+    return getMinLength(right) > getMinLength(left) ? right : left;
+  }
+  
+  private static int getMinLength(@Nullable Set<String> literals) {
+    return literals == null ? 0 : literals.stream().mapToInt(String::length).min().orElse(0);
+  }
+  
+  private static boolean isSelective(@Nullable Set<String> literals) {
+    return getMinLength(literals) >= MIN_LENGTH;
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.api.util;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dedicated thread pool for processing the guild messages of a shard, e.g. matching them against
+ * the auto-responses.<br>
+ * Matching may require database queries and compiling the patterns of a guild, which must not
+ * block the event thread of the shard. Tasks are therefore only queued by the event thread and
+ * executed by up to {@code parallelism} worker threads. If {@code capacity} tasks are already
+ * waiting or being executed, new tasks are dropped instead of blocking the caller.<br>
+ * All metrics cover the time since the last call to {@link #logStatistics()}.
+ */
+@NonNullByDefault
+public final class MatcherPool {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MatcherPool.class);
+  private final AtomicInteger queued = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder latency = new LongAdder();
+  private final LongAccumulator maxLatency = new LongAccumulator(Long::max, 0);
+  private final AtomicBoolean overloaded = new AtomicBoolean();
+  private final Executor executor;
+  private final LongSupplier ticker;
+  private final int capacity;
+  
+  /**
+   * Creates a new pool instance.
+   *
+   * @param parallelism The number of worker threads.
+   * @param capacity The maximum number of tasks which are waiting or being executed.
+   */
+  public MatcherPool(int parallelism, int capacity) {
+    this(createExecutor(parallelism), capacity, System::nanoTime);
+  }
+  
+  /*package*/ MatcherPool(Executor executor, int capacity, LongSupplier ticker) {
+    this.executor = executor;
+    this.capacity = capacity;
+    this.ticker = ticker;
+  }
+  
+  private static ExecutorService createExecutor(int parallelism) {
+    return Executors.newFixedThreadPool(parallelism, new BasicThreadFactory.Builder()
+          .namingPattern("auto-response-%d")
+          .daemon(true)
+          .build());
+  }
+  
+  /**
+   * Schedules the task to be executed asynchronously. This method never blocks.
+   *
+   * @param task The task matching a single message.
+   * @return {@code false}, if the task has been dropped because the pool is overloaded.
+   */
+  public boolean submit(Runnable task) {
+    if (queued.incrementAndGet() > capacity) {
+      queued.decrementAndGet();
+      dropped.increment();
+      // Only warn once per interval, the remaining drops are covered by the statistics
+      if (overloaded.compareAndSet(false, true)) {
+        LOGGER.warn("Matcher pool is full. Dropping messages...");
+      }
+      return false;
+    }
+    
+    long start = ticker.getAsLong();
+    
+    try {
+      executor.execute(() -> run(task, start));
+      return true;
+    } catch (RejectedExecutionException e) {
+      // Thrown after the pool has been shut down
+      queued.decrementAndGet();
+      dropped.increment();
+      if (overloaded.compareAndSet(false, true)) {
+        LOGGER.warn(e.getMessage(), e);
+      }
+      return false;
+    }
+  }
+  
+  private void run(Runnable task, long start) {
+    try {
+      task.run();
+    } catch (RuntimeException e) {
+      // A single failed message shouldn't terminate the worker
+      LOGGER.error(e.getMessage(), e);
+    } finally {
+      long elapsed = ticker.getAsLong() - start;
+      queued.decrementAndGet();
+      completed.increment();
+      latency.add(elapsed);
+      maxLatency.accumulate(elapsed);
+    }
+  }
+  
+  /**
+   * Returns the number of tasks which are either waiting or being executed.
+   *
+   * @return The current length of the queue.
+   */
+  public int getQueued() {
+    return queued.get();
+  }
+  
+  /**
+   * Returns the number of tasks which have been executed since the last report.
+   *
+   * @return The number of completed tasks.
+   */
+  public long getCompleted() {
+    return completed.sum();
+  }
+  
+  /**
+   * Returns the number of tasks which have been rejected since the last report because the pool
+   * was overloaded.
+   *
+   * @return The number of dropped tasks.
+   */
+  public long getDropped() {
+    return dropped.sum();
+  }
+  
+  /**
+   * Returns the average time between submitting and completing a task.
+   *
+   * @return The average latency of all tasks completed since the last report.
+   */
+  public Duration getAverageLatency() {
+    long count = completed.sum();
+    return count == 0 ? Duration.ZERO : Duration.ofNanos(latency.sum() / count);
+  }
+  
+  /**
+   * Returns the longest time between submitting and completing a task.
+   *
+   * @return The maximum latency of all tasks completed since the last report.
+   */
+  public Duration getMaxLatency() {
+    return Duration.ofNanos(maxLatency.get());
+  }
+  
+  /**
+   * Logs the current metrics of this pool and starts a new reporting interval.
+   */
+  public void logStatistics() {
+    long count = completed.sumThenReset();
+    long total = latency.sumThenReset();
+    long average = count == 0 ? 0 : total / count;
+    long max = maxLatency.getThenReset();
+    
+    LOGGER.info("Auto-responses: {} queued, {} completed, {} dropped, latency {}ms avg / {}ms max",
+          getQueued(), count, dropped.sumThenReset(),
+          Duration.ofNanos(average).toMillis(), Duration.ofNanos(max).toMillis());
+    
+    overloaded.set(false);
+  }
+}
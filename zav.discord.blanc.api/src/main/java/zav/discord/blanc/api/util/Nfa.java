@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.api.util;
+
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import zav.discord.blanc.api.util.RegexParser.Alternation;
+import zav.discord.blanc.api.util.RegexParser.Assertion;
+import zav.discord.blanc.api.util.RegexParser.Concatenation;
+import zav.discord.blanc.api.util.RegexParser.Literal;
+import zav.discord.blanc.api.util.RegexParser.Node;
+import zav.discord.blanc.api.util.RegexParser.Repetition;
+
+/**
+ * Thompson automaton over multiple regular expressions. Each instruction is identified by its
+ * index. Each expression has its own entry instruction and ends with a {@link #MATCH} instruction
+ * referencing the index of the expression.
+ */
+@NonNullByDefault
+/*package*/ final class Nfa {
+  /**
+   * Consumes a single code point contained in the character class.
+   */
+  /*package*/ static final int CHAR = 0;
+  /**
+   * Continues with both instructions. The first instruction takes precedence.
+   */
+  /*package*/ static final int SPLIT = 1;
+  /**
+   * Continues with the given instruction, if the assertion holds.
+   */
+  /*package*/ static final int ASSERT = 2;
+  /**
+   * The expression has been matched.
+   */
+  /*package*/ static final int MATCH = 3;
+  /**
+   * Upper bound for the number of instructions per expression.
+   */
+  private static final int MAX_INSTRUCTIONS = 10_000;
+  private int[] opcodes = new int[64];
+  private int[] first = new int[64];
+  private int[] second = new int[64];
+  private @Nullable CharClass[] classes = new CharClass[64];
+  private int[] starts = new int[0];
+  private int size;
+  
+  /**
+   * Adds the expression to this automaton.
+   *
+   * @param node The syntax tree of the expression.
+   * @return The index of the expression.
+   * @throws IllegalArgumentException If the expression exceeds the maximum size.
+   */
+  /*package*/ int add(Node node) {
+    int mark = size;
+    int expression = starts.length;
+    
+    try {
+      int match = add(MATCH, expression, -1, null);
+      int start = compile(node, match, mark);
+      
+      starts = Arrays.copyOf(starts, expression + 1);
+      starts[expression] = start;
+      return expression;
+    } catch (IllegalArgumentException e) {
+      // Discard all instructions of this expression
+      size = mark;
+      throw e;
+    }
+  }
+  
+  private int compile(Node node, int next, int mark) {
+    if (size - mark > MAX_INSTRUCTIONS) {
+      throw new IllegalArgumentException("Expression is too large");
+    }
+    
+    if (node instanceof Literal) {
+      return add(CHAR, next, -1, ((Literal) node).value);
+    } else if (node instanceof Assertion) {
+      return add(ASSERT, next, ((Assertion) node).kind, null);
+    } else if (node instanceof Concatenation) {
+      List<Node> nodes = ((Concatenation) node).nodes;
+      
+      for (int i = nodes.size() - 1; i >= 0; --i) {
+        next = compile(nodes.get(i), next, mark);
+      }
+      
+      return next;
+    } else if (node instanceof Alternation) {
+      List<Node> nodes = ((Alternation) node).nodes;
+      int result = compile(nodes.get(nodes.size() - 1), next, mark);
+      
+      for (int i = nodes.size() - 2; i >= 0; --i) {
+        result = add(SPLIT, compile(nodes.get(i), next, mark), result, null);
+      }
+      
+      return result;
+    } else if (node instanceof Repetition) {
+      Repetition repetition = (Repetition) node;
+      int result = next;
+      
+      if (repetition.max == Repetition.INFINITE) {
+        // Loop back to the split after each iteration
+        int split = add(SPLIT, -1, next, null);
+        // Compiling the body may grow the arrays, so the target must be assigned afterwards
+        int body = compile(repetition.node, split, mark);
+        first[split] = body;
+        result = split;
+      } else {
+        for (int i = repetition.min; i < repetition.max; ++i) {
+          result = add(SPLIT, compile(repetition.node, result, mark), next, null);
+        }
+      }
+      
+      for (int i = 0; i < repetition.min; ++i) {
+        result = compile(repetition.node, result, mark);
+      }
+      
+      return result;
+    } else {
+      throw new IllegalArgumentException("Unknown node " + node);
+    }
+  }
+  
+  private int add(int opcode, int first, int second, @Nullable CharClass value) {
+    if (size == opcodes.length) {
+      int length = size * 2;
+      opcodes = Arrays.copyOf(opcodes, length);
+      this.first = Arrays.copyOf(this.first, length);
+      this.second = Arrays.copyOf(this.second, length);
+      classes = Arrays.copyOf(classes, length);
+    }
+    
+    opcodes[size] = opcode;
+    this.first[size] = first;
+    this.second[size] = second;
+    classes[size] = value;
+    return size++;
+  }
+  
+  /**
+   * Returns the number of instructions.
+   *
+   * @return The number of instructions of all expressions.
+   */
+  /*package*/ int size() {
+    return size;
+  }
+  
+  /**
+   * Returns the number of expressions.
+   *
+   * @return The number of expressions in this automaton.
+   */
+  /*package*/ int getExpressions() {
+    return starts.length;
+  }
+  
+  /*package*/ int getStart(int expression) {
+    return starts[expression];
+  }
+  
+  /*package*/ int getOpcode(int instruction) {
+    return opcodes[instruction];
+  }
+  
+  /**
+   * Returns the next instruction. For {@link #SPLIT}, this is the instruction which takes
+   * precedence. For {@link #MATCH}, this is the index of the matched expression.
+   *
+   * @param instruction The index of an instruction.
+   * @return The first argument of the instruction.
+   */
+  /*package*/ int getFirst(int instruction) {
+    return first[instruction];
+  }
+  
+  /**
+   * Returns the alternative instruction for {@link #SPLIT} and the kind of assertion for
+   * {@link #ASSERT}.
+   *
+   * @param instruction The index of an instruction.
+   * @return The second argument of the instruction.
+   */
+  /*package*/ int getSecond(int instruction) {
+    return second[instruction];
+  }
+  
+  /*package*/ boolean matches(int instruction, int cp) {
+    @Nullable CharClass value = classes[instruction];
+    return value != null && value.matches(cp);
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.api.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Static complexity check for regular expressions.<br>
+ * Patterns which can be evaluated by the {@link AutomatonMatcher} are always matched in linear
+ * time. All other patterns are matched via backtracking, which may take exponential time if a
+ * quantified group itself contains a quantifier, e.g. {@code (a+)+} or {@code (\w*\s?)*}, or an
+ * alternation whose branches may overlap, e.g. {@code (a|aa)+} or {@code (\w|\d)*}. Such patterns
+ * are rejected. Alternations are rejected regardless of whether their branches actually overlap.
+ */
+@NonNullByDefault
+public final class RegexComplexity {
+  private static final int QUANTIFIER = 1;
+  private static final int ALTERNATION = 2;
+  
+  private RegexComplexity() {
+  }
+  
+  /**
+   * Checks whether the given pattern can be matched without excessive backtracking.
+   *
+   * @param pattern A valid regular expression.
+   * @return {@code false}, if the pattern contains nested quantifiers or quantified alternations
+   *     and can't be matched by an automaton.
+   */
+  public static boolean isSafe(String pattern) {
+    try {
+      RegexParser.parse(pattern);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return !hasNestedQuantifier(pattern);
+    }
+  }
+  
+  private static boolean hasNestedQuantifier(String pattern) {
+    // For each open group, whether it contains a quantifier or an alternation
+    Deque<Integer> groups = new ArrayDeque<>();
+    int flags = 0;
+    int index = 0;
+    
+    while (index < pattern.length()) {
+      char c = pattern.charAt(index++);
+      
+      switch (c) {
+        case '\\':
+          index = skipEscape(pattern, index);
+          break;
+        case '[':
+          index = skipClass(pattern, index);
+          break;
+        case '(':
+          groups.push(flags);
+          flags = 0;
+          break;
+        case '|':
+          flags |= ALTERNATION;
+          break;
+        case ')':
+          int inner = flags;
+          flags = groups.isEmpty() ? 0 : groups.pop();
+          
+          if (index < pattern.length() && isRepetition(pattern, index)) {
+            if (inner != 0) {
+              return true;
+            }
+            
+            flags |= QUANTIFIER;
+          } else {
+            flags |= inner;
+          }
+          break;
+        default:
+          if (isRepetition(pattern, index - 1)) {
+            flags |= QUANTIFIER;
+          }
+      }
+    }
+    
+    return false;
+  }
+  
+  /**
+   * Checks whether the quantifier at the given position matches more than a fixed number of times.
+   * {@code ?} and {@code {n}} are therefore excluded.
+   */
+  private static boolean isRepetition(String pattern, int index) {
+    char c = pattern.charAt(index);
+    
+    if (c == '*' || c == '+') {
+      return true;
+    }
+    
+    if (c != '{') {
+      return false;
+    }
+    
+    int end = pattern.indexOf('}', index);
+    return end > 0 && pattern.substring(index, end).indexOf(',') >= 0;
+  }
+  
+  private static int skipEscape(String pattern, int index) {
+    // Quoted sequences are matched literally
+    if (pattern.startsWith("Q", index)) {
+      int end = pattern.indexOf("\\E", index);
+      return end < 0 ? pattern.length() : end + 2;
+    }
+    
+    return Math.min(index + 1, pattern.length());
+  }
+  
+  private static int skipClass(String pattern, int index) {
+    int depth = 1;
+    
+    while (index < pattern.length() && depth > 0) {
+      char c = pattern.charAt(index++);
+      
+      if (c == '\\') {
+        index = skipEscape(pattern, index);
+      } else if (c == '[') {
+        depth++;
+      } else if (c == ']') {
+        depth--;
+      }
+    }
+    
+    return index;
+  }
+}
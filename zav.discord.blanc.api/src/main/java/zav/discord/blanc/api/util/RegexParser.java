@@ -0,0 +1,484 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.api.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Parser for the subset of {@link java.util.regex.Pattern} which can be evaluated by a finite
+ * automaton. All patterns are parsed case-insensitively.<br>
+ * Supported are literals, character classes (without intersections and nested classes), the
+ * predefined classes {@code . \d \D \s \S \w \W}, groups, alternations, greedy and reluctant
+ * quantifiers, as well as the boundary matchers {@code ^ $ \b}.<br>
+ * Patterns which require backtracking (e.g. backreferences and lookarounds), or which use any
+ * other construct, are rejected with an {@link IllegalArgumentException}.
+ */
+@NonNullByDefault
+/*package*/ final class RegexParser {
+  /**
+   * Upper bound for repetitions, as each repetition is expanded into its own copy.
+   */
+  private static final int MAX_REPETITIONS = 100;
+  private final String pattern;
+  private int index;
+  
+  private RegexParser(String pattern) {
+    this.pattern = pattern;
+  }
+  
+  /**
+   * Parses the given pattern.
+   *
+   * @param pattern A regular expression.
+   * @return The syntax tree of the regular expression.
+   * @throws IllegalArgumentException If the pattern can't be evaluated by a finite automaton.
+   */
+  public static Node parse(String pattern) {
+    RegexParser parser = new RegexParser(pattern);
+    Node result = parser.parseAlternation();
+    
+    if (parser.hasNext()) {
+      throw parser.unsupported();
+    }
+    
+    return result;
+  }
+  
+  private Node parseAlternation() {
+    List<Node> alternatives = new ArrayList<>();
+    alternatives.add(parseConcatenation());
+    
+    while (hasNext() && peek() == '|') {
+      index++;
+      alternatives.add(parseConcatenation());
+    }
+    
+    return alternatives.size() == 1 ? alternatives.get(0) : new Alternation(alternatives);
+  }
+  
+  private Node parseConcatenation() {
+    List<Node> nodes = new ArrayList<>();
+    
+    while (hasNext() && peek() != '|' && peek() != ')') {
+      nodes.add(parseRepetition());
+    }
+    
+    return nodes.size() == 1 ? nodes.get(0) : new Concatenation(nodes);
+  }
+  
+  private Node parseRepetition() {
+    Node node = parseAtom();
+    
+    if (!hasNext() || !isQuantifier(peek())) {
+      return node;
+    }
+    
+    // Pattern treats empty iterations differently, e.g. quantified boundary matchers or (a?)*
+    if (isNullable(node)) {
+      throw unsupported();
+    }
+    
+    int min;
+    int max;
+    
+    switch (next()) {
+      case '*':
+        min = 0;
+        max = Repetition.INFINITE;
+        break;
+      case '+':
+        min = 1;
+        max = Repetition.INFINITE;
+        break;
+      case '?':
+        min = 0;
+        max = 1;
+        break;
+      default:
+        min = parseNumber();
+        max = min;
+        
+        if (hasNext() && peek() == ',') {
+          index++;
+          max = hasNext() && peek() == '}' ? Repetition.INFINITE : parseNumber();
+        }
+        
+        expect('}');
+        
+        if (max != Repetition.INFINITE && max < min) {
+          throw unsupported();
+        }
+    }
+    
+    // Reluctant quantifiers match the same strings as greedy quantifiers
+    if (hasNext() && peek() == '?') {
+      index++;
+    }
+    
+    // Possessive and stacked quantifiers
+    if (hasNext() && isQuantifier(peek())) {
+      throw unsupported();
+    }
+    
+    return new Repetition(node, min, max);
+  }
+  
+  private Node parseAtom() {
+    int cp = nextCodePoint();
+    
+    switch (cp) {
+      case '(':
+        return parseGroup();
+      case '[':
+        return new Literal(parseClass());
+      case '.':
+        return new Literal(CharClass.DOT);
+      case '^':
+        return new Assertion(Assertion.BEGIN);
+      case '$':
+        return new Assertion(Assertion.END);
+      case '\\':
+        return parseEscape();
+      case ')':
+      case '*':
+      case '+':
+      case '?':
+      case '{':
+        throw unsupported();
+      default:
+        return new Literal(checkSurrogate(cp));
+    }
+  }
+  
+  private Node parseGroup() {
+    // Only non-capturing groups are supported, e.g. no flags or lookarounds
+    if (hasNext() && peek() == '?') {
+      index++;
+      expect(':');
+    }
+    
+    Node node = parseAlternation();
+    expect(')');
+    return node;
+  }
+  
+  private Node parseEscape() {
+    int cp = nextCodePoint();
+    
+    switch (cp) {
+      case 'b':
+        return new Assertion(Assertion.WORD_BOUNDARY);
+      case 'B':
+        // Pattern also checks positions within a surrogate pair, which are never visited here
+        throw unsupported();
+      case 'd':
+      case 'D':
+      case 's':
+      case 'S':
+      case 'w':
+      case 'W':
+        return new Literal(parseEscape(cp).ignoreCase());
+      default:
+        return new Literal(parseEscapedCodePoint(cp));
+    }
+  }
+  
+  private CharClass parseEscape(int cp) {
+    switch (cp) {
+      case 'd':
+        return CharClass.DIGIT;
+      case 'D':
+        return CharClass.DIGIT.negate();
+      case 's':
+        return CharClass.SPACE;
+      case 'S':
+        return CharClass.SPACE.negate();
+      case 'w':
+        return CharClass.WORD;
+      case 'W':
+        return CharClass.WORD.negate();
+      default:
+        return CharClass.of(parseEscapedCodePoint(cp));
+    }
+  }
+  
+  private int parseEscapedCodePoint(int cp) {
+    switch (cp) {
+      case 't':
+        return '\t';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 'f':
+        return '\f';
+      case 'a':
+        return 0x07;
+      case 'e':
+        return 0x1B;
+      case 'x':
+        return parseHex(2);
+      case 'u':
+        // Pattern combines escaped surrogate pairs into a single code point
+        return checkSurrogate(parseHex(4));
+      default:
+        // Escaped non-alphabetic characters are literals, everything else (e.g. backreferences,
+        // quotations and Unicode categories) is not supported.
+        if (Character.isLetterOrDigit(cp)) {
+          throw unsupported();
+        }
+        
+        return cp;
+    }
+  }
+  
+  private CharClass parseClass() {
+    boolean negated = false;
+    
+    if (hasNext() && peek() == '^') {
+      negated = true;
+      index++;
+    }
+    
+    // Java doesn't treat a leading ']' as literal
+    if (hasNext() && peek() == ']') {
+      throw unsupported();
+    }
+    
+    CharClass result = cp -> false;
+    
+    while (true) {
+      int cp = nextCodePoint();
+      
+      if (cp == ']') {
+        break;
+      }
+      
+      // Nested classes and intersections
+      if (cp == '[' || (cp == '&' && hasNext() && peek() == '&')) {
+        throw unsupported();
+      }
+      
+      CharClass item;
+      int from = -1;
+      
+      if (cp == '\\') {
+        int escape = nextCodePoint();
+        
+        if ("dDsSwW".indexOf(escape) >= 0) {
+          item = parseEscape(escape);
+        } else {
+          from = parseEscapedCodePoint(escape);
+          item = CharClass.of(from);
+        }
+      } else {
+        item = CharClass.of(checkSurrogate(cp));
+        from = cp;
+      }
+      
+      // Range, unless the '-' is the last character of the class
+      if (from >= 0 && hasNext() && peek() == '-' && index + 1 < pattern.length()
+            && pattern.charAt(index + 1) != ']') {
+        index++;
+        int to = nextCodePoint();
+        
+        if (to == '\\' || to == '[' || to < from) {
+          throw unsupported();
+        }
+        
+        item = CharClass.range(from, to);
+      }
+      
+      result = result.or(item);
+    }
+    
+    result = result.ignoreCase();
+    return negated ? result.negate() : result;
+  }
+  
+  private int parseHex(int digits) {
+    if (index + digits > pattern.length()) {
+      throw unsupported();
+    }
+    
+    try {
+      int result = Integer.parseInt(pattern.substring(index, index + digits), 16);
+      index += digits;
+      return result;
+    } catch (NumberFormatException e) {
+      throw unsupported();
+    }
+  }
+  
+  private int parseNumber() {
+    int start = index;
+    
+    while (hasNext() && Character.isDigit(peek())) {
+      index++;
+    }
+    
+    if (start == index || index - start > 3) {
+      throw unsupported();
+    }
+    
+    int result = Integer.parseInt(pattern.substring(start, index));
+    
+    if (result > MAX_REPETITIONS) {
+      throw unsupported();
+    }
+    
+    return result;
+  }
+  
+  private int checkSurrogate(int cp) {
+    // Lone surrogates are only possible if the input is split between a surrogate pair
+    if (Character.isSurrogate((char) cp) && !Character.isSupplementaryCodePoint(cp)) {
+      throw unsupported();
+    }
+    
+    return cp;
+  }
+  
+  private static boolean isNullable(Node node) {
+    if (node instanceof Concatenation) {
+      return ((Concatenation) node).nodes.stream().allMatch(RegexParser::isNullable);
+    } else if (node instanceof Alternation) {
+      return ((Alternation) node).nodes.stream().anyMatch(RegexParser::isNullable);
+    } else if (node instanceof Repetition) {
+      return ((Repetition) node).min == 0 || isNullable(((Repetition) node).node);
+    } else {
+      return node instanceof Assertion;
+    }
+  }
+  
+  private static boolean isQuantifier(char c) {
+    return c == '*' || c == '+' || c == '?' || c == '{';
+  }
+  
+  private boolean hasNext() {
+    return index < pattern.length();
+  }
+  
+  private char peek() {
+    return pattern.charAt(index);
+  }
+  
+  private char next() {
+    return pattern.charAt(index++);
+  }
+  
+  private int nextCodePoint() {
+    if (!hasNext()) {
+      throw unsupported();
+    }
+    
+    int cp = pattern.codePointAt(index);
+    index += Character.charCount(cp);
+    return cp;
+  }
+  
+  private void expect(char c) {
+    if (!hasNext() || next() != c) {
+      throw unsupported();
+    }
+  }
+  
+  private IllegalArgumentException unsupported() {
+    return new IllegalArgumentException("Unsupported pattern " + pattern + " at index " + index);
+  }
+  
+  /**
+   * Base class for all nodes of the syntax tree.
+   */
+  /*package*/ abstract static class Node {
+  }
+  
+  /**
+   * Matches a single code point.
+   */
+  /*package*/ static final class Literal extends Node {
+    /*package*/ final CharClass value;
+    /**
+     * The code point of a single character or {@code -1}, if this node matches a character class.
+     */
+    /*package*/ final int codePoint;
+    
+    /*package*/ Literal(CharClass value) {
+      this.value = value;
+      this.codePoint = -1;
+    }
+    
+    /*package*/ Literal(int codePoint) {
+      this.value = CharClass.of(codePoint).ignoreCase();
+      this.codePoint = codePoint;
+    }
+  }
+  
+  /**
+   * Matches all nodes, one after another.
+   */
+  /*package*/ static final class Concatenation extends Node {
+    /*package*/ final List<Node> nodes;
+    
+    /*package*/ Concatenation(List<Node> nodes) {
+      this.nodes = nodes;
+    }
+  }
+  
+  /**
+   * Matches any of the nodes. Earlier nodes take precedence.
+   */
+  /*package*/ static final class Alternation extends Node {
+    /*package*/ final List<Node> nodes;
+    
+    /*package*/ Alternation(List<Node> nodes) {
+      this.nodes = nodes;
+    }
+  }
+  
+  /**
+   * Matches the node between {@code min} and {@code max} times.
+   */
+  /*package*/ static final class Repetition extends Node {
+    /*package*/ static final int INFINITE = -1;
+    /*package*/ final Node node;
+    /*package*/ final int min;
+    /*package*/ final int max;
+    
+    /*package*/ Repetition(Node node, int min, int max) {
+      this.node = node;
+      this.min = min;
+      this.max = max;
+    }
+  }
+  
+  /**
+   * Matches the empty string at specific positions of the input.
+   */
+  /*package*/ static final class Assertion extends Node {
+    /*package*/ static final int BEGIN = 0;
+    /*package*/ static final int END = 1;
+    /*package*/ static final int WORD_BOUNDARY = 2;
+    /*package*/ final int kind;
+    
+    /*package*/ Assertion(int kind) {
+      this.kind = kind;
+    }
+  }
+}
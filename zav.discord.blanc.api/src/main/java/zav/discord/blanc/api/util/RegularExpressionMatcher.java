@@ -5,24 +5,40 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jdt.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import zav.discord.blanc.api.util.InterruptibleCharSequence.BudgetExceededException;
 import zav.discord.blanc.databind.AutoResponseEntity;
 
 /**
  * A regex-based pattern matcher. It joins all entries into a single regex, each entry uniquely
  * identified by a group name. For each group, a response is specified.<br>
  * If a string matches one or more groups, the response from the first matched group is returned.
+ * <br>
+ * Inputs which don't contain any of the literals required by the entries are rejected without
+ * evaluating the pattern.<br>
+ * If possible, the input is folded once and matched against the folded pattern, instead of folding
+ * every character during the comparison. See {@link CaseFolding}.<br>
+ * The pattern has to match within a fixed budget. If it exceeds its budget repeatedly, the matcher
+ * is quarantined and no longer matches any input.
  */
-public class RegularExpressionMatcher {
+public class RegularExpressionMatcher implements AutoResponseMatcher {
   private static final Logger LOGGER = LoggerFactory.getLogger(RegularExpressionMatcher.class);
+  private final List<AutoResponseEntity> entries;
+  private final List<@Nullable Set<String>> literals;
   private final Pattern pattern;
+  private final boolean folded;
   private final List<String> groupNames;
   private final List<String> responses;
+  private final AtomicInteger violations = new AtomicInteger();
+  private final LiteralFilter filter;
   
   /**
    * Creates a new matcher instance.
@@ -30,13 +46,55 @@ public class RegularExpressionMatcher {
    * @param patterns A list of automatic responses.
    */
   public RegularExpressionMatcher(List<AutoResponseEntity> patterns) {
+    this(patterns, patterns.stream()
+        .map(RegularExpressionMatcher::createLiterals)
+        .collect(Collectors.toList()));
+  }
+  
+  private RegularExpressionMatcher(List<AutoResponseEntity> patterns,
+      List<@Nullable Set<String>> literals) {
+    this.entries = List.copyOf(patterns);
+    this.literals = Collections.unmodifiableList(literals);
     this.responses = createResponses(patterns);
     this.groupNames = createGroupNames(patterns);
-    this.pattern = createPattern(patterns);
+    
+    String expression = createExpression(patterns);
+    @Nullable String foldedExpression = CaseFolding.foldPattern(expression);
+    
+    if (foldedExpression != null) {
+      this.pattern = Pattern.compile(foldedExpression);
+      this.folded = true;
+    } else {
+      this.pattern = Pattern.compile(expression, Pattern.CASE_INSENSITIVE);
+      this.folded = false;
+    }
+    this.filter = new LiteralFilter(literals);
     
     LOGGER.debug("Created pattern {}", pattern.toString());
   }
   
+  @Override
+  public RegularExpressionMatcher add(AutoResponseEntity entry) {
+    List<AutoResponseEntity> patterns = new ArrayList<>(entries);
+    patterns.add(entry);
+    
+    List<@Nullable Set<String>> result = new ArrayList<>(literals);
+    result.add(createLiterals(entry));
+    
+    return new RegularExpressionMatcher(patterns, result);
+  }
+  
+  @Override
+  public RegularExpressionMatcher remove(int index) {
+    List<AutoResponseEntity> patterns = new ArrayList<>(entries);
+    patterns.remove(index);
+    
+    List<@Nullable Set<String>> result = new ArrayList<>(literals);
+    result.remove(index);
+    
+    return new RegularExpressionMatcher(patterns, result);
+  }
+  
   /**
    * Creates a list over all responses. The position of the response mirrors the position of the
    * pattern.
@@ -69,13 +127,13 @@ public class RegularExpressionMatcher {
   }
   
   /**
-   * Creates the pattern containing all entries. Each entry is wrapped around a named group. All
+   * Creates the expression containing all entries. Each entry is wrapped around a named group. All
    * entries are joined with an {@code or}.
    *
    * @param patterns A list of automatic responses.
-   * @return The pattern matching any of the given entries.
+   * @return The expression matching any of the given entries.
    */
-  private Pattern createPattern(List<AutoResponseEntity> patterns) {
+  private String createExpression(List<AutoResponseEntity> patterns) {
     List<String> groups = new ArrayList<>(patterns.size());
     
     for (int i = 0; i < patterns.size(); ++i) {
@@ -87,21 +145,46 @@ public class RegularExpressionMatcher {
       groups.add(group);
     }
     
-    return Pattern.compile(StringUtils.join(groups, "|"), Pattern.CASE_INSENSITIVE);
+    return StringUtils.join(groups, "|");
   }
   
   /**
-   * Checks the input string for any pattern matches. Returns the first response if a match is
-   * found, otherwise {@link Optional#empty()}.
+   * Extracts the literals used by the prefilter. Entries which can't be parsed by the
+   * {@link RegexParser} are never filtered.
    *
-   * @param source An arbitrary string.
-   * @return The automatic response of the first matching pattern.
+   * @param entity An automatic response.
+   * @return The literals required by the pattern or {@code null}, if it can't be filtered.
    */
-  public Optional<String> match(String source) {
-    Matcher matcher = pattern.matcher(source);
+  private static @Nullable Set<String> createLiterals(AutoResponseEntity entity) {
+    try {
+      return LiteralFilter.getLiterals(RegexParser.parse(entity.getPattern()));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+  
+  @Override
+  public Optional<String> match(String source, String foldedSource) {
+    if (violations.get() >= InterruptibleCharSequence.MAX_VIOLATIONS) {
+      return Optional.empty();
+    }
     
-    if (matcher.find()) {
-      return Optional.ofNullable(findFirst(matcher));
+    String input = folded ? foldedSource : source;
+    
+    // None of the entries can match
+    if (filter.getCandidates(input).isEmpty()) {
+      return Optional.empty();
+    }
+    
+    try {
+      Matcher matcher = pattern.matcher(new InterruptibleCharSequence(input));
+      
+      if (matcher.find()) {
+        return Optional.ofNullable(findFirst(matcher));
+      }
+    } catch (BudgetExceededException e) {
+      int count = violations.incrementAndGet();
+      LOGGER.warn("Pattern {} exceeded its budget {} time(s): {}", pattern, count, e.getMessage());
     }
     
     return Optional.empty();
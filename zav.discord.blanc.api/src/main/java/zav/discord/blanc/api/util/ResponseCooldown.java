@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.api.util;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Throttles the automatic responses of a shard.<br>
+ * A single pattern may be triggered by many messages in an active channel. Each reply counts
+ * towards the rate limit of the shard, which would then delay more important requests, such as the
+ * replies to slash commands. A reply is therefore only sent if none of the following cooldowns is
+ * active:
+ * <ul>
+ *   <li>The guild has received a reply within the guild cooldown.</li>
+ *   <li>The channel has received a reply within the channel cooldown.</li>
+ *   <li>The same response has been sent to the channel within the pattern cooldown.</li>
+ *   <li>The same response has been sent to the channel for the same message within the duplicate
+ *   window.</li>
+ * </ul>
+ * A cooldown of zero disables the corresponding check. Patterns are identified by their response.
+ */
+@NonNullByDefault
+public final class ResponseCooldown {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResponseCooldown.class);
+  /**
+   * The number of entries per cooldown. Each entry requires 8 bytes.
+   */
+  private static final int CAPACITY = 4096;
+  private final LongAdder suppressed = new LongAdder();
+  private final @Nullable CooldownTable guilds;
+  private final @Nullable CooldownTable channels;
+  private final @Nullable CooldownTable patterns;
+  private final @Nullable CooldownTable duplicates;
+  private final LongSupplier ticker;
+  private final long origin;
+  
+  /**
+   * Creates a new instance.
+   *
+   * @param guild The minimum time between two replies in the same guild.
+   * @param channel The minimum time between two replies in the same channel.
+   * @param pattern The minimum time between two identical replies in the same channel.
+   * @param duplicate The minimum time between two identical replies to the same message content in
+   *     the same channel.
+   */
+  public ResponseCooldown(Duration guild, Duration channel, Duration pattern, Duration duplicate) {
+    this(guild, channel, pattern, duplicate, System::nanoTime);
+  }
+  
+  /*package*/ ResponseCooldown(Duration guild, Duration channel, Duration pattern,
+        Duration duplicate, LongSupplier ticker) {
+    this.guilds = createTable(guild);
+    this.channels = createTable(channel);
+    this.patterns = createTable(pattern);
+    this.duplicates = createTable(duplicate);
+    this.ticker = ticker;
+    this.origin = ticker.getAsLong();
+  }
+  
+  private static @Nullable CooldownTable createTable(Duration cooldown) {
+    return cooldown.isZero() ? null : new CooldownTable(CAPACITY, cooldown.toMillis());
+  }
+  
+  /**
+   * Checks whether the response may be sent and, if so, starts all cooldowns.
+   *
+   * @param guildId The id of the guild in which the message has been received.
+   * @param channelId The id of the channel in which the message has been received.
+   * @param content The content of the received message.
+   * @param response The automatic response to this message.
+   * @return {@code true}, if the response may be sent.
+   */
+  public boolean tryAcquire(long guildId, long channelId, String content, String response) {
+    // Offset by one, as the tables require a positive time
+    long now = TimeUnit.NANOSECONDS.toMillis(ticker.getAsLong() - origin) + 1;
+    long pattern = 31 * channelId + response.hashCode();
+    long duplicate = 31 * pattern + content.hashCode();
+    
+    if (isActive(guilds, guildId, now)
+          || isActive(channels, channelId, now)
+          || isActive(patterns, pattern, now)
+          || isActive(duplicates, duplicate, now)) {
+      suppressed.increment();
+      return false;
+    }
+    
+    acquire(guilds, guildId, now);
+    acquire(channels, channelId, now);
+    acquire(patterns, pattern, now);
+    acquire(duplicates, duplicate, now);
+    return true;
+  }
+  
+  private static boolean isActive(@Nullable CooldownTable table, long key, long now) {
+    return table != null && table.isActive(key, now);
+  }
+  
+  private static void acquire(@Nullable CooldownTable table, long key, long now) {
+    if (table != null) {
+      table.acquire(key, now);
+    }
+  }
+  
+  /**
+   * Returns the number of responses which have been suppressed due to an active cooldown.
+   *
+   * @return The number of suppressed responses.
+   */
+  public long getSuppressed() {
+    return suppressed.sum();
+  }
+  
+  /**
+   * Logs the current metrics of this instance.
+   */
+  public void logStatistics() {
+    LOGGER.info("Auto-responses: {} suppressed by cooldown", getSuppressed());
+  }
+}
@@ -17,20 +17,24 @@
 package zav.discord.blanc.api.cache;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 
 import java.util.Collections;
-import net.dv8tion.jda.api.entities.Guild;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
-import zav.discord.blanc.api.util.RegularExpressionMatcher;
+import zav.discord.blanc.api.util.AutoResponseMatcher;
 import zav.discord.blanc.databind.AutoResponseEntity;
 import zav.discord.blanc.databind.GuildEntity;
 
@@ -40,11 +44,12 @@ import zav.discord.blanc.databind.GuildEntity;
  */
 @ExtendWith(MockitoExtension.class)
 public class AutoResponseCacheTest {
+  private static final long GUILD_ID = 1000L;
+  private static final long OTHER_GUILD_ID = 2000L;
   
   GuildEntity entity;
   AutoResponseCache cache;
   AutoResponseEntity autoResponse;
-  @Mock Guild guild;
   MockedStatic<GuildEntity> mocked;
   
   /**
@@ -58,15 +63,15 @@ public class AutoResponseCacheTest {
     autoResponse.setAnswer("bar");
     
     entity = new GuildEntity();
-    entity.setId(1000L);
+    entity.setId(GUILD_ID);
     entity.add(autoResponse);
     
     mocked = mockStatic(GuildEntity.class);
-    mocked.when(() -> GuildEntity.find(guild)).thenReturn(entity);
+    mocked.when(() -> GuildEntity.find(GUILD_ID)).thenReturn(entity);
 
     // Initialize the cache and load the entity
     cache = new AutoResponseCache();
-    cache.get(guild);
+    cache.get(GUILD_ID);
   }
   
   @AfterEach
@@ -79,13 +84,13 @@ public class AutoResponseCacheTest {
    */
   @Test
   public void testInvalidate() {
-    assertNotNull(cache.fetch(guild));
+    assertEquals(cache.get(GUILD_ID).orElseThrow().match("foo").orElseThrow(), "bar");
 
     entity.setAutoResponses(Collections.emptyList());
 
-    cache.invalidate(guild);
+    cache.invalidate(GUILD_ID);
 
-    assertNull(cache.fetch(guild));
+    assertTrue(cache.get(GUILD_ID).orElseThrow().match("foo").isEmpty());
   }
   
   /**
@@ -93,8 +98,108 @@ public class AutoResponseCacheTest {
    */
   @Test
   public void testGet() {
-    RegularExpressionMatcher result = cache.get(guild).orElseThrow();
+    AutoResponseMatcher result = cache.get(GUILD_ID).orElseThrow();
     
     assertEquals(result.match("foo").orElseThrow(), "bar");
   }
+  
+  /**
+   * Use Case: After a modification, the cached matcher is rebuilt from the committed responses.
+   */
+  @Test
+  public void testRefresh() {
+    AutoResponseMatcher oldMatcher = cache.get(GUILD_ID).orElseThrow();
+    
+    AutoResponseEntity newResponse = new AutoResponseEntity();
+    newResponse.setPattern("baz");
+    newResponse.setAnswer("qux");
+    entity.add(newResponse);
+    cache.refresh(GUILD_ID);
+    
+    AutoResponseMatcher newMatcher = cache.get(GUILD_ID).orElseThrow();
+    
+    assertEquals(newMatcher.match("foo").orElseThrow(), "bar");
+    assertEquals(newMatcher.match("baz").orElseThrow(), "qux");
+    // The old version remains unchanged
+    assertTrue(oldMatcher.match("baz").isEmpty());
+    mocked.verify(() -> GuildEntity.find(GUILD_ID), times(2));
+  }
+  
+  /**
+   * Use Case: Guilds without responses should only be requested once from the database.
+   */
+  @Test
+  public void testGetWithoutResponses() {
+    assertTrue(cache.get(OTHER_GUILD_ID).orElseThrow().match("foo").isEmpty());
+    assertTrue(cache.get(OTHER_GUILD_ID).orElseThrow().match("foo").isEmpty());
+    
+    mocked.verify(() -> GuildEntity.find(OTHER_GUILD_ID), times(1));
+  }
+  
+  /**
+   * Use Case: All guilds of a shard are loaded with a single database request.
+   */
+  @Test
+  public void testWarmUp() {
+    mocked.when(() -> GuildEntity.findAll(List.of(GUILD_ID, OTHER_GUILD_ID)))
+          .thenReturn(List.of(entity));
+    cache.invalidate(GUILD_ID);
+    
+    cache.warmUp(List.of(GUILD_ID, OTHER_GUILD_ID));
+    
+    assertEquals(cache.get(GUILD_ID).orElseThrow().match("foo").orElseThrow(), "bar");
+    assertTrue(cache.get(OTHER_GUILD_ID).orElseThrow().match("foo").isEmpty());
+    mocked.verify(() -> GuildEntity.find(GUILD_ID), times(1));
+    mocked.verify(() -> GuildEntity.find(OTHER_GUILD_ID), never());
+  }
+  
+  /**
+   * Use Case: Guilds which are already cached aren't overwritten by the warm-up.
+   */
+  @Test
+  public void testWarmUpCached() {
+    AutoResponseMatcher matcher = cache.get(GUILD_ID).orElseThrow();
+    
+    cache.warmUp(List.of(GUILD_ID));
+    
+    assertSame(matcher, cache.get(GUILD_ID).orElseThrow());
+    // Only the guilds which aren't cached are requested
+    mocked.verify(() -> GuildEntity.findAll(anyCollection()), never());
+  }
+  
+  /**
+   * Use Case: The warm-up doesn't load more guilds than the cache can hold. Guilds with responses
+   * take precedence.
+   */
+  @Test
+  public void testWarmUpCapacity() {
+    List<Long> guildIds = LongStream.range(0, 2 * AbstractCache.MAX_CACHE_SIZE)
+          .map(index -> OTHER_GUILD_ID + index)
+          .boxed()
+          .collect(Collectors.toList());
+    guildIds.add(GUILD_ID);
+    
+    mocked.when(() -> GuildEntity.findAll(anyCollection())).thenReturn(List.of(entity));
+    cache.invalidate(GUILD_ID);
+    
+    cache.warmUp(guildIds);
+    
+    assertEquals(AbstractCache.MAX_CACHE_SIZE, cache.cache.asMap().size());
+    assertEquals(cache.get(GUILD_ID).orElseThrow().match("foo").orElseThrow(), "bar");
+    mocked.verify(() -> GuildEntity.find(GUILD_ID), times(1));
+  }
+  
+  /**
+   * Use Case: Guilds which aren't cached are not loaded by a refresh. The matcher is created from
+   * the database with the next request.
+   */
+  @Test
+  public void testRefreshUncached() {
+    cache.invalidate(GUILD_ID);
+    cache.refresh(GUILD_ID);
+    
+    mocked.verify(() -> GuildEntity.find(GUILD_ID), times(1));
+    assertEquals(cache.get(GUILD_ID).orElseThrow().match("foo").orElseThrow(), "bar");
+    mocked.verify(() -> GuildEntity.find(GUILD_ID), times(2));
+  }
 }
@@ -0,0 +1,138 @@
+package zav.discord.blanc.api.listener;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
+import net.dv8tion.jda.api.requests.restaction.MessageAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import zav.discord.blanc.api.cache.AutoResponseCache;
+import zav.discord.blanc.api.util.AutoResponseMatcher;
+import zav.discord.blanc.api.util.AutomatonMatcher;
+import zav.discord.blanc.api.util.ResponseCooldown;
+import zav.discord.blanc.databind.AutoResponseEntity;
+
+/**
+ * Test class for checking whether the bot automatically responds to matching regular expressions.
+ */
+@ExtendWith(MockitoExtension.class)
+public class AutoResponseHandlerTest {
+  private static final long GUILD_ID = 1000L;
+  private static final long CHANNEL_ID = 2000L;
+
+  @Mock GuildMessageReceivedEvent event;
+  @Mock AutoResponseMatcher matcher;
+  @Mock AutoResponseCache cache;
+  @Mock ResponseCooldown cooldown;
+  @Mock MessageAction action;
+  @Mock Message message;
+  @Mock Guild guild;
+  @Mock TextChannel channel;
+  MessageContext context;
+  AutoResponseHandler handler;
+  
+  /**
+   * Initializes the response handler.
+   */
+  @BeforeEach
+  public void setUp() {
+    when(event.getMessage()).thenReturn(message);
+    when(event.getGuild()).thenReturn(guild);
+    when(event.getChannel()).thenReturn(channel);
+    when(guild.getIdLong()).thenReturn(GUILD_ID);
+    when(channel.getIdLong()).thenReturn(CHANNEL_ID);
+    when(message.getContentRaw()).thenReturn("Hello There!");
+    context = new MessageContext(event);
+    handler = new AutoResponseHandler(cache, cooldown);
+  }
+  
+  /**
+   * Use Case: Guild doesn't have any automatic responses.
+   */
+  @Test
+  public void testIgnoreUnrelatedGuild() {
+    when(cache.get(GUILD_ID)).thenReturn(Optional.empty());
+    
+    assertFalse(handler.handle(context));
+    
+    verify(message, times(0)).reply(anyString());
+  }
+  
+  /**
+   * Use Case: Message didn't match any pattern.
+   */
+  @Test
+  public void testIgnoreUnrelatedMessage() {
+    when(cache.get(GUILD_ID)).thenReturn(Optional.of(matcher));
+    when(matcher.match(anyString(), anyString())).thenReturn(Optional.empty());
+    
+    assertFalse(handler.handle(context));
+    
+    verify(matcher).match(anyString(), anyString());
+    verify(message, times(0)).reply(anyString());
+  }
+  
+  /**
+   * Use Case: Message DID match one of the patterns.
+   */
+  @Test
+  public void testRespondToMatch() {
+    when(cache.get(GUILD_ID)).thenReturn(Optional.of(matcher));
+    when(message.reply(anyString())).thenReturn(action);
+    when(matcher.match(anyString(), anyString())).thenReturn(Optional.of("General Kenobi!"));
+    when(cooldown.tryAcquire(anyLong(), anyLong(), anyString(), anyString())).thenReturn(true);
+    
+    assertTrue(handler.handle(context));
+    
+    // The matcher receives both contents, the cooldown the original content
+    verify(matcher).match("Hello There!", "hello there!");
+    verify(cooldown).tryAcquire(GUILD_ID, CHANNEL_ID, "Hello There!", "General Kenobi!");
+    verify(message).reply("General Kenobi!");
+  }
+  
+  /**
+   * Use Case: Patterns which can't be folded must be matched against the original content.
+   */
+  @Test
+  public void testRespondToUnfoldablePattern() {
+    AutoResponseMatcher automaton = new AutomatonMatcher(List.of(
+          AutoResponseEntity.create("(?-i)Hello", "General Kenobi!")));
+    
+    when(cache.get(GUILD_ID)).thenReturn(Optional.of(automaton));
+    when(message.reply(anyString())).thenReturn(action);
+    when(cooldown.tryAcquire(anyLong(), anyLong(), anyString(), anyString())).thenReturn(true);
+    
+    assertTrue(handler.handle(context));
+    
+    verify(message).reply("General Kenobi!");
+  }
+  
+  /**
+   * Use Case: Message DID match one of the patterns, but the reply is still on cooldown.
+   */
+  @Test
+  public void testIgnoreOnCooldown() {
+    when(cache.get(GUILD_ID)).thenReturn(Optional.of(matcher));
+    when(matcher.match(anyString(), anyString())).thenReturn(Optional.of("General Kenobi!"));
+    when(cooldown.tryAcquire(anyLong(), anyLong(), anyString(), anyString())).thenReturn(false);
+    
+    assertFalse(handler.handle(context));
+    
+    verify(matcher).match(anyString(), anyString());
+    verify(message, times(0)).reply(anyString());
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.api.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Test class for checking whether guild messages are preprocessed correctly.
+ */
+@ExtendWith(MockitoExtension.class)
+public class MessageContextTest {
+  @Mock GuildMessageReceivedEvent event;
+  @Mock Message message;
+  @Mock Guild guild;
+  @Mock TextChannel channel;
+  
+  /**
+   * Initializes the event of the received message.
+   */
+  @BeforeEach
+  public void setUp() {
+    when(event.getMessage()).thenReturn(message);
+    when(event.getGuild()).thenReturn(guild);
+    when(event.getChannel()).thenReturn(channel);
+  }
+  
+  @Test
+  public void testGetContent() {
+    when(guild.getIdLong()).thenReturn(1000L);
+    when(channel.getIdLong()).thenReturn(2000L);
+    when(message.getContentRaw()).thenReturn("Hello There!");
+    MessageContext context = new MessageContext(event);
+    
+    assertSame(message, context.getMessage());
+    assertEquals(1000L, context.getGuildId());
+    assertEquals(2000L, context.getChannelId());
+    assertEquals("Hello There!", context.getContent());
+    assertEquals("hello there!", context.getFoldedContent());
+  }
+  
+  @Test
+  public void testGetTokens() {
+    when(message.getContentRaw()).thenReturn("Hello, General_Kenobi! \uD83D\uDE00 \u00C4pfel 42");
+    MessageContext context = new MessageContext(event);
+    
+    assertEquals(List.of("hello", "general_kenobi", "\u00C4pfel", "42"), context.getTokens());
+    // The tokens are only computed once
+    assertSame(context.getTokens(), context.getTokens());
+  }
+  
+  @Test
+  public void testGetNoTokens() {
+    when(message.getContentRaw()).thenReturn(" !? ");
+    MessageContext context = new MessageContext(event);
+    
+    assertEquals(List.of(), context.getTokens());
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.api.listener;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import zav.discord.blanc.api.util.MatcherPool;
+
+/**
+ * Test class for checking whether guild messages are passed through all handlers in order.
+ */
+@ExtendWith(MockitoExtension.class)
+public class MessagePipelineTest {
+  @Mock GuildMessageReceivedEvent event;
+  @Mock MatcherPool pool;
+  @Mock Message message;
+  @Mock Guild guild;
+  @Mock TextChannel channel;
+  @Mock User author;
+  @Mock MessageHandler first;
+  @Mock MessageHandler second;
+  MessagePipeline pipeline;
+  
+  /**
+   * Initializes the pipeline with two handlers.
+   */
+  @BeforeEach
+  public void setUp() {
+    when(event.getAuthor()).thenReturn(author);
+    pipeline = new MessagePipeline(pool, List.of(first, second));
+  }
+  
+  /**
+   * Executes all submitted tasks immediately.
+   */
+  private void runImmediately() {
+    when(event.getMessage()).thenReturn(message);
+    when(event.getGuild()).thenReturn(guild);
+    when(event.getChannel()).thenReturn(channel);
+    when(message.getContentRaw()).thenReturn("Hello There!");
+    when(pool.submit(any())).thenAnswer(invocation -> {
+      invocation.getArgument(0, Runnable.class).run();
+      return true;
+    });
+  }
+  
+  /**
+   * Use Case: Only process user messages.
+   */
+  @Test
+  public void testIgnoreBot() {
+    when(author.isBot()).thenReturn(true);
+    
+    pipeline.onGuildMessageReceived(event);
+    
+    verify(pool, times(0)).submit(any());
+  }
+  
+  /**
+   * Use Case: Messages are dropped while the pool is overloaded.
+   */
+  @Test
+  public void testIgnoreWhenOverloaded() {
+    when(pool.submit(any())).thenReturn(false);
+    
+    pipeline.onGuildMessageReceived(event);
+    
+    verify(first, times(0)).handle(any());
+    verify(second, times(0)).handle(any());
+  }
+  
+  /**
+   * Use Case: Each message is preprocessed once and passed to all handlers in order.
+   */
+  @Test
+  public void testHandleInOrder() {
+    runImmediately();
+    
+    pipeline.onGuildMessageReceived(event);
+    
+    InOrder order = inOrder(first, second);
+    order.verify(first).handle(any());
+    order.verify(second).handle(any());
+    verify(message, times(1)).getContentRaw();
+  }
+  
+  /**
+   * Use Case: A handler consumed the message.
+   */
+  @Test
+  public void testStopEarly() {
+    runImmediately();
+    when(first.handle(any())).thenReturn(true);
+    
+    pipeline.onGuildMessageReceived(event);
+    
+    verify(first).handle(any());
+    verify(second, times(0)).handle(any());
+  }
+  
+  /**
+   * Use Case: A failing handler doesn't affect the remaining handlers.
+   */
+  @Test
+  public void testContinueOnError() {
+    runImmediately();
+    when(first.handle(any())).thenThrow(new IllegalStateException());
+    
+    pipeline.onGuildMessageReceived(event);
+    
+    verify(second).handle(any());
+  }
+}
@@ -0,0 +1,365 @@
+package zav.discord.blanc.api.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import zav.discord.blanc.databind.AutoResponseEntity;
+
+/**
+ * Test case for checking whether the automaton returns the same response as the regular expression.
+ */
+public class AutomatonMatcherTest {
+  private static final String[] ATOMS = {
+    "a", "b", "c", "A", "B", " ", "1", ".", "\\d", "\\s", "\\w", "\\W", "[ab]", "[^a]", "[a-c]",
+    "[\\d ]"
+  };
+  private static final String[] ANCHORS = {"^", "$", "\\b"};
+  private static final String[] QUANTIFIERS = {"?", "*", "+", "{2}", "{1,3}", "{0,}", "*?", "+?"};
+  private static final String ALPHABET = "aAbBcC1 _\n.";
+
+  AutomatonMatcher matcher;
+  AutoResponseEntity e1;
+  AutoResponseEntity e2;
+  AutoResponseEntity e3;
+  AutoResponseEntity e4;
+  AutoResponseEntity e5;
+
+  /**
+   * Initializes the matcher with five automatic responses.
+   */
+  @BeforeEach
+  public void setUp() {
+    e1 = getEntity("\\bcheat(s)?\\b", "#FAQ");
+    e2 = getEntity("(ping)", "pong");
+    e3 = getEntity("(?:mii~)", "nipah");
+    e4 = getEntity("Hello There!", "General Kenobi!");
+    e5 = getEntity("n(o)+", "yes");
+    matcher = new AutomatonMatcher(List.of(e1, e2, e3, e4, e5));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "cheat,#FAQ",
+    "before cheat after,#FAQ",
+    "before cheat,#FAQ",
+    "cheat after,#FAQ",
+    "cheats after,#FAQ",
+    "cHeAtS after,#FAQ",
+    "ping,pong",
+    "xpingx,pong",
+    "pingping,pong",
+    "ping ping,pong",
+    "mii~,nipah",
+    "Hello There!,General Kenobi!",
+    "no,yes",
+    "Nooooooo, yes"
+  })
+  public void testMatch(String source, String target) {
+    assertEquals(matcher.match(source).orElse(null), target);
+  }
+
+  @Test
+  public void testIgnoreUnrelatedString() {
+    assertNull(matcher.match("xxx").orElse(null));
+    assertNull(matcher.match("cheater").orElse(null));
+    assertNull(matcher.match("").orElse(null));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+    "no ping cheat",
+    "cheat no ping",
+    "mii~ Hello There! no",
+    "nononono pingpong",
+    "before\ncheat\r\nafter",
+    "\uD83D\uDE00 cheats \uD83D\uDE00",
+    "pin pin pin pin pin pin pin pin pin pin pin pin pin pin pin pin pin pin ping"
+  })
+  public void testSameAsRegularExpression(String source) {
+    RegularExpressionMatcher expected = new RegularExpressionMatcher(List.of(e1, e2, e3, e4, e5));
+    assertEquals(expected.match(source), matcher.match(source));
+    // Second call uses the cached states
+    assertEquals(expected.match(source), matcher.match(source));
+  }
+
+  @Test
+  public void testFirstMatch() {
+    matcher = new AutomatonMatcher(List.of(getEntity("bar", "1"), getEntity("foo", "2")));
+
+    assertEquals("2", matcher.match("foo bar").orElse(null));
+    assertEquals("1", matcher.match("bar foo").orElse(null));
+
+    // Earlier patterns take precedence at the same position
+    matcher = new AutomatonMatcher(List.of(getEntity("fo", "1"), getEntity("foo", "2")));
+
+    assertEquals("1", matcher.match("foo").orElse(null));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+    "(a)\\1", "a(?=b)", "(?<!b)a", "(?i)a", "a*+", "\\Ba", "(?:\\b)*a", "\\p{L}"
+  })
+  public void testFallback(String pattern) {
+    matcher = new AutomatonMatcher(List.of(getEntity(pattern, "fallback")));
+
+    assertEquals(1, matcher.getFallbacks());
+  }
+
+  @Test
+  public void testFallbackPrecedence() {
+    matcher = new AutomatonMatcher(List.of(getEntity("(x)\\1", "1"), getEntity("y", "2")));
+
+    assertEquals(1, matcher.getFallbacks());
+    assertEquals("2", matcher.match("y xx").orElse(null));
+    assertEquals("1", matcher.match("xx y").orElse(null));
+
+    // Earlier patterns take precedence at the same position
+    matcher = new AutomatonMatcher(List.of(getEntity("(x)\\1", "1"), getEntity("xx", "2")));
+
+    assertEquals("1", matcher.match("xx").orElse(null));
+
+    matcher = new AutomatonMatcher(List.of(getEntity("xx", "1"), getEntity("(x)\\1", "2")));
+
+    assertEquals("1", matcher.match("xx").orElse(null));
+  }
+
+  @Test
+  public void testQuarantine() {
+    matcher = new AutomatonMatcher(List.of(getEntity("(a+)+\\1b", "1"), getEntity("c", "2")));
+    String source = "a".repeat(40);
+
+    assertEquals(1, matcher.getFallbacks());
+
+    for (int i = 0; i < InterruptibleCharSequence.MAX_VIOLATIONS; ++i) {
+      assertFalse(matcher.isQuarantined(0));
+      assertNull(matcher.match(source).orElse(null));
+    }
+
+    assertTrue(matcher.isQuarantined(0));
+    assertNull(matcher.match("aab").orElse(null));
+    // The remaining patterns are unaffected
+    assertEquals("2", matcher.match("abc").orElse(null));
+  }
+
+  /**
+   * Use Case: All fallbacks share a single budget per input. Only the pattern which exceeded the
+   * budget is held responsible.
+   */
+  @Test
+  public void testSharedBudget() {
+    matcher = new AutomatonMatcher(List.of(getEntity("(a+)+\\1b", "1"),
+          getEntity("(a+)+\\1c", "2")));
+    String source = "a".repeat(40);
+
+    assertEquals(2, matcher.getFallbacks());
+
+    for (int i = 0; i < InterruptibleCharSequence.MAX_VIOLATIONS; ++i) {
+      assertNull(matcher.match(source).orElse(null));
+    }
+
+    assertTrue(matcher.isQuarantined(0));
+    assertFalse(matcher.isQuarantined(1));
+  }
+
+  @Test
+  public void testAdd() {
+    AutomatonMatcher result = matcher.add(getEntity("foo", "bar"));
+    
+    assertEquals("bar", result.match("foo").orElse(null));
+    assertEquals("pong", result.match("ping foo").orElse(null));
+    // The original matcher remains unchanged
+    assertNull(matcher.match("foo").orElse(null));
+    
+    result = result.add(getEntity("(x)\\1", "fallback"));
+    
+    assertEquals(1, result.getFallbacks());
+    assertEquals("fallback", result.match("xx foo").orElse(null));
+  }
+  
+  @Test
+  public void testRemove() {
+    AutomatonMatcher result = matcher.remove(1);
+    
+    assertNull(result.match("ping").orElse(null));
+    assertEquals("#FAQ", result.match("cheat").orElse(null));
+    assertEquals("nipah", result.match("mii~").orElse(null));
+    assertEquals("yes", result.match("no").orElse(null));
+    // The original matcher remains unchanged
+    assertEquals("pong", matcher.match("ping").orElse(null));
+    
+    // Remove all patterns
+    result = new AutomatonMatcher(List.of(e1)).remove(0);
+    
+    assertNull(result.match("cheat").orElse(null));
+  }
+  
+  @Test
+  public void testRemoveQuarantined() {
+    matcher = new AutomatonMatcher(List.of(getEntity("c", "1"), getEntity("(a+)+\\1b", "2")));
+    String source = "a".repeat(40);
+    
+    for (int i = 0; i < InterruptibleCharSequence.MAX_VIOLATIONS; ++i) {
+      matcher.match(source);
+    }
+    
+    // The quarantine is kept across versions
+    assertTrue(matcher.isQuarantined(1));
+    assertTrue(matcher.add(getEntity("d", "3")).isQuarantined(1));
+    assertTrue(matcher.remove(0).isQuarantined(0));
+  }
+  
+  @Test
+  public void testLoopAcrossGrowth() {
+    // The loop body of the second pattern is compiled while the instructions grow beyond 64
+    for (int length = 51; length <= 55; ++length) {
+      matcher = new AutomatonMatcher(List.of(
+            getEntity("x".repeat(length), "1"),
+            getEntity("(?:hello)+ world", "2")));
+      
+      assertEquals("2", matcher.match("hello world").orElse(null));
+      assertEquals("2", matcher.match("hellohello world").orElse(null));
+      assertEquals("1", matcher.match("x".repeat(length)).orElse(null));
+    }
+  }
+  
+  /**
+   * Use Case: For random patterns and inputs, the automaton finds the same pattern at the same
+   * position as {@link Pattern}. The seed is fixed, so that failures can be reproduced.
+   */
+  @Test
+  public void testRandomDifferential() {
+    Random random = new Random(20221018L);
+
+    for (int i = 0; i < 2_000; ++i) {
+      List<String> patterns = new ArrayList<>();
+      List<AutoResponseEntity> entities = new ArrayList<>();
+      Nfa nfa = new Nfa();
+
+      while (patterns.size() < 1 + random.nextInt(4)) {
+        String pattern = getPattern(random, 2);
+
+        try {
+          nfa.add(RegexParser.parse(pattern));
+        } catch (IllegalArgumentException e) {
+          continue;
+        }
+
+        entities.add(getEntity(pattern, Integer.toString(patterns.size())));
+        patterns.add(pattern);
+      }
+
+      Dfa dfa = new Dfa(nfa);
+      matcher = new AutomatonMatcher(entities);
+
+      for (int j = 0; j < 50; ++j) {
+        String source = getInput(random);
+        String input = CaseFolding.fold(source);
+        String message = patterns + " on \"" + source + "\"";
+
+        int[] expected = find(patterns, source);
+        int position = 0;
+
+        while (position <= input.length() && dfa.match(input, position) < 0) {
+          position++;
+        }
+
+        if (expected[0] < 0) {
+          assertEquals(-1, dfa.match(input), message);
+          assertNull(matcher.match(source).orElse(null), message);
+        } else {
+          assertEquals(expected[1], position, message);
+          assertEquals(expected[0], dfa.match(input, position), message);
+          assertEquals(Integer.toString(expected[0]), matcher.match(source).orElse(null), message);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the first matching pattern and the start of its match. Patterns which
+   * match at an earlier position take precedence, otherwise the pattern registered first.
+   */
+  private static int[] find(List<String> patterns, String source) {
+    int[] result = {-1, Integer.MAX_VALUE};
+
+    for (int i = 0; i < patterns.size(); ++i) {
+      Matcher matcher = Pattern.compile(patterns.get(i), Pattern.CASE_INSENSITIVE).matcher(source);
+
+      if (matcher.find() && matcher.start() < result[1]) {
+        result[0] = i;
+        result[1] = matcher.start();
+      }
+    }
+
+    return result;
+  }
+
+  private static String getPattern(Random random, int depth) {
+    StringBuilder result = new StringBuilder();
+    int alternatives = random.nextInt(4) == 0 ? 2 : 1;
+
+    for (int i = 0; i < alternatives; ++i) {
+      if (i > 0) {
+        result.append('|');
+      }
+
+      for (int j = 1 + random.nextInt(3); j > 0; --j) {
+        int kind = random.nextInt(10);
+
+        if (kind == 0) {
+          result.append(ANCHORS[random.nextInt(ANCHORS.length)]);
+          continue;
+        } else if (kind == 1 && depth > 0) {
+          result.append(random.nextBoolean() ? "(" : "(?:");
+          result.append(getPattern(random, depth - 1)).append(')');
+        } else {
+          result.append(ATOMS[random.nextInt(ATOMS.length)]);
+        }
+
+        if (random.nextInt(3) == 0) {
+          result.append(QUANTIFIERS[random.nextInt(QUANTIFIERS.length)]);
+        }
+      }
+    }
+
+    return result.toString();
+  }
+
+  private static String getInput(Random random) {
+    StringBuilder result = new StringBuilder();
+
+    for (int i = random.nextInt(12); i > 0; --i) {
+      result.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    }
+
+    return result.toString();
+  }
+
+  @Test
+  public void testInvalidPattern() {
+    assertThrows(PatternSyntaxException.class, () -> {
+      new AutomatonMatcher(List.of(getEntity("(", "invalid")));
+    });
+  }
+
+  private static AutoResponseEntity getEntity(String pattern, String answer) {
+    AutoResponseEntity entity = new AutoResponseEntity();
+    entity.setPattern(pattern);
+    entity.setAnswer(answer);
+    return entity;
+  }
+}
@@ -0,0 +1,101 @@
+package zav.discord.blanc.api.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test case for checking whether folded patterns behave like case-insensitive patterns.
+ */
+public class CaseFoldingTest {
+  private static final List<String> INPUTS = List.of(
+      "",
+      "cheat",
+      "CHEATS",
+      "Hello There!",
+      "hello there!",
+      "General Kenobi",
+      "AaBbZz_09",
+      "[]^_`{|}~@",
+      "\u00C4\u00E4 \u00D6\u00F6",
+      "\uD83D\uDE00 Mii~ \uD83D\uDE00",
+      "xX yY zZ",
+      "abcABC\nDEF"
+  );
+
+  @Test
+  public void testFold() {
+    assertEquals("hello there!", CaseFolding.fold("Hello There!"));
+    assertEquals("azaz@[`{", CaseFolding.fold("AZaz@[`{"));
+    // Only US-ASCII letters are folded
+    assertEquals("\u00C4\u00E4", CaseFolding.fold("\u00C4\u00E4"));
+  }
+
+  @Test
+  public void testFoldLowerCase() {
+    String source = "hello there! \uD83D\uDE00";
+    assertSame(source, CaseFolding.fold(source));
+  }
+
+  @Test
+  public void testFoldPattern() {
+    assertEquals("hello there!", CaseFolding.foldPattern("Hello There!"));
+    assertEquals("\\bcheat(s)?\\B\\W\\S\\D", CaseFolding.foldPattern("\\bCheat(S)?\\B\\W\\S\\D"));
+    assertEquals("[a-z][^a-f][a-z]", CaseFolding.foldPattern("[A-Z][^A-F][a-z]"));
+    assertEquals("[ -~][A-z]", CaseFolding.foldPattern("[ -~][A-z]"));
+    assertEquals("(?<Name>a)\\k<Name>", CaseFolding.foldPattern("(?<Name>A)\\k<Name>"));
+    assertEquals("(?:a)(?=b)(?!c)(?<=d)(?<!e)",
+        CaseFolding.foldPattern("(?:A)(?=B)(?!C)(?<=D)(?<!E)"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+    "(?i)a", "(?-i)A", "\\x41", "\\u0041", "\\0101", "\\cA", "\\p{Lu}", "\\QA\\E", "[0-Z]",
+    "[Z-a]", "[\\x41-Z]", "[]A]"
+  })
+  public void testFoldPatternUnsupported(String pattern) {
+    assertNull(CaseFolding.foldPattern(pattern));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+    "Hello There!",
+    "\\bcheat(s)?\\b",
+    "(ping)",
+    "n(o)+",
+    "[A-Z]+",
+    "[^A-F]",
+    "[A-z]{3}",
+    "[a-zA-Z&&[^E]]",
+    "(?<G>[A-C])\\k<G>",
+    "(x)\\1",
+    "(?<!Y)Z",
+    "\\W\\S\\D",
+    "\u00C4|\u00E4",
+    "mii~"
+  })
+  public void testSameAsCaseInsensitive(String pattern) {
+    String folded = CaseFolding.foldPattern(pattern);
+    assertNotNull(folded);
+    
+    Pattern expected = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+    Pattern actual = Pattern.compile(folded);
+    
+    for (String input : INPUTS) {
+      assertEquals(find(expected, input), find(actual, CaseFolding.fold(input)), input);
+    }
+  }
+
+  private static String find(Pattern pattern, String input) {
+    Matcher matcher = pattern.matcher(input);
+    return matcher.find() ? matcher.start() + "-" + matcher.end() : "none";
+  }
+}
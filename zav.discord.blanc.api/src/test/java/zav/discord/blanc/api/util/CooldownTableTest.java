@@ -0,0 +1,74 @@
+package zav.discord.blanc.api.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks whether the cooldown table keeps track of the most recent keys.
+ */
+public class CooldownTableTest {
+  
+  @Test
+  public void testAcquire() {
+    CooldownTable table = new CooldownTable(16, 10);
+    
+    assertFalse(table.isActive(1, 1));
+    
+    table.acquire(1, 1);
+    
+    assertTrue(table.isActive(1, 1));
+    assertTrue(table.isActive(1, 10));
+    assertFalse(table.isActive(1, 11));
+    assertFalse(table.isActive(2, 1));
+    
+    // Restarts the cooldown
+    table.acquire(1, 11);
+    
+    assertTrue(table.isActive(1, 20));
+  }
+  
+  @Test
+  public void testReuseExpiredSlots() {
+    CooldownTable table = new CooldownTable(16, 10);
+    
+    for (long key = 0; key < 16; ++key) {
+      table.acquire(key, 1);
+    }
+    
+    // All slots have expired and can be reused
+    for (long key = 16; key < 20; ++key) {
+      table.acquire(key, 20);
+    }
+    
+    for (long key = 16; key < 20; ++key) {
+      assertTrue(table.isActive(key, 20));
+    }
+    
+    for (long key = 0; key < 16; ++key) {
+      assertFalse(table.isActive(key, 20));
+    }
+  }
+  
+  @Test
+  public void testFull() {
+    CooldownTable table = new CooldownTable(16, 10);
+    
+    for (long key = 0; key < 64; ++key) {
+      table.acquire(key, 1);
+    }
+    
+    // The table fails open
+    for (long key = 64; key < 128; ++key) {
+      table.acquire(key, 2);
+      assertFalse(table.isActive(key, 2));
+    }
+  }
+  
+  @Test
+  public void testInvalidCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> new CooldownTable(10, 10));
+  }
+}
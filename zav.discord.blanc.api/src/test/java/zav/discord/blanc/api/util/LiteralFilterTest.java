@@ -0,0 +1,85 @@
+package zav.discord.blanc.api.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for checking whether the literal filter only rejects patterns which can't match.
+ */
+public class LiteralFilterTest {
+
+  @Test
+  public void testGetLiterals() {
+    assertEquals(Set.of("hello there!"), getLiterals("Hello There!"));
+    assertEquals(Set.of("cheat"), getLiterals("\\bcheat(s)?\\b"));
+    assertEquals(Set.of("mii~"), getLiterals("(?:mii~)"));
+    assertEquals(Set.of("ping", "pong", "pang"), getLiterals("(?:ping|pong)|pang"));
+    assertEquals(Set.of("ing", "ong"), getLiterals("p(?:ing|ong)"));
+    assertEquals(Set.of("foo", "bar"), getLiterals("(?:foo|bar)+"));
+    // The longest sequence is selected
+    assertEquals(Set.of("world"), getLiterals("he.world"));
+    assertEquals(Set.of("a.b"), getLiterals("a\\.b"));
+  }
+
+  @Test
+  public void testGetNoLiterals() {
+    assertNull(getLiterals("."));
+    assertNull(getLiterals("\\w+"));
+    assertNull(getLiterals("[ab]\\d"));
+    assertNull(getLiterals("(?:foo)*"));
+    assertNull(getLiterals("(?:foo)?"));
+    assertNull(getLiterals("foo|\\d"));
+  }
+
+  @Test
+  public void testGetCandidates() {
+    LiteralFilter filter = getFilter("cheat", "p(?:ing|ong)", "Hello There!", "[ab]", "(?:no)+");
+
+    assertEquals(Set.of(0, 3), getCandidates(filter, "CHEATS"));
+    assertEquals(Set.of(1, 3), getCandidates(filter, "ping pong"));
+    assertEquals(Set.of(2, 3), getCandidates(filter, "hello there!"));
+    assertEquals(Set.of(3), getCandidates(filter, "xxx"));
+    assertEquals(Set.of(3), getCandidates(filter, ""));
+    // Overlapping literals
+    assertEquals(Set.of(3, 4), getCandidates(filter, "nnono"));
+    // Non-ASCII characters
+    assertEquals(Set.of(3, 4), getCandidates(filter, "\uD83D\uDE00no\u00E4"));
+  }
+
+  @Test
+  public void testGetCandidatesNonAscii() {
+    LiteralFilter filter = getFilter("\u00E4\u00F6", "\uD83D\uDE00\uD83D\uDE01");
+
+    assertEquals(Set.of(0), getCandidates(filter, "x\u00E4\u00F6x"));
+    assertEquals(Set.of(), getCandidates(filter, "\u00C4\u00D6"));
+    assertEquals(Set.of(1), getCandidates(filter, "\uD83D\uDE00\uD83D\uDE00\uD83D\uDE01"));
+  }
+
+  @Test
+  public void testGetCandidatesUnfiltered() {
+    LiteralFilter filter = new LiteralFilter(Arrays.asList(null, Set.of("a")));
+
+    assertEquals(Set.of(0, 1), getCandidates(filter, "xxx"));
+  }
+
+  private static Set<String> getLiterals(String pattern) {
+    return LiteralFilter.getLiterals(RegexParser.parse(pattern));
+  }
+
+  private static LiteralFilter getFilter(String... patterns) {
+    return new LiteralFilter(Arrays.stream(patterns)
+        .map(LiteralFilterTest::getLiterals)
+        .collect(Collectors.toList()));
+  }
+
+  private static Set<Integer> getCandidates(LiteralFilter filter, String source) {
+    BitSet candidates = filter.getCandidates(source);
+    return candidates.stream().boxed().collect(Collectors.toSet());
+  }
+}
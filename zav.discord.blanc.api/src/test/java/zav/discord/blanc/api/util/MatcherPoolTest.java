@@ -0,0 +1,111 @@
+package zav.discord.blanc.api.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks whether the matcher pool sheds load once its queue is full.
+ */
+public class MatcherPoolTest {
+  List<Runnable> tasks;
+  AtomicLong ticker;
+  MatcherPool pool;
+  
+  /**
+   * Initializes a pool which only executes tasks on demand.
+   */
+  @BeforeEach
+  public void setUp() {
+    tasks = new ArrayList<>();
+    ticker = new AtomicLong();
+    pool = new MatcherPool(tasks::add, 2, ticker::get);
+  }
+  
+  @Test
+  public void testSubmit() {
+    assertTrue(pool.submit(() -> ticker.addAndGet(5_000_000)));
+    assertTrue(pool.submit(() -> ticker.addAndGet(1_000_000)));
+    assertEquals(2, pool.getQueued());
+    
+    tasks.forEach(Runnable::run);
+    
+    assertEquals(0, pool.getQueued());
+    assertEquals(2, pool.getCompleted());
+    assertEquals(0, pool.getDropped());
+    // Both tasks have been submitted at the same time
+    assertEquals(Duration.ofMillis(6), pool.getMaxLatency());
+    assertEquals(Duration.ofNanos(5_500_000), pool.getAverageLatency());
+  }
+  
+  @Test
+  public void testSubmitOverloaded() {
+    assertTrue(pool.submit(() -> {}));
+    assertTrue(pool.submit(() -> {}));
+    assertFalse(pool.submit(() -> {}));
+    assertEquals(2, pool.getQueued());
+    assertEquals(1, pool.getDropped());
+    
+    // Capacity becomes available again once the tasks are done
+    tasks.forEach(Runnable::run);
+    
+    assertTrue(pool.submit(() -> {}));
+    assertEquals(1, pool.getQueued());
+  }
+  
+  /**
+   * Use Case: The metrics only cover the current reporting interval.
+   */
+  @Test
+  public void testLogStatistics() {
+    assertTrue(pool.submit(() -> ticker.addAndGet(5_000_000)));
+    assertTrue(pool.submit(() -> {}));
+    assertFalse(pool.submit(() -> {}));
+    tasks.forEach(Runnable::run);
+    tasks.clear();
+    
+    pool.logStatistics();
+    
+    assertEquals(0, pool.getCompleted());
+    assertEquals(0, pool.getDropped());
+    assertEquals(Duration.ZERO, pool.getMaxLatency());
+    assertEquals(Duration.ZERO, pool.getAverageLatency());
+    
+    assertTrue(pool.submit(() -> ticker.addAndGet(1_000_000)));
+    tasks.forEach(Runnable::run);
+    
+    assertEquals(1, pool.getCompleted());
+    assertEquals(Duration.ofMillis(1), pool.getMaxLatency());
+  }
+  
+  @Test
+  public void testSubmitWithError() {
+    pool.submit(() -> {
+      throw new IllegalStateException();
+    });
+    
+    tasks.forEach(Runnable::run);
+    
+    assertEquals(0, pool.getQueued());
+    assertEquals(1, pool.getCompleted());
+  }
+  
+  @Test
+  public void testSubmitAfterShutdown() {
+    pool = new MatcherPool(task -> {
+      throw new RejectedExecutionException();
+    }, 2, ticker::get);
+    
+    assertFalse(pool.submit(() -> {}));
+    assertEquals(0, pool.getQueued());
+    assertEquals(1, pool.getDropped());
+  }
+}
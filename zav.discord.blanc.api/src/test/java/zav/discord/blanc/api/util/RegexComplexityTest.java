@@ -0,0 +1,45 @@
+package zav.discord.blanc.api.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test case for checking whether patterns prone to catastrophic backtracking are detected.
+ */
+public class RegexComplexityTest {
+  
+  @ParameterizedTest
+  @ValueSource(strings = {
+    "Hello There!",
+    "(a+)+$",
+    "(a)+\\1",
+    "(?:ab|cd)(?=x)",
+    "(a|aa)?\\1",
+    "(a{2})+(?=x)",
+    "[(a+)]+(?=x)",
+    "\\(a+\\)+(?=x)",
+    "\\Q(a+)+\\E(?=x)"
+  })
+  public void testIsSafe(String pattern) {
+    assertTrue(RegexComplexity.isSafe(pattern));
+  }
+  
+  @ParameterizedTest
+  @ValueSource(strings = {
+    "(a+)+\\1",
+    "(\\w+\\s?)+(?=!)",
+    "((a)+)+(?=b)",
+    "(a*)*\\1",
+    "(a{1,3})+(?=x)",
+    "(a|aa)+\\1",
+    "(\\w|\\d)*\\1",
+    "(?:ab|cd)+(?=x)",
+    "((a|b)c)+\\1"
+  })
+  public void testIsNotSafe(String pattern) {
+    assertFalse(RegexComplexity.isSafe(pattern));
+  }
+}
@@ -78,6 +78,48 @@ public class RegularExpressionMatcherTest {
     assertNull(matcher.match("xxx").orElse(null));
   }
   
+  @Test
+  public void testQuarantine() {
+    e1.setPattern("(a+)+\\1b");
+    matcher = new RegularExpressionMatcher(List.of(e1, e2));
+    String source = "a".repeat(40);
+    
+    assertEquals("pong", matcher.match("ping").orElse(null));
+    
+    for (int i = 0; i < InterruptibleCharSequence.MAX_VIOLATIONS; ++i) {
+      assertNull(matcher.match(source).orElse(null));
+    }
+    
+    // The matcher no longer accepts any input
+    assertNull(matcher.match("ping").orElse(null));
+  }
+  
+  @Test
+  public void testAdd() {
+    AutoResponseEntity e6 = new AutoResponseEntity();
+    e6.setPattern("foo");
+    e6.setAnswer("bar");
+    
+    RegularExpressionMatcher result = matcher.add(e6);
+    
+    assertEquals("bar", result.match("foo").orElse(null));
+    assertEquals("pong", result.match("ping foo").orElse(null));
+    // The original matcher remains unchanged
+    assertNull(matcher.match("foo").orElse(null));
+  }
+  
+  @Test
+  public void testRemove() {
+    RegularExpressionMatcher result = matcher.remove(1);
+    
+    assertNull(result.match("ping").orElse(null));
+    assertEquals("#FAQ", result.match("cheat").orElse(null));
+    assertEquals("nipah", result.match("mii~").orElse(null));
+    assertEquals("yes", result.match("no").orElse(null));
+    // The original matcher remains unchanged
+    assertEquals("pong", matcher.match("ping").orElse(null));
+  }
+  
   @Test
   public void testFindFirst() {
     Matcher mock = mock(Matcher.class);
@@ -0,0 +1,114 @@
+package zav.discord.blanc.api.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks whether automatic responses are suppressed while any of their cooldowns is active.
+ */
+public class ResponseCooldownTest {
+  AtomicLong ticker;
+  
+  @BeforeEach
+  public void setUp() {
+    ticker = new AtomicLong();
+  }
+  
+  @Test
+  public void testGuildCooldown() {
+    ResponseCooldown cooldown = getCooldown(10, 0, 0, 0);
+    
+    assertTrue(cooldown.tryAcquire(1, 1, "ping", "pong"));
+    assertFalse(cooldown.tryAcquire(1, 2, "foo", "bar"));
+    // Other guilds are unaffected
+    assertTrue(cooldown.tryAcquire(2, 3, "ping", "pong"));
+    
+    advance(10);
+    
+    assertTrue(cooldown.tryAcquire(1, 2, "foo", "bar"));
+    assertEquals(1, cooldown.getSuppressed());
+  }
+  
+  @Test
+  public void testChannelCooldown() {
+    ResponseCooldown cooldown = getCooldown(0, 10, 0, 0);
+    
+    assertTrue(cooldown.tryAcquire(1, 1, "ping", "pong"));
+    assertFalse(cooldown.tryAcquire(1, 1, "foo", "bar"));
+    assertTrue(cooldown.tryAcquire(1, 2, "foo", "bar"));
+    
+    advance(9);
+    
+    assertFalse(cooldown.tryAcquire(1, 1, "foo", "bar"));
+    
+    advance(1);
+    
+    assertTrue(cooldown.tryAcquire(1, 1, "foo", "bar"));
+  }
+  
+  @Test
+  public void testPatternCooldown() {
+    ResponseCooldown cooldown = getCooldown(0, 0, 10, 0);
+    
+    assertTrue(cooldown.tryAcquire(1, 1, "ping", "pong"));
+    assertFalse(cooldown.tryAcquire(1, 1, "ping ping", "pong"));
+    // Other responses and channels are unaffected
+    assertTrue(cooldown.tryAcquire(1, 1, "foo", "bar"));
+    assertTrue(cooldown.tryAcquire(1, 2, "ping", "pong"));
+  }
+  
+  @Test
+  public void testDuplicateCooldown() {
+    ResponseCooldown cooldown = getCooldown(0, 0, 0, 10);
+    
+    assertTrue(cooldown.tryAcquire(1, 1, "ping", "pong"));
+    assertFalse(cooldown.tryAcquire(1, 1, "ping", "pong"));
+    // The same response to a different message is sent
+    assertTrue(cooldown.tryAcquire(1, 1, "ping ping", "pong"));
+    
+    advance(10);
+    
+    assertTrue(cooldown.tryAcquire(1, 1, "ping", "pong"));
+  }
+  
+  @Test
+  public void testSuppressedDoesNotRestartCooldown() {
+    ResponseCooldown cooldown = getCooldown(0, 10, 10, 0);
+    
+    assertTrue(cooldown.tryAcquire(1, 1, "ping", "pong"));
+    
+    advance(5);
+    
+    assertFalse(cooldown.tryAcquire(1, 1, "ping", "pong"));
+    
+    advance(5);
+    
+    assertTrue(cooldown.tryAcquire(1, 1, "ping", "pong"));
+  }
+  
+  @Test
+  public void testNoCooldown() {
+    ResponseCooldown cooldown = getCooldown(0, 0, 0, 0);
+    
+    for (int i = 0; i < 10; ++i) {
+      assertTrue(cooldown.tryAcquire(1, 1, "ping", "pong"));
+    }
+    
+    assertEquals(0, cooldown.getSuppressed());
+  }
+  
+  private ResponseCooldown getCooldown(long guild, long channel, long pattern, long duplicate) {
+    return new ResponseCooldown(Duration.ofSeconds(guild), Duration.ofSeconds(channel),
+        Duration.ofSeconds(pattern), Duration.ofSeconds(duplicate), ticker::get);
+  }
+  
+  private void advance(long seconds) {
+    ticker.addAndGet(Duration.ofSeconds(seconds).toNanos());
+  }
+}
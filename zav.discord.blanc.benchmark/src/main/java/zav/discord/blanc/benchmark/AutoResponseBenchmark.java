@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import zav.discord.blanc.api.util.AutoResponseMatcher;
+import zav.discord.blanc.api.util.AutomatonMatcher;
+import zav.discord.blanc.api.util.CaseFolding;
+import zav.discord.blanc.api.util.RegularExpressionMatcher;
+import zav.discord.blanc.databind.AutoResponseEntity;
+
+/**
+ * Compares the cost of matching the automatic responses of a guild against a synthetic chat corpus.
+ * Most messages don't trigger any response, so the matchers should reject them as early as
+ * possible. The joined pattern without any prefilter serves as baseline, once case-insensitive and
+ * once case-sensitive with folded messages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutoResponseBenchmark {
+  private static final List<String> PATTERNS = List.of(
+        "\\bcheat(s)?\\b",
+        "(ping)",
+        "(?:mii~)",
+        "Hello There!",
+        "n(o)+pe",
+        "\\bgood (?:morning|night)\\b",
+        "\\b(?:rules|faq)\\b",
+        "how do i (?:join|apply)",
+        "\\bserver (?:is )?down\\b",
+        "\\blfg\\b"
+  );
+  private static final List<String> TRIGGERS = List.of(
+        "Hello There!",
+        "can someone check the faq for me",
+        "is the server down or is it just me?",
+        "good morning",
+        "lfg",
+        "ping"
+  );
+  private static final List<String> WORDS = List.of(
+        "lol", "the", "stream", "yesterday", "I'm", "stuck", "on", "last", "boss", "any", "tips",
+        "brb", "that's", "a", "really", "cool", "drawing", "how", "long", "did", "it", "take",
+        "you", "gg", "everyone", "see", "tomorrow", "\uD83D\uDE02", "ok", "thanks", "for", "help",
+        "earlier", ":)", "anyone", "up", "few", "rounds", "tonight", "8pm", "my", "cat", "knocked",
+        "coffee", "over", "again", "https://www.youtube.com/watch?v=dQw4w9WgXcQ", "nah",
+        "pin"
+  );
+  private static final int CORPUS_SIZE = 1000;
+  
+  @Param({"10", "100", "1000"})
+  public int patterns;
+  
+  /**
+   * The fraction of messages which contain a trigger phrase.
+   */
+  @Param({"0.01", "0.1"})
+  public double hitRate;
+  
+  private List<String> corpus;
+  
+  private AutoResponseMatcher automaton;
+  private AutoResponseMatcher regularExpression;
+  private Pattern baseline;
+  private Pattern foldedBaseline;
+  
+  @Setup
+  public void setUp() {
+    List<AutoResponseEntity> entities = new ArrayList<>(patterns);
+    StringBuilder joined = new StringBuilder();
+    
+    for (int i = 0; i < patterns; ++i) {
+      // Additional patterns use distinct keywords, so that the number of matches stays constant
+      String pattern = i < PATTERNS.size() ? PATTERNS.get(i) : "\\bkeyword" + i + "\\b";
+      
+      AutoResponseEntity entity = new AutoResponseEntity();
+      entity.setPattern(pattern);
+      entity.setAnswer("answer" + i);
+      entities.add(entity);
+      
+      joined.append(i == 0 ? "" : "|").append("(?<g").append(i).append('>');
+      joined.append(pattern).append(')');
+    }
+    
+    corpus = createCorpus(hitRate);
+    automaton = new AutomatonMatcher(entities);
+    regularExpression = new RegularExpressionMatcher(entities);
+    baseline = Pattern.compile(joined.toString(), Pattern.CASE_INSENSITIVE);
+    foldedBaseline = Pattern.compile(CaseFolding.foldPattern(joined.toString()));
+  }
+  
+  /**
+   * Matches all messages against the joined pattern, without any prefilter.
+   *
+   * @param blackhole Consumes the match results.
+   */
+  @Benchmark
+  public void matchBaseline(Blackhole blackhole) {
+    for (String message : corpus) {
+      Matcher matcher = baseline.matcher(message);
+      blackhole.consume(matcher.find());
+    }
+  }
+  
+  /**
+   * Folds all messages and matches them against the folded, case-sensitive joined pattern, without
+   * any prefilter.
+   *
+   * @param blackhole Consumes the match results.
+   */
+  @Benchmark
+  public void matchFoldedBaseline(Blackhole blackhole) {
+    for (String message : corpus) {
+      Matcher matcher = foldedBaseline.matcher(CaseFolding.fold(message));
+      blackhole.consume(matcher.find());
+    }
+  }
+  
+  /**
+   * Matches all messages via the {@link RegularExpressionMatcher}.
+   *
+   * @param blackhole Consumes the match results.
+   */
+  @Benchmark
+  public void matchRegularExpression(Blackhole blackhole) {
+    for (String message : corpus) {
+      blackhole.consume(regularExpression.match(message));
+    }
+  }
+  
+  /**
+   * Matches all messages via the {@link AutomatonMatcher}.
+   *
+   * @param blackhole Consumes the match results.
+   */
+  @Benchmark
+  public void matchAutomaton(Blackhole blackhole) {
+    for (String message : corpus) {
+      blackhole.consume(automaton.match(message));
+    }
+  }
+  
+  /**
+   * Creates a synthetic chat corpus. Each message consists of a random number of common words and
+   * may contain one of the trigger phrases.
+   */
+  private static List<String> createCorpus(double hitRate) {
+    List<String> result = new ArrayList<>(CORPUS_SIZE);
+    // Fixed seed, so that all runs use the same corpus
+    Random random = new Random(42);
+    
+    for (int i = 0; i < CORPUS_SIZE; ++i) {
+      StringJoiner message = new StringJoiner(" ");
+      int words = 1 + random.nextInt(20);
+      
+      for (int j = 0; j < words; ++j) {
+        message.add(WORDS.get(random.nextInt(WORDS.size())));
+      }
+      
+      if (random.nextDouble() < hitRate) {
+        message.add(TRIGGERS.get(random.nextInt(TRIGGERS.size())));
+      }
+      
+      result.add(message.toString());
+    }
+    
+    return result;
+  }
+}
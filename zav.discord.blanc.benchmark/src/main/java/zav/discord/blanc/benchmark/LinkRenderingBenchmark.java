@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.benchmark;
+
+import club.minnced.discord.webhook.send.WebhookMessage;
+import java.util.concurrent.TimeUnit;
+import net.dv8tion.jda.api.entities.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import zav.discord.blanc.reddit.MessageCache;
+import zav.discord.blanc.reddit.internal.MessageUtils;
+import zav.jrc.databind.LinkEntity;
+
+/**
+ * Measures the cost of rendering a single submission, depending on the length of its self text.
+ * Self texts may be up to 40,000 characters long, but only a fraction of it is displayed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkRenderingBenchmark {
+  private static final String AVATAR_URL = "https://www.test.com/image.jpg";
+  private static final String PARAGRAPH = "Lorem ipsum dolor sit amet &lt;3, consetetur sadipscing "
+        + "elitr, sed diam nonumy eirmod tempor invidunt ut labore et dolore magna aliquyam erat. "
+        + "[Link](https://www.test.com) &amp; **more** &#x200B;\n\n";
+  
+  @Param({"0", "1000", "40000"})
+  public int length;
+  
+  private String selftext;
+  private MessageCache messages;
+  
+  @Setup
+  public void setUp() {
+    selftext = PARAGRAPH.repeat(length / PARAGRAPH.length() + 1).substring(0, length);
+    messages = new MessageCache(name -> AVATAR_URL);
+  }
+  
+  /**
+   * Creates the message which is sent to text channels.
+   *
+   * @return The rendered message.
+   */
+  @Benchmark
+  public Message renderMessage() {
+    return MessageUtils.forLink(getLink());
+  }
+  
+  /**
+   * Creates the message which is sent to webhooks. Each submission is new, so the message is never
+   * taken from the cache.
+   *
+   * @return The rendered message.
+   */
+  @Benchmark
+  public WebhookMessage renderWebhookMessage() {
+    return messages.getWebhookMessage(getLink());
+  }
+  
+  private LinkEntity getLink() {
+    LinkEntity link = new LinkEntity();
+    link.setId("abcdef");
+    link.setAuthor("author");
+    link.setSubreddit("subreddit");
+    link.setTitle("[Discussion] Title &amp; more &#x200B;");
+    link.setSelftext(selftext);
+    link.setLinkFlairText(":botdev: Flair");
+    link.setPermalink("/r/subreddit/comments/abcdef/title/");
+    link.setUrl("https://www.reddit.com/r/subreddit/comments/abcdef/title/");
+    link.setThumbnail("https://www.test.com/thumbnail.jpg");
+    link.setCreatedUtc(1_600_000_000.0);
+    link.setOver18(false);
+    link.setSpoiler(false);
+    return link;
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.benchmark;
+
+import club.minnced.discord.webhook.send.WebhookEmbed;
+import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
+import club.minnced.discord.webhook.send.WebhookMessage;
+import club.minnced.discord.webhook.send.WebhookMessageBuilder;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import zav.discord.blanc.reddit.MessageCache;
+import zav.discord.blanc.reddit.internal.MessageUtils;
+import zav.jrc.databind.LinkEntity;
+
+/**
+ * Compares the cost of delivering a single submission to {@code N} webhooks, once by creating a
+ * new message for each webhook and once by sharing the message via the {@link MessageCache}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCacheBenchmark {
+  private static final String AVATAR_URL = "https://www.test.com/image.jpg";
+  
+  @Param({"1", "10", "100"})
+  public int listeners;
+  
+  private MessageCache messages;
+  
+  @Setup
+  public void setUp() {
+    messages = new MessageCache(name -> AVATAR_URL);
+  }
+  
+  /**
+   * Creates a new message for each listener.
+   *
+   * @param blackhole Consumes the created messages.
+   */
+  @Benchmark
+  public void renderPerListener(Blackhole blackhole) {
+    LinkEntity link = getLink();
+    
+    for (int i = 0; i < listeners; ++i) {
+      Message source = MessageUtils.forLink(link);
+      
+      WebhookMessage message = new WebhookMessageBuilder()
+            .addEmbeds(transform(source.getEmbeds()))
+            .setAvatarUrl(AVATAR_URL)
+            .setUsername(null)
+            .build();
+      
+      blackhole.consume(message);
+    }
+  }
+  
+  /**
+   * Creates the message once and shares it with all listeners.
+   *
+   * @param blackhole Consumes the created messages.
+   */
+  @Benchmark
+  public void renderOnce(Blackhole blackhole) {
+    LinkEntity link = getLink();
+    
+    for (int i = 0; i < listeners; ++i) {
+      blackhole.consume(messages.getWebhookMessage(link));
+    }
+  }
+  
+  private static List<WebhookEmbed> transform(List<MessageEmbed> source) {
+    return source.stream()
+          .map(WebhookEmbedBuilder::fromJDA)
+          .map(WebhookEmbedBuilder::build)
+          .collect(Collectors.toUnmodifiableList());
+  }
+  
+  private static LinkEntity getLink() {
+    LinkEntity link = new LinkEntity();
+    link.setId("abcdef");
+    link.setAuthor("author");
+    link.setSubreddit("subreddit");
+    link.setTitle("[Discussion] Title &amp; more &#x200B;");
+    link.setSelftext("Lorem ipsum dolor sit amet &lt;3, consetetur sadipscing elitr.");
+    link.setLinkFlairText(":botdev: Flair");
+    link.setPermalink("/r/subreddit/comments/abcdef/title/");
+    link.setUrl("https://www.reddit.com/r/subreddit/comments/abcdef/title/");
+    link.setThumbnail("https://www.test.com/thumbnail.jpg");
+    link.setCreatedUtc(1_600_000_000.0);
+    link.setOver18(false);
+    link.setSpoiler(false);
+    return link;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import zav.discord.blanc.databind.AutoResponseEntity;
+import zav.discord.blanc.databind.GuildEntity;
+import zav.discord.blanc.databind.UnitOfWork;
+
+/**
+ * Measures the find-modify-merge cycle executed by commands such as {@code b:mod:response:add}
+ * against an in-memory SQLite database, once with a separate entity manager per operation and once
+ * within a single {@link UnitOfWork}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+  private static final long GUILD_ID = 1L;
+  
+  @Param({"0", "10", "100"})
+  public int responses;
+  
+  private int counter;
+  
+  /**
+   * Persists a single guild with {@code N} automatic responses.
+   */
+  @Setup
+  public void setUp() {
+    GuildEntity entity = new GuildEntity();
+    entity.setId(GUILD_ID);
+    entity.setName("Guild");
+    
+    for (int i = 0; i < responses; ++i) {
+      AutoResponseEntity response = AutoResponseEntity.create("pattern" + i, "answer" + i);
+      entity.add(response);
+    }
+    
+    entity.merge();
+  }
+  
+  /**
+   * Loads and stores the guild, each with its own entity manager and transaction.
+   *
+   * @return The modified guild.
+   */
+  @Benchmark
+  public GuildEntity findAndMergePerCall() {
+    GuildEntity entity = GuildEntity.find(GUILD_ID);
+    entity.setName("Guild" + (counter++ & 1));
+    entity.merge();
+    return entity;
+  }
+  
+  /**
+   * Loads and stores the guild with a single entity manager and transaction.
+   *
+   * @return The modified guild.
+   */
+  @Benchmark
+  public GuildEntity findAndMergeUnitOfWork() {
+    try (UnitOfWork work = UnitOfWork.begin()) {
+      GuildEntity entity = GuildEntity.find(GUILD_ID);
+      entity.setName("Guild" + (counter++ & 1));
+      entity.merge();
+      work.commit();
+      return entity;
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import zav.discord.blanc.api.Site;
+
+/**
+ * Measures the cost of splitting a list of {@code N} items into pages, as done e.g. when listing
+ * all automatic responses or Reddit feeds of a guild.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SitePageBenchmark {
+  private static final int ITEMS_PER_PAGE = 10;
+  
+  @Param({"10", "1000", "10000"})
+  public int items;
+  
+  private Site.Page.Builder builder;
+  
+  /**
+   * Creates a builder containing {@code N} items.
+   */
+  @Setup
+  public void setUp() {
+    builder = new Site.Page.Builder("Responses");
+    builder.setItemsPerPage(ITEMS_PER_PAGE);
+    
+    for (int i = 0; i < items; ++i) {
+      builder.add("`[{0}]` {1} \u2192 {2}\n", i, "pattern" + i, "answer" + i);
+    }
+  }
+  
+  /**
+   * Creates all pages of the site.
+   *
+   * @return The created pages.
+   */
+  @Benchmark
+  public List<Site.Page> build() {
+    return builder.build();
+  }
+}
@@ -48,7 +48,7 @@ public class PermissionValidator implements Validator<Permission> {
   
   @Override
   public void validate(Collection<Permission> args) throws InsufficientPermissionException {
-    boolean isRoot = Rank.getEffectiveRanks(author.getUser()).contains(Rank.ROOT);
+    boolean isRoot = Rank.hasEffectiveRank(author.getUser(), Rank.ROOT);
     boolean hasPermission = author.getPermissions(textChannel).containsAll(args);
   
     // Does the user have the required permissions?
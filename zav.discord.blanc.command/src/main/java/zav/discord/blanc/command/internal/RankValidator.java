@@ -16,8 +16,6 @@
 
 package zav.discord.blanc.command.internal;
 
-import static zav.discord.blanc.databind.Rank.getEffectiveRanks;
-
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.Collection;
 import net.dv8tion.jda.api.entities.User;
@@ -45,7 +43,7 @@ public class RankValidator implements Validator<Rank> {
   
   @Override
   public void validate(Collection<Rank> args) throws InsufficientRankException {
-    if (!getEffectiveRanks(author).containsAll(args)) {
+    if (!Rank.hasEffectiveRanks(author, args)) {
       throw new InsufficientRankException(args);
     }
   }
@@ -70,6 +70,9 @@ public class PermissionValidatorTest {
     mocked.when(() -> UserEntity.find(user)).thenReturn(userEntity);
 
     when(author.getUser()).thenReturn(user);
+    
+    // Ranks are cached across test cases
+    Rank.invalidateAll();
   }
   
   @AfterEach
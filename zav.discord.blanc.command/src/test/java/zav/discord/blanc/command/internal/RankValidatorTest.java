@@ -61,6 +61,9 @@ public class RankValidatorTest {
 
     mocked = mockStatic(UserEntity.class);
     mocked.when(() -> UserEntity.find(author)).thenReturn(userEntity);
+    
+    // Ranks are cached across test cases
+    Rank.invalidateAll();
   }
   
   @AfterEach
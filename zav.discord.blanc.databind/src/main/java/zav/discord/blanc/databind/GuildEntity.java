@@ -22,6 +22,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import lombok.Generated;
 import lombok.Getter;
@@ -161,4 +162,35 @@ public class GuildEntity implements PersistedEntity {
   public static GuildEntity find(Guild guild) {
     return PersistenceUtil.find(guild);
   }
+  
+  /**
+   * Returns the PoJo associated with the provided guild id. Unlike {@link #find(Guild)}, no new
+   * entry is created if the guild hasn't been persisted yet.
+   *
+   * @param guildId The id of a Discord guild.
+   * @return The PoJo corresponding to the guild or {@code null}, if no such entry exists.
+   */
+  public static GuildEntity find(long guildId) {
+    return PersistenceUtil.find(GuildEntity.class, guildId);
+  }
+  
+  /**
+   * Returns all persisted guilds.
+   *
+   * @return An unmodifiable list of all persisted guilds.
+   */
+  public static List<GuildEntity> findAll() {
+    return PersistenceUtil.findAll(GuildEntity.class);
+  }
+  
+  /**
+   * Returns all persisted guilds with the given ids. Guilds which haven't been persisted are
+   * ignored.
+   *
+   * @param guildIds The ids of Discord guilds.
+   * @return An unmodifiable list of all persisted guilds with the given ids.
+   */
+  public static List<GuildEntity> findAll(Collection<Long> guildIds) {
+    return PersistenceUtil.findAll(GuildEntity.class, guildIds);
+  }
 }
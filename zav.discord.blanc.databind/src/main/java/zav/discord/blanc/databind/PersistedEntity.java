@@ -27,6 +27,6 @@ public interface PersistedEntity {
    * @return {@code true} if the entity is persisted, otherwise {@code false}.
    */
   default boolean isPersisted() {
-    return PersistenceUtil.find(getClass(), getId()) != null;
+    return PersistenceUtil.contains(getClass(), getId());
   }
 }
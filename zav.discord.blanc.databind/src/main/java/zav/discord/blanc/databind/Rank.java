@@ -17,13 +17,13 @@
 package zav.discord.blanc.databind;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 import net.dv8tion.jda.api.entities.User;
 import org.jetbrains.annotations.Contract;
 
@@ -47,6 +47,7 @@ public enum Rank {
   ROOT;
   
   private static final Map<Rank, EnumSet<Rank>> effectiveRanks = new HashMap<>();
+  private static final RankCache CACHE = new RankCache();
   
   static {
     effectiveRanks.put(Rank.USER, EnumSet.of(Rank.USER));
@@ -63,14 +64,89 @@ public enum Rank {
    */
   @Contract(pure = true)
   public static Set<Rank> getEffectiveRanks(User user) {
+    int mask = getEffectiveMask(user);
+    EnumSet<Rank> result = EnumSet.noneOf(Rank.class);
+    
+    for (Rank rank : values()) {
+      if ((mask & rank.getMask()) != 0) {
+        result.add(rank);
+      }
+    }
+    
+    return Collections.unmodifiableSet(result);
+  }
+  
+  /**
+   * Checks whether the given user owns the rank. Unlike {@link #getEffectiveRanks(User)}, the
+   * cached ranks are checked directly, without creating a new set.
+   *
+   * @param user A Discord user.
+   * @param rank A rank.
+   * @return {@code true}, if the rank is one of the effective ranks of the user.
+   */
+  public static boolean hasEffectiveRank(User user, Rank rank) {
+    return (getEffectiveMask(user) & rank.getMask()) != 0;
+  }
+  
+  /**
+   * Checks whether the given user owns all ranks.
+   *
+   * @param user A Discord user.
+   * @param ranks A collection of ranks.
+   * @return {@code true}, if all ranks are effective ranks of the user.
+   */
+  public static boolean hasEffectiveRanks(User user, Collection<Rank> ranks) {
+    int required = 0;
+    
+    for (Rank rank : ranks) {
+      required |= rank.getMask();
+    }
+    
+    return (getEffectiveMask(user) & required) == required;
+  }
+  
+  /**
+   * Discards the cached ranks of the given user. Has to be called whenever the ranks of the user
+   * are modified.
+   *
+   * @param userId The id of a Discord user.
+   */
+  public static void invalidate(long userId) {
+    CACHE.invalidate(userId);
+  }
+  
+  /**
+   * Discards the cached ranks of all users.
+   */
+  public static void invalidateAll() {
+    CACHE.invalidateAll();
+  }
+  
+  private static int getEffectiveMask(User user) {
+    long userId = user.getIdLong();
+    int mask = CACHE.get(userId);
+    
+    if (mask != 0) {
+      return mask;
+    }
+    
+    long version = CACHE.getVersion();
     UserEntity entity = UserEntity.find(user);
     
-    return Optional.ofNullable(entity)
+    mask = Optional.ofNullable(entity)
           .map(UserEntity::getRanks)
           .orElse(List.of(Rank.USER))
           .stream()
           .map(effectiveRanks::get)
           .flatMap(Collection::stream)
-          .collect(Collectors.toUnmodifiableSet());
+          .mapToInt(Rank::getMask)
+          .reduce(USER.getMask(), (left, right) -> left | right);
+    
+    CACHE.put(userId, mask, version);
+    return mask;
+  }
+  
+  private int getMask() {
+    return 1 << ordinal();
   }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.databind;
+
+/**
+ * Cache for the effective ranks of all users which recently executed a command.<br>
+ * The ranks are stored as a bitmask in an open-addressing hash table with primitive keys, so that
+ * a lookup neither queries the database nor allocates any objects. The cache is cleared once it
+ * contains {@link #MAX_SIZE} users.<br>
+ * Entries are invalidated whenever the ranks of a user are modified. In order to prevent a lookup
+ * which races with such a modification from storing outdated ranks, every invalidation increments
+ * the version of the cache and entries are only stored if the version hasn't changed in between.
+ */
+/*package*/ final class RankCache {
+  /**
+   * Upper bound for the cached users.
+   */
+  private static final int MAX_SIZE = 1 << 16;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+  private long[] keys = new long[INITIAL_CAPACITY];
+  /**
+   * The effective ranks of each user. {@code 0} marks an empty slot, as every user has at least
+   * the {@link Rank#USER} rank.
+   */
+  private int[] masks = new int[INITIAL_CAPACITY];
+  private int size;
+  private long version;
+  
+  /**
+   * Returns the cached ranks of the given user.
+   *
+   * @param userId The id of a Discord user.
+   * @return The bitmask of the effective ranks or {@code 0}, if the user isn't cached.
+   */
+  /*package*/ synchronized int get(long userId) {
+    int index = indexOf(userId);
+    return index < 0 ? 0 : masks[index];
+  }
+  
+  /**
+   * Returns the current version of this cache, which has to be passed to
+   * {@link #put(long, int, long)}.
+   *
+   * @return The current version.
+   */
+  /*package*/ synchronized long getVersion() {
+    return version;
+  }
+  
+  /**
+   * Stores the ranks of the given user, unless an entry has been invalidated since the ranks have
+   * been read.
+   *
+   * @param userId The id of a Discord user.
+   * @param mask The bitmask of the effective ranks.
+   * @param expectedVersion The version of this cache before the ranks have been read.
+   */
+  /*package*/ synchronized void put(long userId, int mask, long expectedVersion) {
+    if (version != expectedVersion) {
+      return;
+    }
+    
+    int index = indexOf(userId);
+    
+    if (index >= 0) {
+      masks[index] = mask;
+      return;
+    }
+    
+    if (size >= MAX_SIZE) {
+      clear();
+    } else if (2 * (size + 1) > keys.length) {
+      resize(2 * keys.length);
+    }
+    
+    index = hash(userId, keys.length);
+    
+    while (masks[index] != 0) {
+      index = (index + 1) & (keys.length - 1);
+    }
+    
+    keys[index] = userId;
+    masks[index] = mask;
+    size++;
+  }
+  
+  /**
+   * Removes the ranks of the given user.
+   *
+   * @param userId The id of a Discord user.
+   */
+  /*package*/ synchronized void invalidate(long userId) {
+    version++;
+    
+    int index = indexOf(userId);
+    
+    if (index < 0) {
+      return;
+    }
+    
+    // Move all subsequent entries of the probe sequence which would otherwise become unreachable
+    int mask = keys.length - 1;
+    int next = (index + 1) & mask;
+    
+    while (masks[next] != 0) {
+      int home = hash(keys[next], keys.length);
+      
+      // Checks whether the home slot of the entry is cyclically outside of (index, next]
+      if (((next - home) & mask) >= ((next - index) & mask)) {
+        keys[index] = keys[next];
+        masks[index] = masks[next];
+        index = next;
+      }
+      
+      next = (next + 1) & mask;
+    }
+    
+    masks[index] = 0;
+    size--;
+  }
+  
+  /**
+   * Removes the ranks of all users.
+   */
+  /*package*/ synchronized void invalidateAll() {
+    version++;
+    clear();
+  }
+  
+  private void clear() {
+    keys = new long[INITIAL_CAPACITY];
+    masks = new int[INITIAL_CAPACITY];
+    size = 0;
+  }
+  
+  private int indexOf(long userId) {
+    int index = hash(userId, keys.length);
+    
+    while (masks[index] != 0) {
+      if (keys[index] == userId) {
+        return index;
+      }
+      
+      index = (index + 1) & (keys.length - 1);
+    }
+    
+    return -1;
+  }
+  
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldMasks = masks;
+    
+    keys = new long[capacity];
+    masks = new int[capacity];
+    
+    for (int i = 0; i < oldKeys.length; ++i) {
+      if (oldMasks[i] != 0) {
+        int index = hash(oldKeys[i], capacity);
+        
+        while (masks[index] != 0) {
+          index = (index + 1) & (capacity - 1);
+        }
+        
+        keys[index] = oldKeys[i];
+        masks[index] = oldMasks[i];
+      }
+    }
+  }
+  
+  private static int hash(long userId, int capacity) {
+    long hash = userId * GOLDEN_RATIO;
+    return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.databind;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.util.Collection;
+import java.util.List;
+import lombok.Generated;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import zav.discord.blanc.databind.internal.PersistenceUtil;
+
+/**
+ * This PoJo corresponds to the newest submission of a subreddit that has already been forwarded to
+ * its listeners. It is used to avoid forwarding submissions a second time after a restart.
+ */
+@Getter
+@Setter
+@Generated
+@NoArgsConstructor
+@Entity
+@Table(name = "SubmissionIndex")
+public class SubmissionIndexEntity {
+  /**
+   * The lower-case name of the subreddit.
+   */
+  @Id
+  private String subreddit;
+  
+  /**
+   * The fullname of the newest forwarded submission, e.g. {@code t3_abcdef}.
+   */
+  private String name;
+  
+  /**
+   * Returns the index entries of all subreddits.
+   *
+   * @return An unmodifiable list of all persisted entries.
+   */
+  public static List<SubmissionIndexEntity> findAll() {
+    return PersistenceUtil.findAll(SubmissionIndexEntity.class);
+  }
+  
+  /**
+   * Writes all entries to the database within a single transaction.
+   *
+   * @param entities The updated index entries.
+   */
+  public static void mergeAll(Collection<SubmissionIndexEntity> entities) {
+    PersistenceUtil.mergeAll(entities);
+  }
+  
+  /**
+   * Removes the entries of all given subreddits within a single transaction.
+   *
+   * @param subreddits The lower-case names of the subreddits.
+   */
+  public static void removeAll(Collection<String> subreddits) {
+    PersistenceUtil.removeAll(SubmissionIndexEntity.class, subreddits);
+  }
+}
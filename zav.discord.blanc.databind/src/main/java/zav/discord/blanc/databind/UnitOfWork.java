@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.databind;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import zav.discord.blanc.databind.internal.PersistenceUtil;
+
+/**
+ * A unit of work groups all database operations of the current thread into a single
+ * {@link EntityManager} and a single transaction.<br>
+ * While a unit of work is active, all methods of the persisted entities, e.g.
+ * {@link PersistedEntity#merge()} or {@link GuildEntity#find(net.dv8tion.jda.api.entities.Guild)},
+ * are executed as part of this unit. Entities are loaded with the entity manager of this unit,
+ * while modifications are only recorded. They are written to the database within a single
+ * transaction once the unit is committed and are discarded if the unit is closed without being
+ * committed.
+ * <pre>
+ *   try (UnitOfWork work = UnitOfWork.begin()) {
+ *     GuildEntity entity = GuildEntity.find(guild);
+ *     ...
+ *     entity.merge();
+ *     work.commit();
+ *   }
+ * </pre>
+ * The entity manager is only created once it is needed, so that units of work which don't access
+ * the database are free. No transaction is opened before the unit is committed. Nevertheless,
+ * units of work should be kept short and must not wait for e.g. Discord requests.
+ */
+public final class UnitOfWork implements AutoCloseable {
+  private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+  private final List<Consumer<EntityManager>> changes = new ArrayList<>();
+  private EntityManager entityManager;
+  
+  private UnitOfWork() {
+  }
+  
+  /**
+   * Starts a new unit of work for the current thread.
+   *
+   * @return The new unit of work.
+   * @throws IllegalStateException If a unit of work is already active for the current thread.
+   */
+  public static UnitOfWork begin() {
+    if (CURRENT.get() != null) {
+      throw new IllegalStateException("A unit of work is already active for this thread.");
+    }
+    
+    UnitOfWork work = new UnitOfWork();
+    CURRENT.set(work);
+    return work;
+  }
+  
+  /**
+   * Returns the unit of work which is active for the current thread.
+   *
+   * @return The active unit of work or {@code null}, if no such unit exists.
+   */
+  public static UnitOfWork current() {
+    return CURRENT.get();
+  }
+  
+  /**
+   * Returns the entity manager shared by all read operations of this unit.
+   *
+   * @return The entity manager of this unit.
+   */
+  public EntityManager getEntityManager() {
+    if (entityManager == null) {
+      entityManager = PersistenceUtil.createEntityManager();
+    }
+    
+    return entityManager;
+  }
+  
+  /**
+   * Records a modification which is applied once this unit is committed.
+   *
+   * @param change A modification of the database.
+   */
+  public void register(Consumer<EntityManager> change) {
+    changes.add(change);
+  }
+  
+  /**
+   * Writes all changes of this unit to the database within a single transaction.
+   */
+  public void commit() {
+    if (!changes.isEmpty()) {
+      PersistenceUtil.commit(List.copyOf(changes));
+      changes.clear();
+    }
+  }
+  
+  /**
+   * Ends this unit of work. Changes which haven't been committed are discarded.
+   */
+  @Override
+  public void close() {
+    CURRENT.remove();
+    changes.clear();
+    
+    if (entityManager != null) {
+      entityManager.close();
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.databind.internal;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss statistics of the entity cache for a single entity type. A lookup is a hit if it
+ * could be answered without querying the database, i.e. if the entity is contained in the shared
+ * cache or is known not to exist.
+ */
+public final class CacheStatistics {
+  private static final ConcurrentMap<String, CacheStatistics> STATISTICS =
+        new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  
+  private CacheStatistics() {
+  }
+  
+  /**
+   * Returns the cache statistics of all entity types which have been looked up so far.
+   *
+   * @return A map of all statistics, sorted by the simple name of the entity class.
+   */
+  public static Map<String, CacheStatistics> getAll() {
+    return new TreeMap<>(STATISTICS);
+  }
+  
+  /**
+   * Records a single entity lookup.
+   *
+   * @param clazz The entity class.
+   * @param isHit {@code true}, if the lookup was answered without querying the database.
+   */
+  /*package*/ static void record(Class<?> clazz, boolean isHit) {
+    CacheStatistics statistics = STATISTICS.computeIfAbsent(clazz.getSimpleName(),
+          k -> new CacheStatistics());
+    
+    if (isHit) {
+      statistics.hits.increment();
+    } else {
+      statistics.misses.increment();
+    }
+  }
+  
+  /**
+   * Returns the number of lookups which were answered by the cache.
+   *
+   * @return The number of cache hits.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+  
+  /**
+   * Returns the number of lookups which required a database query.
+   *
+   * @return The number of cache misses.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+}
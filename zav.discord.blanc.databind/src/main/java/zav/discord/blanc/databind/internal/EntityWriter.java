@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.databind.internal;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.PersistenceException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Single writer for all database modifications.<br>
+ * SQLite only permits a single writer at a time, so concurrent transactions either wait for each
+ * other or fail with {@code SQLITE_BUSY}. Instead, all modifications are passed to a dedicated
+ * thread, which applies every change that has been queued in the meantime within a single
+ * transaction (group commit). Readers are not affected and continue to run concurrently on their
+ * own snapshot of the database.<br>
+ * If a group commit fails, the changes are applied again one by one, so that a single faulty
+ * change doesn't discard the changes of all other callers.<br>
+ * Should the writer thread ever terminate, e.g. because of an {@link Error}, all pending and all
+ * future changes are rejected, instead of leaving their callers waiting indefinitely.
+ */
+/*package*/ final class EntityWriter {
+  /**
+   * Upper bound for the changes combined into a single transaction.
+   */
+  private static final int MAX_BATCH = 64;
+  /**
+   * Upper bound for how long a caller waits for its changes to be committed.
+   */
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+  private final BlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+  private final EntityManagerFactory factory;
+  private volatile boolean terminated;
+  
+  /**
+   * Creates a new writer and starts its thread.
+   *
+   * @param factory The factory for the entity managers used by the writer thread.
+   */
+  /*package*/ EntityWriter(EntityManagerFactory factory) {
+    this.factory = factory;
+    
+    Thread thread = new Thread(this::run, "entity-writer");
+    thread.setDaemon(true);
+    thread.start();
+  }
+  
+  /**
+   * Applies the given changes within a single transaction. This method blocks until the
+   * transaction has been committed.
+   *
+   * @param changes The changes applied to the entity manager of the writer thread.
+   * @throws IllegalStateException If the writer thread has terminated.
+   * @throws PersistenceException If the changes haven't been committed in time. Note that they may
+   *     still be committed afterwards.
+   * @throws RuntimeException If the changes couldn't be committed.
+   */
+  /*package*/ void write(List<Consumer<EntityManager>> changes) {
+    if (terminated) {
+      throw new IllegalStateException("The entity writer has been terminated.");
+    }
+    
+    Task task = new Task(changes);
+    queue.add(task);
+    
+    // The writer may have terminated before it could take the task
+    if (terminated) {
+      abortAll();
+    }
+    
+    try {
+      task.result.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof RuntimeException
+            ? (RuntimeException) e.getCause()
+            : new PersistenceException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new PersistenceException("Timed out while waiting for the commit.", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PersistenceException("Interrupted while waiting for the commit.", e);
+    }
+  }
+  
+  private void run() {
+    List<Task> batch = new ArrayList<>(MAX_BATCH);
+    
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        batch.add(queue.take());
+        queue.drainTo(batch, MAX_BATCH - 1);
+        
+        if (!commit(batch)) {
+          batch.forEach(task -> commit(List.of(task)));
+        }
+        
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      // Otherwise the callers would wait for changes which are never written
+      terminated = true;
+      batch.forEach(Task::abort);
+      abortAll();
+    }
+  }
+  
+  private void abortAll() {
+    List<Task> tasks = new ArrayList<>();
+    queue.drainTo(tasks);
+    tasks.forEach(Task::abort);
+  }
+  
+  /**
+   * Applies all tasks within a single transaction. If the transaction fails and consists of only a
+   * single task, the task is completed with the cause of the failure.
+   *
+   * @return {@code true}, if the transaction has been committed.
+   */
+  private boolean commit(List<Task> tasks) {
+    try (EntityManager entityManager = factory.createEntityManager()) {
+      EntityTransaction transaction = entityManager.getTransaction();
+      
+      try {
+        transaction.begin();
+        tasks.forEach(task -> task.changes.forEach(change -> change.accept(entityManager)));
+        transaction.commit();
+      } catch (RuntimeException e) {
+        if (transaction.isActive()) {
+          transaction.rollback();
+        }
+        
+        if (tasks.size() == 1) {
+          tasks.get(0).result.completeExceptionally(e);
+        }
+        
+        return false;
+      }
+    } catch (RuntimeException e) {
+      // The entity manager couldn't be created or closed
+      tasks.forEach(task -> task.result.completeExceptionally(e));
+      return true;
+    }
+    
+    tasks.forEach(task -> task.result.complete(null));
+    return true;
+  }
+  
+  private static final class Task {
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+    private final List<Consumer<EntityManager>> changes;
+    
+    private Task(List<Consumer<EntityManager>> changes) {
+      this.changes = changes;
+    }
+    
+    private void abort() {
+      result.completeExceptionally(
+            new IllegalStateException("The entity writer has been terminated."));
+    }
+  }
+}
@@ -3,7 +3,16 @@ package zav.discord.blanc.databind.internal;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
+import jakarta.persistence.metamodel.Attribute;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.ISnowflake;
 import net.dv8tion.jda.api.entities.TextChannel;
@@ -12,15 +21,60 @@ import net.dv8tion.jda.api.entities.Webhook;
 import zav.discord.blanc.databind.GuildEntity;
 import zav.discord.blanc.databind.Rank;
 import zav.discord.blanc.databind.TextChannelEntity;
+import zav.discord.blanc.databind.UnitOfWork;
 import zav.discord.blanc.databind.UserEntity;
 import zav.discord.blanc.databind.WebhookEntity;
 
 /**
- * Utility class managing the database access.
+ * Utility class managing the database access.<br>
+ * If a {@link UnitOfWork} is active for the current thread, all read operations share its entity
+ * manager and all modifications are deferred until the unit is committed. Otherwise, each read
+ * operation uses its own entity manager. In both cases, the connections are taken from the pool of
+ * the persistence unit.<br>
+ * Modifications are always applied by the {@link EntityWriter}, which combines concurrent
+ * modifications into a single transaction.<br>
+ * Entities are looked up in the shared cache of the persistence unit first, which is updated by
+ * EclipseLink whenever a transaction is committed. In addition, entities which are known not to
+ * exist are remembered, so that e.g. users without any ranks don't cause a database query on every
+ * command. Those entries are discarded whenever the database is modified. If only entities
+ * without associations are modified, e.g. the submission index, only the entries of their types
+ * are discarded, as those changes can't be cascaded to other entities.
  */
 public abstract class PersistenceUtil {
   private static final EntityManagerFactory FACTORY = Persistence.createEntityManagerFactory("discord-entities");
+  private static final EntityWriter WRITER = new EntityWriter(FACTORY);
+  /**
+   * Upper bound for the entities which are remembered as absent.
+   */
+  private static final int MAX_ABSENT = 10_000;
+  /**
+   * Upper bound for the ids of a single query, as SQLite limits the number of parameters.
+   */
+  private static final int MAX_PARAMETERS = 500;
+  /**
+   * All entities which are known not to exist, in access order. Guarded by itself.
+   */
+  private static final Map<Map.Entry<Class<?>, Object>, Boolean> ABSENT =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Map.Entry<Class<?>, Object>, Boolean> e) {
+            return size() > MAX_ABSENT;
+          }
+        };
+  /**
+   * Incremented after every committed modification. Guarded by {@link #ABSENT}.
+   */
+  private static long version;
   private PersistenceUtil() {}
+  
+  /**
+   * Creates a new entity manager for the persistence unit of all Discord entities.
+   *
+   * @return A new entity manager.
+   */
+  public static EntityManager createEntityManager() {
+    return FACTORY.createEntityManager();
+  }
 
   /**
    * Retrieves the entity corresponding to the provided guild from the database. If no such entry
@@ -121,9 +175,99 @@ public abstract class PersistenceUtil {
    * @return The persisted object or {@code null} if no such entry exists.
    */
   public static <T> T find(Class<T> clazz, Object primaryKey) {
-    try (EntityManager entityManager = FACTORY.createEntityManager()) {
-      return entityManager.find(clazz, primaryKey);
+    Map.Entry<Class<?>, Object> key = Map.entry(clazz, primaryKey);
+    long expectedVersion;
+    
+    synchronized (ABSENT) {
+      if (ABSENT.containsKey(key)) {
+        CacheStatistics.record(clazz, true);
+        return null;
+      }
+      
+      expectedVersion = version;
     }
+    
+    CacheStatistics.record(clazz, FACTORY.getCache().contains(clazz, primaryKey));
+    T entity = read(entityManager -> entityManager.find(clazz, primaryKey));
+    
+    synchronized (ABSENT) {
+      // The entity might have been persisted while the database was queried
+      if (entity == null && version == expectedVersion) {
+        ABSENT.put(key, Boolean.TRUE);
+      }
+    }
+    
+    return entity;
+  }
+  
+  /**
+   * Checks whether an entity with the given id exists in the database. Unlike
+   * {@link #find(Class, Object)}, the entity itself is never loaded.
+   *
+   * @param <T> The entity type.
+   * @param clazz The entity class.
+   * @param id The unique id of the entity.
+   * @return {@code true}, if such an entity exists.
+   */
+  public static <T> boolean contains(Class<T> clazz, long id) {
+    UnitOfWork work = UnitOfWork.current();
+    
+    // Entities loaded by the current unit of work are answered by its persistence context
+    if (work != null) {
+      return work.getEntityManager().find(clazz, id) != null;
+    }
+    
+    // Avoid the query if the entity is contained in the shared cache
+    if (FACTORY.getCache().contains(clazz, id)) {
+      return true;
+    }
+    
+    return read(entityManager -> {
+      String query = "SELECT COUNT(e) FROM " + clazz.getSimpleName() + " e WHERE e.id = :id";
+      return entityManager.createQuery(query, Long.class)
+            .setParameter("id", id)
+            .getSingleResult() > 0;
+    });
+  }
+
+  /**
+   * Retrieves all entities of the given type from the database.
+   *
+   * @param <T> The entity type.
+   * @param clazz The entity class.
+   * @return An unmodifiable list of all persisted objects.
+   */
+  public static <T> List<T> findAll(Class<T> clazz) {
+    return read(entityManager -> {
+      String query = "SELECT e FROM " + clazz.getSimpleName() + " e";
+      return List.copyOf(entityManager.createQuery(query, clazz).getResultList());
+    });
+  }
+
+  /**
+   * Retrieves all entities with the given ids from the database. Ids without a corresponding entity
+   * are ignored.
+   *
+   * @param <T> The entity type.
+   * @param clazz The entity class.
+   * @param ids The unique ids of the requested entities.
+   * @return An unmodifiable list of all persisted objects with the given ids.
+   */
+  public static <T> List<T> findAll(Class<T> clazz, Collection<?> ids) {
+    List<?> keys = List.copyOf(ids);
+    
+    return read(entityManager -> {
+      String query = "SELECT e FROM " + clazz.getSimpleName() + " e WHERE e.id IN :ids";
+      List<T> result = new ArrayList<>();
+      
+      for (int i = 0; i < keys.size(); i += MAX_PARAMETERS) {
+        result.addAll(entityManager.createQuery(query, clazz)
+              .setParameter("ids", keys.subList(i, Math.min(i + MAX_PARAMETERS, keys.size())))
+              .getResultList());
+      }
+      
+      return List.copyOf(result);
+    });
   }
 
   /**
@@ -146,15 +290,32 @@ public abstract class PersistenceUtil {
    * @param primaryKey The unique id of the removed entity.
    */
   public static <T> void remove(Class<T> clazz, Object primaryKey) {
-    try (EntityManager entityManager = FACTORY.createEntityManager()) {
+    write(Set.of(clazz), entityManager -> {
       T entity = entityManager.find(clazz, primaryKey);
       
       if (entity != null) {
-        entityManager.getTransaction().begin();
         entityManager.remove(entity);
-        entityManager.getTransaction().commit();
       }
-    }
+    });
+  }
+
+  /**
+   * Removes all given entities from the database within a single transaction.
+   *
+   * @param <T> The entity type.
+   * @param clazz The entity class.
+   * @param primaryKeys The unique ids of the removed entities.
+   */
+  public static <T> void removeAll(Class<T> clazz, Collection<?> primaryKeys) {
+    write(Set.of(clazz), entityManager -> {
+      for (Object primaryKey : primaryKeys) {
+        T entity = entityManager.find(clazz, primaryKey);
+        
+        if (entity != null) {
+          entityManager.remove(entity);
+        }
+      }
+    });
   }
 
   /**
@@ -164,10 +325,84 @@ public abstract class PersistenceUtil {
    * @param entity The entity object.
    */
   public static <T> void merge(T entity) {
+    write(Set.of(entity.getClass()), entityManager -> entityManager.merge(entity));
+  }
+
+  /**
+   * Writes all entities to the database within a single transaction.
+   *
+   * @param <T> The entity type.
+   * @param entities The entity objects.
+   */
+  public static <T> void mergeAll(Collection<T> entities) {
+    Set<Class<?>> scope = entities.stream().map(Object::getClass).collect(Collectors.toSet());
+    write(scope, entityManager -> entities.forEach(entityManager::merge));
+  }
+  
+  /**
+   * Executes a read-only operation, either within the current unit of work or with a new entity
+   * manager.
+   */
+  private static <R> R read(Function<EntityManager, R> operation) {
+    UnitOfWork work = UnitOfWork.current();
+    
+    if (work != null) {
+      return operation.apply(work.getEntityManager());
+    }
+    
     try (EntityManager entityManager = FACTORY.createEntityManager()) {
-      entityManager.getTransaction().begin();
-      entityManager.merge(entity);
-      entityManager.getTransaction().commit();
+      return operation.apply(entityManager);
+    }
+  }
+  
+  /**
+   * Applies all changes within a single transaction. This method blocks until the changes have been
+   * written to the database.
+   *
+   * @param changes The changes applied to the entity manager of the writer.
+   */
+  public static void commit(List<Consumer<EntityManager>> changes) {
+    commit(changes, null);
+  }
+  
+  /**
+   * Applies all changes within a single transaction and discards the absent entities which might
+   * have been created by them.
+   *
+   * @param scope The types of all modified entities or {@code null}, if they are unknown.
+   */
+  private static void commit(List<Consumer<EntityManager>> changes, Set<Class<?>> scope) {
+    try {
+      WRITER.write(changes);
+    } finally {
+      synchronized (ABSENT) {
+        // Changes may be cascaded to other entities, in which case every entry has to be discarded
+        if (scope == null || scope.stream().anyMatch(PersistenceUtil::hasAssociations)) {
+          ABSENT.clear();
+        } else {
+          ABSENT.keySet().removeIf(key -> scope.contains(key.getKey()));
+        }
+        version++;
+      }
+    }
+  }
+  
+  private static boolean hasAssociations(Class<?> clazz) {
+    return FACTORY.getMetamodel().entity(clazz).getAttributes().stream()
+          .anyMatch(Attribute::isAssociation);
+  }
+  
+  /**
+   * Executes a modifying operation. Within a unit of work, the changes are written once the unit is
+   * committed. Otherwise, the operation is executed in its own transaction.
+   */
+  private static void write(Set<Class<?>> scope, Consumer<EntityManager> operation) {
+    UnitOfWork work = UnitOfWork.current();
+    
+    if (work != null) {
+      work.register(operation);
+    } else {
+      commit(List.of(operation), scope);
     }
   }
 }
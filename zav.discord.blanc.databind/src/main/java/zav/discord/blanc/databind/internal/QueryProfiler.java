@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.databind.internal;
+
+import java.util.concurrent.TimeUnit;
+import org.eclipse.persistence.internal.sessions.AbstractRecord;
+import org.eclipse.persistence.internal.sessions.AbstractSession;
+import org.eclipse.persistence.queries.DatabaseQuery;
+import org.eclipse.persistence.sessions.DataRecord;
+import org.eclipse.persistence.tools.profiler.SessionProfilerAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Session profiler measuring the execution time of every database query.<br>
+ * The timings are accumulated per entity type and operation in {@link QueryStatistics}. Queries
+ * which take longer than the slow-query threshold are logged together with their SQL statement.
+ * The threshold is given in milliseconds by the system property {@value #THRESHOLD_PROPERTY} and
+ * defaults to {@value #DEFAULT_THRESHOLD}ms.<br>
+ * The profiler is enabled by setting {@code eclipselink.profiler} to the name of this class.
+ */
+public class QueryProfiler extends SessionProfilerAdapter {
+  /**
+   * The system property containing the slow-query threshold in milliseconds.
+   */
+  public static final String THRESHOLD_PROPERTY = "blanc.persistence.slowQueryThreshold";
+  /**
+   * The default slow-query threshold in milliseconds.
+   */
+  public static final long DEFAULT_THRESHOLD = 100;
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryProfiler.class);
+  private final long threshold;
+  
+  /**
+   * Creates a new profiler. Called by EclipseLink when the persistence unit is deployed.
+   */
+  public QueryProfiler() {
+    this(Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD));
+  }
+  
+  /*package*/ QueryProfiler(long threshold) {
+    this.threshold = TimeUnit.MILLISECONDS.toNanos(threshold);
+  }
+  
+  @Override
+  public Object profileExecutionOfQuery(DatabaseQuery query, DataRecord row,
+        AbstractSession session) {
+    long start = System.nanoTime();
+    
+    try {
+      return session.internalExecuteQuery(query, (AbstractRecord) row);
+    } finally {
+      record(query, System.nanoTime() - start);
+    }
+  }
+  
+  private void record(DatabaseQuery query, long elapsed) {
+    Class<?> referenceClass = query.getReferenceClass();
+    String entity = referenceClass == null ? "none" : referenceClass.getSimpleName();
+    String operation = getOperation(query);
+    boolean isSlow = elapsed > threshold;
+    
+    QueryStatistics.record(entity, operation, elapsed, isSlow);
+    
+    if (isSlow) {
+      LOGGER.warn("Slow query: entity={} operation={} duration={}ms sql={}",
+            entity, operation, TimeUnit.NANOSECONDS.toMillis(elapsed), query.getSQLString());
+    }
+  }
+  
+  private static String getOperation(DatabaseQuery query) {
+    if (query.isReadQuery()) {
+      return "read";
+    } else if (query.isInsertObjectQuery()) {
+      return "insert";
+    } else if (query.isUpdateObjectQuery() || query.isUpdateAllQuery()) {
+      return "update";
+    } else if (query.isDeleteObjectQuery() || query.isDeleteAllQuery()) {
+      return "delete";
+    } else {
+      return "other";
+    }
+  }
+}
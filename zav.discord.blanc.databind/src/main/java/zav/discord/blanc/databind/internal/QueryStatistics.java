@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package zav.discord.blanc.databind.internal;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution statistics of all database queries of a single entity type and operation, e.g. all
+ * reads of {@code GuildEntity}. The statistics are collected by the {@link QueryProfiler}.
+ */
+public final class QueryStatistics {
+  private static final ConcurrentMap<String, QueryStatistics> STATISTICS =
+        new ConcurrentHashMap<>();
+  private final LongAdder count = new LongAdder();
+  private final LongAdder nanos = new LongAdder();
+  private final LongAdder slow = new LongAdder();
+  
+  private QueryStatistics() {
+  }
+  
+  /**
+   * Returns the statistics of all queries which have been executed so far.
+   *
+   * @return A map of all statistics, sorted by {@code <entity>.<operation>}.
+   */
+  public static Map<String, QueryStatistics> getAll() {
+    return new TreeMap<>(STATISTICS);
+  }
+  
+  /**
+   * Records a single query execution.
+   *
+   * @param entity The simple name of the entity class.
+   * @param operation The query operation, e.g. {@code read} or {@code update}.
+   * @param elapsed The execution time in nanoseconds.
+   * @param isSlow {@code true}, if the execution time exceeded the slow-query threshold.
+   */
+  /*package*/ static void record(String entity, String operation, long elapsed, boolean isSlow) {
+    QueryStatistics statistics = STATISTICS.computeIfAbsent(entity + "." + operation,
+          k -> new QueryStatistics());
+    
+    statistics.count.increment();
+    statistics.nanos.add(elapsed);
+    
+    if (isSlow) {
+      statistics.slow.increment();
+    }
+  }
+  
+  /**
+   * Returns the number of executed queries.
+   *
+   * @return The number of queries.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+  
+  /**
+   * Returns the accumulated execution time of all queries.
+   *
+   * @return The execution time in nanoseconds.
+   */
+  public long getTotalNanos() {
+    return nanos.sum();
+  }
+  
+  /**
+   * Returns the number of queries which exceeded the slow-query threshold.
+   *
+   * @return The number of slow queries.
+   */
+  public long getSlowCount() {
+    return slow.sum();
+  }
+}
@@ -0,0 +1,62 @@
+package zav.discord.blanc.databind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RankCacheTest {
+  private static final int USERS = 1000;
+  RankCache cache;
+  
+  @BeforeEach
+  public void setUp() {
+    cache = new RankCache();
+  }
+  
+  @Test
+  public void testPut() {
+    for (long userId = 0; userId < USERS; ++userId) {
+      cache.put(userId, (int) userId + 1, cache.getVersion());
+    }
+    
+    for (long userId = 0; userId < USERS; ++userId) {
+      assertEquals((int) userId + 1, cache.get(userId));
+    }
+    
+    assertEquals(0, cache.get(USERS));
+  }
+  
+  @Test
+  public void testPutOutdatedVersion() {
+    long version = cache.getVersion();
+    cache.invalidate(1L);
+    cache.put(1L, 1, version);
+    
+    assertEquals(0, cache.get(1L));
+  }
+  
+  @Test
+  public void testInvalidate() {
+    for (long userId = 0; userId < USERS; ++userId) {
+      cache.put(userId, 1, cache.getVersion());
+    }
+    
+    // Every other entry is removed, the remaining entries must still be reachable
+    for (long userId = 0; userId < USERS; userId += 2) {
+      cache.invalidate(userId);
+    }
+    
+    for (long userId = 0; userId < USERS; ++userId) {
+      assertEquals(userId % 2 == 0 ? 0 : 1, cache.get(userId));
+    }
+  }
+  
+  @Test
+  public void testInvalidateAll() {
+    cache.put(1L, 1, cache.getVersion());
+    cache.invalidateAll();
+    
+    assertEquals(0, cache.get(1L));
+  }
+}
@@ -73,6 +73,7 @@ public class RankTest {
   public void testGetEffectiveRanks(Rank rank, Set<Rank> effectiveRanks) {
     entity.setRanks(List.of(rank));
     entity.merge();
+    Rank.invalidate(entity.getId());
     
     when(user.getIdLong()).thenReturn(entity.getId());
     
@@ -0,0 +1,55 @@
+package zav.discord.blanc.databind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import zav.discord.blanc.databind.internal.PersistenceUtil;
+
+public class SubmissionIndexEntityTest {
+  SubmissionIndexEntity entity;
+  
+  @BeforeEach
+  public void setUp() {
+    entity = new SubmissionIndexEntity();
+    entity.setSubreddit("redditdev");
+    entity.setName("t3_abcdef");
+  }
+  
+  @AfterEach
+  public void tearDown() {
+    PersistenceUtil.remove(SubmissionIndexEntity.class, "redditdev");
+  }
+  
+  @Test
+  public void testMergeAll() {
+    assertNull(PersistenceUtil.find(SubmissionIndexEntity.class, "redditdev"));
+    
+    SubmissionIndexEntity.mergeAll(List.of(entity));
+    
+    List<SubmissionIndexEntity> entities = SubmissionIndexEntity.findAll();
+    assertEquals(1, entities.size());
+    assertEquals("redditdev", entities.get(0).getSubreddit());
+    assertEquals("t3_abcdef", entities.get(0).getName());
+  }
+  
+  @Test
+  public void testMergeAllUpdate() {
+    SubmissionIndexEntity.mergeAll(List.of(entity));
+    entity.setName("t3_abcdeg");
+    SubmissionIndexEntity.mergeAll(List.of(entity));
+    
+    assertEquals("t3_abcdeg", SubmissionIndexEntity.findAll().get(0).getName());
+  }
+  
+  @Test
+  public void testRemoveAll() {
+    SubmissionIndexEntity.mergeAll(List.of(entity));
+    SubmissionIndexEntity.removeAll(List.of("redditdev", "all"));
+    
+    assertNull(PersistenceUtil.find(SubmissionIndexEntity.class, "redditdev"));
+  }
+}
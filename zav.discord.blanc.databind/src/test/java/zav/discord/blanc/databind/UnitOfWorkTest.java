@@ -0,0 +1,89 @@
+package zav.discord.blanc.databind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import zav.discord.blanc.databind.internal.PersistenceUtil;
+
+public class UnitOfWorkTest {
+  private static final long GUILD_ID = 1000L;
+  private static final int THREADS = 8;
+  
+  @AfterEach
+  public void tearDown() {
+    for (int i = 0; i < THREADS; ++i) {
+      PersistenceUtil.remove(GuildEntity.class, GUILD_ID + i);
+    }
+  }
+  
+  @Test
+  public void testCommit() {
+    try (UnitOfWork work = UnitOfWork.begin()) {
+      getEntity(GUILD_ID).merge();
+      
+      // Modifications are deferred until the unit is committed
+      assertNull(GuildEntity.find(GUILD_ID));
+      
+      work.commit();
+    }
+    
+    assertNotNull(GuildEntity.find(GUILD_ID));
+  }
+  
+  @Test
+  public void testRollback() {
+    try (UnitOfWork work = UnitOfWork.begin()) {
+      getEntity(GUILD_ID).merge();
+    }
+    
+    assertNull(GuildEntity.find(GUILD_ID));
+  }
+  
+  @Test
+  public void testNestedUnitOfWork() {
+    try (UnitOfWork work = UnitOfWork.begin()) {
+      assertThrows(IllegalStateException.class, UnitOfWork::begin);
+    }
+    
+    assertNull(UnitOfWork.current());
+  }
+  
+  @Test
+  public void testConcurrentMerge() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+    
+    try {
+      for (int i = 0; i < THREADS; ++i) {
+        GuildEntity entity = getEntity(GUILD_ID + i);
+        futures.add(executor.submit(entity::merge));
+      }
+      
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    
+    for (int i = 0; i < THREADS; ++i) {
+      assertEquals("Guild", GuildEntity.find(GUILD_ID + i).getName());
+    }
+  }
+  
+  private static GuildEntity getEntity(long guildId) {
+    GuildEntity entity = new GuildEntity();
+    entity.setId(guildId);
+    entity.setName("Guild");
+    return entity;
+  }
+}
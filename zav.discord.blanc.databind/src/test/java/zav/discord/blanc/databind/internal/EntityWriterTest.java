@@ -0,0 +1,55 @@
+package zav.discord.blanc.databind.internal;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EntityWriterTest {
+  EntityManagerFactory factory;
+  EntityManager entityManager;
+  EntityTransaction transaction;
+  EntityWriter writer;
+
+  @BeforeEach
+  public void setUp() {
+    factory = mock(EntityManagerFactory.class);
+    entityManager = mock(EntityManager.class);
+    transaction = mock(EntityTransaction.class);
+
+    when(factory.createEntityManager()).thenReturn(entityManager);
+    when(entityManager.getTransaction()).thenReturn(transaction);
+
+    writer = new EntityWriter(factory);
+  }
+
+  @Test
+  public void testWrite() {
+    writer.write(List.of(entityManager -> entityManager.merge("Hello There")));
+
+    verify(entityManager).merge("Hello There");
+    verify(transaction).commit();
+  }
+
+  /**
+   * Use Case: If the writer thread has terminated, callers must not wait for their changes forever.
+   */
+  @Test
+  public void testWriteTerminated() {
+    assertThrows(IllegalStateException.class, () -> writer.write(List.of(entityManager -> {
+      throw new AssertionError("General Kenobi");
+    })));
+
+    assertThrows(IllegalStateException.class, () -> writer.write(List.of()));
+
+    verify(transaction, times(0)).commit();
+  }
+}
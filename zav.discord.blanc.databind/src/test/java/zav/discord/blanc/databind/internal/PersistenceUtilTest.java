@@ -0,0 +1,77 @@
+package zav.discord.blanc.databind.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import zav.discord.blanc.databind.GuildEntity;
+import zav.discord.blanc.databind.SubmissionIndexEntity;
+
+public class PersistenceUtilTest {
+  private static final long GUILD_ID = 2000L;
+  private static final String SUBREDDIT = "redditdev";
+  
+  @AfterEach
+  public void tearDown() {
+    PersistenceUtil.remove(GuildEntity.class, GUILD_ID);
+    PersistenceUtil.remove(SubmissionIndexEntity.class, SUBREDDIT);
+  }
+  
+  @Test
+  public void testFindAbsentEntity() {
+    assertNull(PersistenceUtil.find(GuildEntity.class, GUILD_ID));
+    
+    long hits = getHits();
+    long misses = getMisses();
+    
+    // The absence of the entity is remembered
+    assertNull(PersistenceUtil.find(GuildEntity.class, GUILD_ID));
+    assertEquals(hits + 1, getHits());
+    assertEquals(misses, getMisses());
+  }
+  
+  @Test
+  public void testMergeAbsentEntity() {
+    assertNull(PersistenceUtil.find(GuildEntity.class, GUILD_ID));
+    
+    GuildEntity entity = new GuildEntity();
+    entity.setId(GUILD_ID);
+    entity.setName("Guild");
+    entity.merge();
+    
+    // The entity is written through the cache
+    assertNotNull(PersistenceUtil.find(GuildEntity.class, GUILD_ID));
+  }
+  
+  /**
+   * Use Case: Entities without associations can't create other entities, so writing them mustn't
+   * discard the absent entities of other types.
+   */
+  @Test
+  public void testMergeUnrelatedEntity() {
+    assertNull(PersistenceUtil.find(GuildEntity.class, GUILD_ID));
+    
+    SubmissionIndexEntity entity = new SubmissionIndexEntity();
+    entity.setSubreddit(SUBREDDIT);
+    entity.setName("t3_b");
+    PersistenceUtil.mergeAll(List.of(entity));
+    
+    long hits = getHits();
+    long misses = getMisses();
+    
+    assertNull(PersistenceUtil.find(GuildEntity.class, GUILD_ID));
+    assertEquals(hits + 1, getHits());
+    assertEquals(misses, getMisses());
+  }
+  
+  private static long getHits() {
+    return CacheStatistics.getAll().get(GuildEntity.class.getSimpleName()).getHits();
+  }
+  
+  private static long getMisses() {
+    return CacheStatistics.getAll().get(GuildEntity.class.getSimpleName()).getMisses();
+  }
+}
@@ -0,0 +1,33 @@
+package zav.discord.blanc.databind.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import zav.discord.blanc.databind.GuildEntity;
+
+public class QueryStatisticsTest {
+  
+  @Test
+  public void testRecord() {
+    QueryStatistics.record("TestEntity", "read", 10, false);
+    QueryStatistics.record("TestEntity", "read", 20, true);
+    
+    QueryStatistics statistics = QueryStatistics.getAll().get("TestEntity.read");
+    
+    assertEquals(2, statistics.getCount());
+    assertEquals(30, statistics.getTotalNanos());
+    assertEquals(1, statistics.getSlowCount());
+  }
+  
+  @Test
+  public void testProfiler() {
+    GuildEntity.find(Long.MAX_VALUE);
+    
+    QueryStatistics statistics = QueryStatistics.getAll().get("GuildEntity.read");
+    
+    assertNotNull(statistics);
+    assertTrue(statistics.getCount() > 0);
+  }
+}
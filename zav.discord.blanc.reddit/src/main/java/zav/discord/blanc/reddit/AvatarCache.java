@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import net.dv8tion.jda.api.EmbedBuilder;
+import org.apache.commons.text.StringEscapeUtils;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import zav.jrc.client.FailedRequestException;
+import zav.jrc.databind.SubredditEntity;
+import zav.jrc.endpoint.subreddit.Subreddit;
+
+/**
+ * Cache for the avatar URLs of all observed subreddits.<br>
+ * The avatar is shared by all webhooks observing the same subreddit, so it only has to be requested
+ * once instead of once per submission and webhook. Cached URLs are refreshed in the background
+ * after {@link #REFRESH_AFTER_WRITE}. If Reddit is unavailable during a refresh, the previous URL
+ * continues to be used. Subreddits which haven't been accessed for {@link #EXPIRE_AFTER_ACCESS}
+ * are evicted.<br>
+ * If a {@link RequestScheduler} has been set, the avatars are requested through the same scheduler
+ * as the submissions.
+ */
+@NonNullByDefault
+public final class AvatarCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AvatarCache.class);
+  private static final Duration REFRESH_AFTER_WRITE = Duration.ofHours(1);
+  private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofDays(1);
+  private static final int MAX_CACHE_SIZE = 4096;
+  private final LoadingCache<String, Optional<String>> cache;
+  private final Function<String, Subreddit> subreddits;
+  private volatile @Nullable RequestScheduler scheduler;
+
+  /**
+   * Creates a new cache instance.
+   *
+   * @param subreddits Creates the endpoint for the given subreddit name.
+   * @param executor The executor service over which the avatars are refreshed.
+   */
+  public AvatarCache(Function<String, Subreddit> subreddits, Executor executor) {
+    this(subreddits, executor, Ticker.systemTicker());
+  }
+
+  /*package*/ AvatarCache(Function<String, Subreddit> subreddits, Executor executor,
+        Ticker ticker) {
+    this.subreddits = subreddits;
+    this.cache = Caffeine.newBuilder()
+          .refreshAfterWrite(REFRESH_AFTER_WRITE)
+          .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+          .maximumSize(MAX_CACHE_SIZE)
+          .executor(executor)
+          .ticker(ticker)
+          .build(new Loader());
+  }
+
+  /**
+   * Throttles the requests to Reddit. Before an avatar is requested, a permit has to be acquired
+   * from the given scheduler.
+   *
+   * @param scheduler The scheduler through which all requests are sent.
+   */
+  public void setScheduler(RequestScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Returns the avatar URL of the given subreddit.<br>
+   * The subreddit name is {@code case-insensitive}.
+   *
+   * @param subreddit The subreddit name.
+   * @return The URL of the subreddit icon or {@code null}, if the subreddit doesn't have a valid
+   *     icon or if it couldn't be requested.
+   */
+  public @Nullable String get(String subreddit) {
+    return cache.get(subreddit.toLowerCase(Locale.ENGLISH)).orElse(null);
+  }
+
+  private @Nullable String request(String subreddit)
+        throws FailedRequestException, InterruptedException {
+    @Nullable RequestScheduler scheduler = this.scheduler;
+
+    if (scheduler != null) {
+      scheduler.acquire();
+    }
+
+    try {
+      SubredditEntity entity = subreddits.apply(subreddit).getAbout();
+
+      if (scheduler != null) {
+        scheduler.onSuccess();
+      }
+
+      return getAvatarUrl(entity);
+    } catch (FailedRequestException e) {
+      if (scheduler != null && SubredditObservable.isThrottled(e)) {
+        scheduler.onFailure();
+      }
+      throw e;
+    }
+  }
+
+  private static @Nullable String getAvatarUrl(SubredditEntity entity) {
+    String avatarUrl = StringEscapeUtils.unescapeHtml4(entity.getIconImage());
+
+    // Check icon image first
+    if (avatarUrl != null && EmbedBuilder.URL_PATTERN.matcher(avatarUrl).matches()) {
+      return avatarUrl;
+    }
+
+    avatarUrl = StringEscapeUtils.unescapeHtml4(entity.getCommunityIcon());
+
+    // Fall back to the community icon
+    if (avatarUrl != null && EmbedBuilder.URL_PATTERN.matcher(avatarUrl).matches()) {
+      return avatarUrl;
+    }
+
+    return null;
+  }
+
+  private final class Loader implements CacheLoader<String, Optional<String>> {
+    @Override
+    public Optional<String> load(String key) {
+      try {
+        return Optional.ofNullable(request(key));
+      } catch (FailedRequestException e) {
+        // Might be thrown when e.g. the subreddit is private or if Reddit is unavailable.
+        LOGGER.error(e.getMessage(), e);
+        return Optional.empty();
+      } catch (InterruptedException e) {
+        LOGGER.warn("Interrupted while waiting to request r/{}.", key, e);
+        Thread.currentThread().interrupt();
+        return Optional.empty();
+      }
+    }
+
+    @Override
+    public Optional<String> reload(String key, Optional<String> oldValue) {
+      try {
+        return Optional.ofNullable(request(key));
+      } catch (FailedRequestException e) {
+        // Keep the previous avatar until Reddit is available again.
+        LOGGER.warn(e.getMessage(), e);
+        return oldValue;
+      } catch (InterruptedException e) {
+        LOGGER.warn("Interrupted while waiting to request r/{}.", key, e);
+        Thread.currentThread().interrupt();
+        return oldValue;
+      }
+    }
+  }
+}
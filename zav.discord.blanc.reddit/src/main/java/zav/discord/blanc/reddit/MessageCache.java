@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import club.minnced.discord.webhook.send.WebhookEmbed;
+import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
+import club.minnced.discord.webhook.send.WebhookMessage;
+import club.minnced.discord.webhook.send.WebhookMessageBuilder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import zav.discord.blanc.reddit.internal.MessageUtils;
+import zav.jrc.databind.LinkEntity;
+
+/**
+ * Cache for the Discord messages of all received submissions.<br>
+ * A submission is usually forwarded to several text channels and webhooks. Rather than creating
+ * a new message for each of them, the message is created once and then shared by all listeners.
+ * <br>
+ * The submissions are weakly referenced, meaning the messages are discarded once the submission is
+ * no longer in use, i.e. after it has been forwarded to all listeners.
+ */
+@NonNullByDefault
+public final class MessageCache {
+  private final Cache<LinkEntity, Message> messages = Caffeine.newBuilder().weakKeys().build();
+  private final Cache<LinkEntity, WebhookMessage> webhookMessages = Caffeine.newBuilder()
+        .weakKeys()
+        .build();
+  private final Function<String, @Nullable String> avatars;
+
+  /**
+   * Creates a new cache instance.
+   *
+   * @param avatars Resolves the avatar URL of a given subreddit.
+   */
+  public MessageCache(Function<String, @Nullable String> avatars) {
+    this.avatars = avatars;
+  }
+
+  /**
+   * Returns the message which is sent to text channels.
+   *
+   * @param link A Reddit submission.
+   * @return A JDA message displaying the relevant link information.
+   */
+  public Message getMessage(LinkEntity link) {
+    return messages.get(link, MessageUtils::forLink);
+  }
+
+  /**
+   * Returns the message which is sent to webhooks. The subreddit icon is used as avatar.
+   *
+   * @param link A Reddit submission.
+   * @return A webhook message displaying the relevant link information.
+   */
+  public WebhookMessage getWebhookMessage(LinkEntity link) {
+    return webhookMessages.get(link, this::forLink);
+  }
+
+  private WebhookMessage forLink(LinkEntity link) {
+    @Nullable String subreddit = link.getSubreddit();
+
+    return new WebhookMessageBuilder()
+          .addEmbeds(transform(getMessage(link).getEmbeds()))
+          .setAvatarUrl(subreddit == null ? null : avatars.apply(subreddit))
+          .setUsername(null)
+          .build();
+  }
+
+  private static List<WebhookEmbed> transform(List<MessageEmbed> source) {
+    return source.stream()
+          .map(WebhookEmbedBuilder::fromJDA)
+          .map(WebhookEmbedBuilder::build)
+          .collect(Collectors.toUnmodifiableList());
+  }
+}
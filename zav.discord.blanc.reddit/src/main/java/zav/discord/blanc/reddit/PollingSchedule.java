@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Adaptive poll interval for each subreddit.<br>
+ * The average time between two submissions is estimated from the creation time of all forwarded
+ * submissions. Subreddits are then polled about as often as new submissions arrive, but never more
+ * often than the minimum and never less often than the maximum interval. Subreddits without any
+ * recent submissions are slowly moved towards the maximum interval.<br>
+ * In order to keep the batches stable, the interval is always the minimum interval multiplied by a
+ * power of two. Subreddits with the same multiplier (i.e. the same {@link #getTier(String) tier})
+ * are polled together. The tier of a subreddit is re-evaluated at most once per interval. A
+ * subreddit is only moved to a lower tier once its estimate has fallen below the next lower tier,
+ * so that subreddits close to the boundary of two tiers don't alternate between them.
+ */
+@NonNullByDefault
+public final class PollingSchedule {
+  /**
+   * The weight of the latest gap between two submissions in the estimated average.
+   */
+  private static final double SMOOTHING = 0.2;
+  private final Map<String, Rate> rates = new ConcurrentHashMap<>();
+  private final LongSupplier ticker;
+  private final long minInterval;
+  private final int maxTier;
+
+  /**
+   * Creates a new schedule instance.
+   *
+   * @param minInterval The interval for the most active subreddits.
+   * @param maxInterval The interval for the least active subreddits.
+   */
+  public PollingSchedule(Duration minInterval, Duration maxInterval) {
+    this(minInterval, maxInterval, System::currentTimeMillis);
+  }
+
+  /*package*/ PollingSchedule(Duration minInterval, Duration maxInterval, LongSupplier ticker) {
+    if (minInterval.isNegative() || minInterval.isZero()) {
+      throw new IllegalArgumentException();
+    }
+
+    if (maxInterval.compareTo(minInterval) < 0) {
+      throw new IllegalArgumentException();
+    }
+
+    this.ticker = ticker;
+    this.minInterval = minInterval.toMillis();
+
+    int tier = 0;
+
+    while (this.minInterval << (tier + 1) <= maxInterval.toMillis()) {
+      tier++;
+    }
+
+    this.maxTier = tier;
+  }
+
+  /**
+   * Updates the estimated rate of the subreddit a new submission has been posted in. Submissions
+   * have to be recorded from oldest to newest.
+   *
+   * @param subreddit The lower-case subreddit name.
+   * @param created The creation time of the submission.
+   */
+  public void record(String subreddit, Instant created) {
+    getRate(subreddit).record(created.toEpochMilli());
+  }
+
+  /**
+   * Returns the tier of the given subreddit. Subreddits of tier {@code n} are polled every
+   * {@code 2^n} minimum intervals.
+   *
+   * @param subreddit The lower-case subreddit name.
+   * @return A number between {@code 0} and the tier of the maximum interval.
+   */
+  public int getTier(String subreddit) {
+    return getRate(subreddit).getTier(ticker.getAsLong());
+  }
+
+  /**
+   * Returns the current poll interval of the given subreddit.
+   *
+   * @param subreddit The lower-case subreddit name.
+   * @return The poll interval.
+   */
+  public Duration getInterval(String subreddit) {
+    return Duration.ofMillis(minInterval << getTier(subreddit));
+  }
+
+  /**
+   * Discards the estimates of all subreddits which are no longer observed.
+   *
+   * @param subreddits The names of all observed subreddits.
+   */
+  public void retainAll(Collection<String> subreddits) {
+    rates.keySet().retainAll(subreddits);
+  }
+
+  /*package*/ long millis() {
+    return ticker.getAsLong();
+  }
+
+  private Rate getRate(String subreddit) {
+    return rates.computeIfAbsent(subreddit, k -> new Rate(ticker.getAsLong()));
+  }
+
+  private int getTier(long gap) {
+    int tier = 0;
+
+    while (tier < maxTier && minInterval << (tier + 1) <= gap) {
+      tier++;
+    }
+
+    return tier;
+  }
+
+  private final class Rate {
+    /**
+     * The time of the last submission or, if none has been seen, the time this subreddit was first
+     * scheduled.
+     */
+    private long since;
+    private long lastCreated = Long.MIN_VALUE;
+    private double averageGap = Double.NaN;
+    private int tier;
+    /**
+     * The time at which the tier has been evaluated for the last time.
+     */
+    private long evaluated;
+
+    private Rate(long now) {
+      this.since = now;
+      this.evaluated = now;
+    }
+
+    private synchronized void record(long created) {
+      // Ignore submissions which are older than the last one
+      if (lastCreated != Long.MIN_VALUE && created < lastCreated) {
+        return;
+      }
+
+      if (lastCreated != Long.MIN_VALUE) {
+        long gap = created - lastCreated;
+        averageGap = Double.isNaN(averageGap) ? gap : averageGap + SMOOTHING * (gap - averageGap);
+      }
+
+      lastCreated = created;
+      since = created;
+    }
+
+    private synchronized int getTier(long now) {
+      // Otherwise quiet subreddits would drift from tier to tier
+      if (now - evaluated < minInterval << tier) {
+        return tier;
+      }
+
+      long gap = getGap(now);
+      int target = PollingSchedule.this.getTier(gap);
+
+      if (target > tier) {
+        tier = target;
+      } else if (PollingSchedule.this.getTier(2 * gap) < tier) {
+        tier = PollingSchedule.this.getTier(2 * gap);
+      }
+
+      evaluated = now;
+      return tier;
+    }
+
+    private long getGap(long now) {
+      // The subreddit has been quiet for longer than usual
+      long quiet = now - since;
+      return Double.isNaN(averageGap) ? quiet : Math.max((long) averageGap, quiet);
+    }
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Token bucket which limits the number of requests that are sent to Reddit.<br>
+ * Permits are handed out at a fixed rate, so that the requests are spread evenly across the
+ * given period instead of being sent in a single burst. Each call to {@link #acquire()} reserves
+ * the next free slot and blocks until this slot has been reached.<br>
+ * After a request has been rejected because of the rate limit or a server error,
+ * {@link #onFailure()} pauses all subsequent requests with an exponentially increasing delay.
+ */
+@NonNullByDefault
+public final class RequestScheduler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RequestScheduler.class);
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+  private final LongSupplier ticker;
+  private final long interval;
+  private final double maxPermits;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder totalWait = new LongAdder();
+  private final AtomicLong maxWait = new AtomicLong();
+  private long nextFree;
+  private long backoff;
+  private double storedPermits;
+
+  /**
+   * Creates a new scheduler which hands out at most {@code permits} permits per {@code period}.
+   * Up to {@code burst} permits may be accumulated while the scheduler is idle.
+   *
+   * @param permits The number of requests per period.
+   * @param period The period over which the requests are spread.
+   * @param burst The maximum number of requests that may be sent without delay.
+   */
+  public RequestScheduler(int permits, Duration period, int burst) {
+    this(permits, period, burst, System::nanoTime);
+  }
+
+  /*package*/ RequestScheduler(int permits, Duration period, int burst, LongSupplier ticker) {
+    if (permits <= 0 || burst < 0 || period.isNegative() || period.isZero()) {
+      throw new IllegalArgumentException();
+    }
+
+    this.ticker = ticker;
+    this.interval = period.toNanos() / permits;
+    this.maxPermits = burst;
+    this.nextFree = ticker.getAsLong();
+  }
+
+  /**
+   * Blocks until the next request may be sent.
+   *
+   * @throws InterruptedException If the thread has been interrupted while waiting.
+   */
+  public void acquire() throws InterruptedException {
+    queued.incrementAndGet();
+
+    try {
+      long wait = reserve();
+
+      try {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      } catch (InterruptedException e) {
+        // Otherwise the slot would be lost to all subsequent requests
+        cancel();
+        throw e;
+      }
+    } finally {
+      queued.decrementAndGet();
+    }
+  }
+
+  /**
+   * Pauses all requests after a request has been rejected because of the rate limit or a server
+   * error. Consecutive failures double the delay, up to a maximum of five minutes.
+   */
+  public synchronized void onFailure() {
+    long now = ticker.getAsLong();
+    resync(now);
+
+    backoff = Math.min(Math.max(2 * backoff, interval), MAX_BACKOFF.toNanos());
+    storedPermits = 0;
+    nextFree = Math.max(nextFree, now + backoff);
+
+    LOGGER.warn("Request failed. Pause requests for {}ms.", TimeUnit.NANOSECONDS.toMillis(backoff));
+  }
+
+  /**
+   * Resets the back-off after a successful request.
+   */
+  public synchronized void onSuccess() {
+    backoff = 0;
+  }
+
+  /**
+   * Returns the number of threads which are currently waiting for a permit.
+   *
+   * @return The current queue depth.
+   */
+  public int getQueueDepth() {
+    return queued.get();
+  }
+
+  /**
+   * Returns the average time a request had to wait for its permit.
+   *
+   * @return The average wait time over all requests.
+   */
+  public Duration getAverageWait() {
+    long count = requests.sum();
+    return count == 0 ? Duration.ZERO : Duration.ofNanos(totalWait.sum() / count);
+  }
+
+  /**
+   * Returns the longest time a request had to wait for its permit.
+   *
+   * @return The maximum wait time over all requests.
+   */
+  public Duration getMaxWait() {
+    return Duration.ofNanos(maxWait.get());
+  }
+
+  /**
+   * Reserves the next free slot.
+   *
+   * @return The time in nanoseconds until the reserved slot has been reached.
+   */
+  /*package*/ long reserve() {
+    long wait;
+
+    synchronized (this) {
+      long now = ticker.getAsLong();
+      resync(now);
+
+      wait = Math.max(nextFree - now, 0);
+
+      // Accumulated permits can be used immediately
+      double fromStored = Math.min(1.0, storedPermits);
+      storedPermits -= fromStored;
+      nextFree += (long) ((1.0 - fromStored) * interval);
+    }
+
+    requests.increment();
+    totalWait.add(wait);
+    maxWait.accumulateAndGet(wait, Math::max);
+
+    return wait;
+  }
+
+  private synchronized void cancel() {
+    nextFree = Math.max(ticker.getAsLong(), nextFree - interval);
+  }
+
+  private void resync(long now) {
+    if (now > nextFree) {
+      storedPermits = Math.min(maxPermits, storedPermits + (double) (now - nextFree) / interval);
+      nextFree = now;
+    }
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import zav.discord.blanc.databind.SubmissionIndexEntity;
+import zav.jrc.databind.LinkEntity;
+
+/**
+ * Index over the newest submission that has been forwarded for each subreddit.<br>
+ * Reddit ids are base-36 numbers which are assigned in ascending order. A submission is therefore
+ * only forwarded if its id is larger than the id of the last forwarded submission. The index is
+ * written to the database via {@link #save()} and restored via {@link #load()}, so that already
+ * forwarded submissions are not forwarded again after a restart.<br>
+ * Note that the index only suppresses duplicates. The listings are always requested from the newest
+ * submission on, so submissions which have been posted while the application was offline are only
+ * forwarded if they are still part of the first listing.<br>
+ * Entries of subreddits which are no longer observed are only discarded after a grace period, so
+ * that a subreddit which is briefly without listeners keeps its entry.
+ */
+@NonNullByDefault
+public final class SubmissionIndex {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubmissionIndex.class);
+  private static final String LINK_PREFIX = "t3_";
+  private static final Duration GRACE_PERIOD = Duration.ofHours(1);
+  private final Map<String, Mark> marks = new ConcurrentHashMap<>();
+  private final Set<String> modified = ConcurrentHashMap.newKeySet();
+  private final Set<String> removed = ConcurrentHashMap.newKeySet();
+  private final Map<String, Long> missing = new ConcurrentHashMap<>();
+  private final LongSupplier ticker;
+  
+  /**
+   * Creates a new instance of this class.
+   */
+  public SubmissionIndex() {
+    this(System::nanoTime);
+  }
+  
+  /*package*/ SubmissionIndex(LongSupplier ticker) {
+    this.ticker = ticker;
+  }
+  
+  /**
+   * Restores the index from the database. Entries which are newer than the persisted ones are
+   * kept.
+   */
+  public void load() {
+    List<SubmissionIndexEntity> entities = SubmissionIndexEntity.findAll();
+    
+    for (SubmissionIndexEntity entity : entities) {
+      // Skip corrupted entries
+      if (parseSequence(entity.getName()) >= 0) {
+        marks.merge(entity.getSubreddit(), new Mark(entity), Mark::max);
+      }
+    }
+    
+    LOGGER.info("Restored the newest submission of {} subreddit(s).", entities.size());
+  }
+  
+  /**
+   * Writes all entries which have changed since the last call to the database. Nothing is written
+   * if no new submissions have been forwarded. Entries of subreddits which are no longer observed
+   * are removed from the database.<br>
+   * If the database can't be written, the entries are kept and written with the next call.
+   */
+  public void save() {
+    List<String> subreddits = List.copyOf(removed);
+    removed.removeAll(subreddits);
+    
+    if (!subreddits.isEmpty()) {
+      try {
+        SubmissionIndexEntity.removeAll(subreddits);
+      } catch (RuntimeException e) {
+        // Subreddits which have been updated in the meantime must not be removed
+        subreddits.stream()
+              .filter(subreddit -> !marks.containsKey(subreddit))
+              .forEach(removed::add);
+        throw e;
+      }
+      LOGGER.debug("Removed the newest submission of {} subreddit(s).", subreddits.size());
+    }
+    
+    List<String> changes = List.copyOf(modified);
+    List<SubmissionIndexEntity> entities = new ArrayList<>();
+    modified.removeAll(changes);
+    
+    for (String subreddit : changes) {
+      @Nullable Mark mark = marks.get(subreddit);
+      
+      if (mark != null) {
+        entities.add(mark.toEntity(subreddit));
+      }
+    }
+    
+    if (!entities.isEmpty()) {
+      try {
+        SubmissionIndexEntity.mergeAll(entities);
+      } catch (RuntimeException e) {
+        // Subreddits which have been discarded in the meantime must not be written
+        changes.stream().filter(marks::containsKey).forEach(modified::add);
+        throw e;
+      }
+      LOGGER.debug("Updated the newest submission of {} subreddit(s).", entities.size());
+    }
+  }
+  
+  /**
+   * Discards the entries of all subreddits which haven't been observed for longer than the grace
+   * period. They are removed from the database with the next call to {@link #save()}.
+   *
+   * @param subreddits The lower-case names of all observed subreddits.
+   */
+  public void retainAll(Collection<String> subreddits) {
+    long now = ticker.getAsLong();
+    
+    missing.keySet().removeIf(subreddit -> subreddits.contains(subreddit)
+          || !marks.containsKey(subreddit));
+    
+    for (String subreddit : List.copyOf(marks.keySet())) {
+      if (subreddits.contains(subreddit)) {
+        continue;
+      }
+      
+      long since = missing.computeIfAbsent(subreddit, key -> now);
+      
+      if (now - since >= GRACE_PERIOD.toNanos()) {
+        marks.remove(subreddit);
+        modified.remove(subreddit);
+        missing.remove(subreddit);
+        removed.add(subreddit);
+      }
+    }
+  }
+  
+  /**
+   * Updates the index with the given submission.
+   *
+   * @param link A Reddit submission.
+   * @return {@code false}, if the submission is not newer than the last forwarded submission of
+   *     its subreddit.
+   */
+  public boolean update(LinkEntity link) {
+    String subreddit = Objects.toString(link.getSubreddit()).toLowerCase(Locale.ENGLISH);
+    long sequence = getSequence(link);
+    
+    // Submissions without a valid id are always forwarded
+    if (sequence < 0) {
+      return true;
+    }
+    
+    @Nullable Mark mark = marks.get(subreddit);
+    
+    if (mark != null && sequence <= mark.sequence) {
+      return false;
+    }
+    
+    marks.merge(subreddit, new Mark(sequence), Mark::max);
+    modified.add(subreddit);
+    removed.remove(subreddit);
+    missing.remove(subreddit);
+    return true;
+  }
+  
+  /**
+   * Returns the numerical value of the submission id.
+   *
+   * @param link A Reddit submission.
+   * @return The numerical value of the submission id or {@code -1}, if the id is not valid.
+   */
+  public static long getSequence(LinkEntity link) {
+    return parseSequence(link.getId());
+  }
+  
+  private static long parseSequence(@Nullable String id) {
+    if (id == null) {
+      return -1;
+    }
+    
+    if (id.startsWith(LINK_PREFIX)) {
+      id = id.substring(LINK_PREFIX.length());
+    }
+    
+    try {
+      return Long.parseLong(id, Character.MAX_RADIX);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+  
+  /*package*/ @Nullable String getName(String subreddit) {
+    @Nullable Mark mark = marks.get(subreddit.toLowerCase(Locale.ENGLISH));
+    return mark == null ? null : mark.name;
+  }
+  
+  private static final class Mark {
+    private final String name;
+    private final long sequence;
+    
+    private Mark(SubmissionIndexEntity entity) {
+      this.name = entity.getName();
+      this.sequence = parseSequence(entity.getName());
+    }
+    
+    private Mark(long sequence) {
+      this.name = LINK_PREFIX + Long.toString(sequence, Character.MAX_RADIX);
+      this.sequence = sequence;
+    }
+    
+    private SubmissionIndexEntity toEntity(String subreddit) {
+      SubmissionIndexEntity entity = new SubmissionIndexEntity();
+      entity.setSubreddit(subreddit);
+      entity.setName(name);
+      return entity;
+    }
+    
+    private static Mark max(Mark left, Mark right) {
+      return left.sequence >= right.sequence ? left : right;
+    }
+  }
+}
@@ -16,20 +16,39 @@
 
 package zav.discord.blanc.reddit;
 
-import club.minnced.discord.webhook.WebhookClientBuilder;
 import club.minnced.discord.webhook.external.JDAWebhookClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import net.dv8tion.jda.api.entities.TextChannel;
 import net.dv8tion.jda.api.entities.Webhook;
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import zav.jrc.client.Client;
 import zav.jrc.client.FailedRequestException;
+import zav.jrc.databind.LinkEntity;
 import zav.jrc.endpoint.subreddit.Subreddit;
+import zav.jrc.listener.SubredditListener;
+import zav.jrc.listener.event.LinkEvent;
 import zav.jrc.listener.observable.AbstractSubredditObservable;
 import zav.jrc.listener.observer.SubredditObserver;
 
@@ -38,14 +57,58 @@ import zav.jrc.listener.observer.SubredditObserver;
  * New listeners can be added and remove via the {@code addListener} and {@code removeListener}
  * methods. A new update can be triggered via {@code notifyAllObservers}, which will check all
  * registered subreddits for updates and notify their corresponding listeners.<br>
- * Each webhook and text channel can only have a single listener for a subreddit.
+ * Each webhook and text channel can only have a single listener for a subreddit.<br>
+ * Via {@link #setBatchLimits(int, int)}, multiple subreddits can be combined into a single
+ * request (e.g. {@code r/a+b+c}). The received submissions are then distributed to the listeners
+ * of the subreddit they have been posted in. For each subreddit, the id of the latest submission is
+ * remembered in the {@link SubmissionIndex}, so that a submission is never forwarded twice, even if
+ * the batches are regrouped or the application is restarted.<br>
+ * By default, all subreddits are checked one after another. Via {@link #setWorkers(ExecutorService,
+ * int, Duration)}, the observers can instead be distributed over a worker pool.<br>
+ * By default, all subreddits are checked with every call to {@link #notifyAllObservers()}. Via
+ * {@link #setPollingSchedule(PollingSchedule)}, each subreddit is only checked once its poll
+ * interval has elapsed. In this case, {@link #notifyAllObservers()} should be called more often
+ * than the minimum interval.
  */
 @NonNullByDefault
 public final class SubredditObservable extends AbstractSubredditObservable {
   private static final Logger LOGGER = LoggerFactory.getLogger(SubredditObservable.class);
-  private final Map<String, SubredditObserver> observers = new ConcurrentHashMap<>();
-  private final ScheduledExecutorService pool;
-  private final Client client;
+  private static final int MAX_IN_FLIGHT = 2;
+  private static final int MAX_QUEUED = 100;
+  private static final int TOO_MANY_REQUESTS = 429;
+  private static final int SERVER_ERROR = 500;
+  /**
+   * Tolerance for deciding whether a poll interval has elapsed. Without it, a subreddit might be
+   * skipped for an entire cycle if it was checked a few milliseconds too early.
+   */
+  private static final long SLACK = TimeUnit.SECONDS.toMillis(1);
+  private final Map<String, Set<SubredditListener>> listeners = new ConcurrentHashMap<>();
+  private final Map<String, Batch> observers = new ConcurrentHashMap<>();
+  private final SubmissionIndex index = new SubmissionIndex();
+  private final Set<String> pending = ConcurrentHashMap.newKeySet();
+  /**
+   * The subreddits of each batch, grouped by tier. Subreddits are kept in their batch across poll
+   * cycles, so that the batches don't have to be regrouped whenever a subreddit is added.
+   */
+  private Map<Integer, List<List<String>>> groups = Map.of();
+  /**
+   * The time at which each subreddit has been polled for the last time. It is tracked per subreddit
+   * rather than per batch, so that it is retained when the subreddit is moved to another batch.
+   */
+  private final Map<String, Long> lastPolls = new ConcurrentHashMap<>();
+  private final MessageCache messages;
+  private final TextChannelQueue queue;
+  private final AvatarCache avatars;
+  private final WebhookQueue webhooks = new WebhookQueue(MAX_QUEUED);
+  private final WebhookClientRegistry clients;
+  private @Nullable ExecutorService workers;
+  private @Nullable RequestScheduler scheduler;
+  private @Nullable PollingSchedule schedule;
+  private Semaphore requests = new Semaphore(Integer.MAX_VALUE);
+  private Duration timeout = Duration.ZERO;
+  private volatile Duration lastCycle = Duration.ZERO;
+  private volatile int maxSubreddits = 1;
+  private volatile int maxLength = Integer.MAX_VALUE;
   
   /**
    * Creates a new observable instance.
@@ -55,8 +118,82 @@ public final class SubredditObservable extends AbstractSubredditObservable {
    */
   public SubredditObservable(Client client, ScheduledExecutorService pool) {
     super(client);
-    this.client = client;
-    this.pool = pool;
+    this.avatars = new AvatarCache(name -> new Subreddit(client, name), pool);
+    this.messages = new MessageCache(avatars::get);
+    this.clients = new WebhookClientRegistry(pool);
+    this.queue = new TextChannelQueue(MAX_IN_FLIGHT, MAX_QUEUED, (channel, e) -> {
+      // Failing to notify this channel shouldn't prevent notifications in other channels.
+      LOGGER.error("Failed to notify channel {}.", channel.getIdLong(), e);
+    });
+  }
+  
+  /**
+   * Combines multiple subreddits into a single request. A batch contains at most
+   * {@code maxSubreddits} subreddits and the combined name (e.g. {@code a+b+c}) is at most
+   * {@code maxLength} characters long. Subreddits whose name exceed this length are always
+   * requested on their own.<br>
+   * Note that Reddit only returns a limited number of submissions per request. Batches should
+   * therefore be small enough that not more submissions are posted across all of its subreddits
+   * between two poll cycles.
+   *
+   * @param maxSubreddits The maximum number of subreddits per request.
+   * @param maxLength The maximum length of the combined subreddit names.
+   */
+  public void setBatchLimits(int maxSubreddits, int maxLength) {
+    this.maxSubreddits = maxSubreddits;
+    this.maxLength = maxLength;
+  }
+  
+  /**
+   * Enables the adaptive poll mode. Instead of checking all subreddits in every cycle, each
+   * subreddit is only checked once its poll interval has elapsed. The interval depends on how
+   * often new submissions are posted in this subreddit.
+   *
+   * @param schedule The poll interval of each subreddit.
+   */
+  public void setPollingSchedule(PollingSchedule schedule) {
+    this.schedule = schedule;
+  }
+  
+  /**
+   * Enables the parallel poll mode. Instead of checking one subreddit after another, each observer
+   * is submitted to the given executor, while at most {@code maxRequests} observers may request
+   * Reddit at the same time.<br>
+   * A poll cycle ends once all observers have been notified or the timeout has elapsed, whichever
+   * comes first. Observers which are still running at this point are cancelled. Observers which
+   * don't react to being cancelled are skipped until they have finished, so that a single slow
+   * subreddit never delays the remaining subreddits.
+   *
+   * @param workers The executor service over which the subreddits are checked.
+   * @param maxRequests The maximum number of concurrent requests to Reddit.
+   * @param timeout The maximum duration of a single poll cycle.
+   */
+  public void setWorkers(ExecutorService workers, int maxRequests, Duration timeout) {
+    this.workers = workers;
+    this.requests = new Semaphore(maxRequests);
+    this.timeout = timeout;
+  }
+  
+  /**
+   * Throttles the requests to Reddit. Before a subreddit is checked, a permit has to be acquired
+   * from the given scheduler. Requests which failed because of the rate limit or a server error
+   * cause the scheduler to back off. The subreddit avatars are requested through the same
+   * scheduler.
+   *
+   * @param scheduler The scheduler through which all requests are sent.
+   */
+  public void setScheduler(RequestScheduler scheduler) {
+    this.scheduler = scheduler;
+    this.avatars.setScheduler(scheduler);
+  }
+  
+  /**
+   * Returns how long it took to check all registered subreddits during the last poll cycle.
+   *
+   * @return The duration of the last call to {@link #notifyAllObservers()}.
+   */
+  public Duration getLastCycleDuration() {
+    return lastCycle;
   }
   
   /**
@@ -71,10 +208,7 @@ public final class SubredditObservable extends AbstractSubredditObservable {
    */
   @Deprecated
   public boolean addListener(String subreddit, TextChannel textChannel) {
-    subreddit = subreddit.toLowerCase(Locale.ENGLISH);
-    
-    return getObservers().computeIfAbsent(subreddit, this::getObserver)
-          .addListener(new TextChannelSubredditListener(textChannel));
+    return addListener(subreddit, getListener(textChannel));
   }
   
   /**
@@ -88,10 +222,18 @@ public final class SubredditObservable extends AbstractSubredditObservable {
    * @return {@code true}, if a new listener was created.
    */
   public boolean addListener(String subreddit, Webhook webhook) {
-    subreddit = subreddit.toLowerCase(Locale.ENGLISH);
+    JDAWebhookClient client = clients.acquire(webhook);
+    webhooks.register(client);
+    
+    WebhookSubredditListener listener = new WebhookSubredditListener(messages, webhooks, client);
+    boolean modified = addListener(subreddit, listener);
     
-    return getObservers().computeIfAbsent(subreddit, this::getObserver)
-          .addListener(getListener(subreddit, webhook));
+    // The webhook already observes this subreddit
+    if (!modified) {
+      releaseClient(webhook.getIdLong());
+    }
+    
+    return modified;
   }
   
   /**
@@ -104,18 +246,14 @@ public final class SubredditObservable extends AbstractSubredditObservable {
    * @return {@code true}, if a listener has been removed.
    */
   public boolean removeListener(String subreddit, Webhook webhook) {
-    subreddit = subreddit.toLowerCase(Locale.ENGLISH);
-  
-    SubredditObserver observer = getObservers().get(subreddit);
-    
-    if (observer == null) {
-      return false;
-    }
+    long webhookId = webhook.getIdLong();
     
-    boolean modified = observer.removeListener(getListener(subreddit, webhook));
+    boolean modified = removeListener(subreddit, listener ->
+          listener instanceof WebhookSubredditListener
+          && ((WebhookSubredditListener) listener).getId() == webhookId);
     
-    if (observer.size() == 0) {
-      getObservers().remove(subreddit);
+    if (modified) {
+      releaseClient(webhookId);
     }
     
     return modified;
@@ -133,21 +271,35 @@ public final class SubredditObservable extends AbstractSubredditObservable {
    */
   @Deprecated
   public boolean removeListener(String subreddit, TextChannel textChannel) {
-    subreddit = subreddit.toLowerCase(Locale.ENGLISH);
-    
-    SubredditObserver observer = getObservers().get(subreddit);
+    return removeListener(subreddit, getListener(textChannel));
+  }
+  
+  /*package*/ boolean addListener(String subreddit, SubredditListener listener) {
+    boolean[] modified = new boolean[1];
     
-    if (observer == null) {
-      return false;
-    }
+    listeners.compute(subreddit.toLowerCase(Locale.ENGLISH), (key, value) -> {
+      Set<SubredditListener> result = value == null ? ConcurrentHashMap.newKeySet() : value;
+      modified[0] = result.add(listener);
+      return result;
+    });
     
-    boolean modified = observer.removeListener(new TextChannelSubredditListener(textChannel));
+    return modified[0];
+  }
+  
+  /*package*/ boolean removeListener(String subreddit, SubredditListener listener) {
+    return removeListener(subreddit, listener::equals);
+  }
+  
+  private boolean removeListener(String subreddit, Predicate<SubredditListener> filter) {
+    boolean[] modified = new boolean[1];
     
-    if (observer.size() == 0) {
-      getObservers().remove(subreddit);
-    }
+    listeners.computeIfPresent(subreddit.toLowerCase(Locale.ENGLISH), (key, value) -> {
+      modified[0] = value.removeIf(filter);
+      // Subreddits without listeners are no longer requested
+      return value.isEmpty() ? null : value;
+    });
     
-    return modified;
+    return modified[0];
   }
   
   /**
@@ -155,27 +307,374 @@ public final class SubredditObservable extends AbstractSubredditObservable {
    * listeners.
    */
   public void notifyAllObservers() {
-    for (SubredditObserver observer : getObservers().values()) {
+    long start = System.nanoTime();
+    
+    List<String> batches = getBatches();
+    
+    // Discard all batches which have been regrouped
+    getObservers().keySet().retainAll(new HashSet<>(batches));
+    // Subreddits without listeners are no longer requested
+    index.retainAll(listeners.keySet());
+    
+    List<String> due = getDueBatches(batches);
+    int subreddits = 0;
+    
+    for (String batch : due) {
+      subreddits += getObservers().computeIfAbsent(batch, Batch::new).subreddits.size();
+    }
+    
+    @Nullable ExecutorService workers = this.workers;
+    
+    if (workers == null) {
+      for (String batch : due) {
+        notifyObserver(batch, getObservers().computeIfAbsent(batch, Batch::new));
+      }
+    } else {
+      notifyAllObservers(workers, due);
+    }
+    
+    // Submissions for the same webhook are combined when sent together
+    webhooks.flush();
+    
+    lastCycle = Duration.ofNanos(System.nanoTime() - start);
+    LOGGER.info("Checked {} of {} subreddit(s) with {} request(s) in {}ms.",
+          subreddits, listeners.size(), due.size(), lastCycle.toMillis());
+    LOGGER.info("Webhooks: {} delivered, {} queued, {} dropped.",
+          webhooks.getDelivered(), webhooks.getQueued(), webhooks.getDropped());
+    
+    @Nullable RequestScheduler scheduler = this.scheduler;
+    
+    if (scheduler != null) {
+      LOGGER.info("Request queue: {} waiting, {}ms average wait, {}ms max wait.",
+            scheduler.getQueueDepth(),
+            scheduler.getAverageWait().toMillis(),
+            scheduler.getMaxWait().toMillis());
+    }
+  }
+  
+  private void notifyAllObservers(ExecutorService workers, List<String> batches) {
+    List<Callable<Void>> tasks = new ArrayList<>();
+    
+    for (String batch : batches) {
+      Batch observer = getObservers().computeIfAbsent(batch, Batch::new);
+      
+      tasks.add(() -> {
+        notifyObserverAsync(batch, observer);
+        return null;
+      });
+    }
+    
+    try {
+      workers.invokeAll(tasks, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      LOGGER.warn(e.getMessage(), e);
+      Thread.currentThread().interrupt();
+    }
+  }
+  
+  private void notifyObserverAsync(String batch, Batch observer) throws InterruptedException {
+    // The observer from a previous cycle is still running
+    if (!pending.add(batch)) {
+      LOGGER.warn("Subreddit r/{} is still being checked. Skip...", batch);
+      return;
+    }
+    
+    try {
+      requests.acquire();
+      
       try {
-        observer.notifyAllListeners();
-      } catch (FailedRequestException e) {
-        LOGGER.error(e.getMessage(), e);
+        notifyObserver(batch, observer);
+      } finally {
+        requests.release();
       }
+    } finally {
+      pending.remove(batch);
     }
   }
   
-  private WebhookSubredditListener getListener(String subredditName, Webhook webhook) {
-    Subreddit subreddit = new Subreddit(client, subredditName);
+  private void notifyObserver(String batch, Batch observer) {
+    @Nullable RequestScheduler scheduler = this.scheduler;
     
-    // client.close() should be ignored as the pool is shared across the entire application
-    JDAWebhookClient client = WebhookClientBuilder.fromJDA(webhook)
-          .setExecutorService(pool)
-          .buildJDA();
+    try {
+      if (scheduler != null) {
+        scheduler.acquire();
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted while waiting to check r/{}.", batch, e);
+      Thread.currentThread().interrupt();
+      return;
+    }
     
-    return new WebhookSubredditListener(subreddit, client);
+    try {
+      observer.poll();
+      
+      if (scheduler != null) {
+        scheduler.onSuccess();
+      }
+    } catch (FailedRequestException e) {
+      if (isThrottled(e)) {
+        LOGGER.error("Failed to check r/{}.", batch, e);
+        
+        if (scheduler != null) {
+          scheduler.onFailure();
+        }
+      } else {
+        // E.g. a banned, private or misspelled subreddit, which doesn't affect any other request
+        LOGGER.warn("Failed to check r/{}: {}", batch, e.getMessage());
+      }
+    } catch (RuntimeException e) {
+      // Failing to check this subreddit shouldn't prevent checking the other subreddits.
+      LOGGER.error("Failed to check r/{}.", batch, e);
+    }
+  }
+  
+  /**
+   * Checks whether the request has been rejected because of the rate limit or a server error. In
+   * this case, all subsequent requests are likely to fail as well. Requests which failed without
+   * any response, e.g. because of a timeout, are treated the same way.
+   *
+   * @param e The exception thrown by a failed request.
+   * @return {@code true}, if all requests should back off.
+   */
+  /*package*/ static boolean isThrottled(FailedRequestException e) {
+    int errorCode = e.getErrorCode();
+    return errorCode <= 0 || errorCode == TOO_MANY_REQUESTS || errorCode >= SERVER_ERROR;
   }
   
-  /*package*/ Map<String, SubredditObserver> getObservers() {
+  /**
+   * Groups all registered subreddits into batches. If a {@link PollingSchedule} is used, only
+   * subreddits of the same tier are grouped together.<br>
+   * Subreddits remain in the batch they have been assigned to, as long as they are observed and
+   * their tier doesn't change. New subreddits are added to the first batch of their tier which has
+   * room left, so that adding or removing a subreddit only affects a single batch. Batches which
+   * exceed the current limits are split.
+   *
+   * @return The combined names of all batches.
+   */
+  /*package*/ synchronized List<String> getBatches() {
+    @Nullable PollingSchedule schedule = this.schedule;
+    Map<String, Integer> tiers = new HashMap<>();
+    
+    for (String subreddit : listeners.keySet()) {
+      tiers.put(subreddit, schedule == null ? 0 : schedule.getTier(subreddit));
+    }
+    
+    Map<Integer, List<List<String>>> result = new TreeMap<>();
+    Set<String> assigned = new HashSet<>();
+    
+    for (Map.Entry<Integer, List<List<String>>> entry : groups.entrySet()) {
+      for (List<String> group : entry.getValue()) {
+        List<String> subreddits = new ArrayList<>();
+        
+        for (String subreddit : group) {
+          if (entry.getKey().equals(tiers.get(subreddit))) {
+            subreddits.add(subreddit);
+          }
+        }
+        
+        if (!subreddits.isEmpty()) {
+          result.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).addAll(split(subreddits));
+          assigned.addAll(subreddits);
+        }
+      }
+    }
+    
+    List<String> unassigned = new ArrayList<>(tiers.keySet());
+    unassigned.removeAll(assigned);
+    Collections.sort(unassigned);
+    
+    for (String subreddit : unassigned) {
+      add(result.computeIfAbsent(tiers.get(subreddit), k -> new ArrayList<>()), subreddit);
+    }
+    
+    groups = result;
+    
+    List<String> batches = new ArrayList<>();
+    
+    for (List<List<String>> tier : result.values()) {
+      for (List<String> group : tier) {
+        batches.add(String.join("+", group));
+      }
+    }
+    
+    return batches;
+  }
+  
+  private void add(List<List<String>> tier, String subreddit) {
+    for (List<String> group : tier) {
+      if (canAdd(group, subreddit)) {
+        group.add(subreddit);
+        Collections.sort(group);
+        return;
+      }
+    }
+    
+    tier.add(new ArrayList<>(List.of(subreddit)));
+  }
+  
+  private List<List<String>> split(List<String> subreddits) {
+    List<List<String>> result = new ArrayList<>();
+    List<String> group = new ArrayList<>();
+    
+    for (String subreddit : subreddits) {
+      if (!group.isEmpty() && !canAdd(group, subreddit)) {
+        result.add(group);
+        group = new ArrayList<>();
+      }
+      
+      group.add(subreddit);
+    }
+    
+    result.add(group);
+    return result;
+  }
+  
+  /**
+   * Checks whether the subreddit can be added to the batch without exceeding the batch limits.
+   * Subreddits whose name exceed the maximum length are always requested on their own.
+   */
+  private boolean canAdd(List<String> group, String subreddit) {
+    int length = String.join("+", group).length() + subreddit.length() + 1;
+    return group.size() < maxSubreddits && length <= maxLength;
+  }
+  
+  /**
+   * Returns all batches whose poll interval has elapsed. Those batches are considered to be polled
+   * at the current time.
+   *
+   * @param batches The combined names of all batches.
+   * @return The combined names of all batches which should be polled in this cycle.
+   */
+  private List<String> getDueBatches(List<String> batches) {
+    @Nullable PollingSchedule schedule = this.schedule;
+    
+    if (schedule == null) {
+      return batches;
+    }
+    
+    schedule.retainAll(listeners.keySet());
+    lastPolls.keySet().retainAll(listeners.keySet());
+    
+    long now = schedule.millis();
+    List<String> result = new ArrayList<>();
+    
+    for (String batch : batches) {
+      Batch observer = getObservers().computeIfAbsent(batch, Batch::new);
+      // All subreddits of a batch share the same tier
+      long interval = schedule.getInterval(observer.subreddits.get(0)).toMillis();
+      long lastPoll = 0;
+      
+      // Subreddits which have been moved to this batch keep their last poll
+      for (String subreddit : observer.subreddits) {
+        lastPoll = Math.max(lastPoll, lastPolls.getOrDefault(subreddit, 0L));
+      }
+      
+      if (lastPoll == 0 || now - lastPoll + SLACK >= interval) {
+        observer.subreddits.forEach(subreddit -> lastPolls.put(subreddit, now));
+        result.add(batch);
+      }
+    }
+    
+    return result;
+  }
+  
+  /**
+   * Forwards the submissions received from a batch to the listeners of their subreddits. The
+   * submissions are forwarded from oldest to newest. Submissions which are not newer than the last
+   * submission forwarded for a subreddit are ignored.
+   *
+   * @param links The submissions received by a single batch.
+   */
+  private void dispatch(List<LinkEntity> links) {
+    links.sort(Comparator.comparingLong(SubmissionIndex::getSequence));
+    
+    for (LinkEntity link : links) {
+      if (!index.update(link)) {
+        continue;
+      }
+      
+      String subreddit = Objects.toString(link.getSubreddit()).toLowerCase(Locale.ENGLISH);
+      @Nullable PollingSchedule schedule = this.schedule;
+      @Nullable Number created = link.getCreatedUtc();
+      
+      if (schedule != null && created != null) {
+        schedule.record(subreddit, Instant.ofEpochSecond(created.longValue()));
+      }
+      
+      for (SubredditListener listener : listeners.getOrDefault(subreddit, Set.of())) {
+        try {
+          listener.notify(new LinkEvent(link));
+        } catch (RuntimeException e) {
+          // Failing to notify this listener shouldn't prevent notifying the other listeners.
+          LOGGER.error(e.getMessage(), e);
+        }
+      }
+    }
+  }
+  
+  private TextChannelSubredditListener getListener(TextChannel textChannel) {
+    return new TextChannelSubredditListener(textChannel, messages, queue);
+  }
+  
+  private void releaseClient(long webhookId) {
+    @Nullable JDAWebhookClient client = clients.release(webhookId);
+    
+    // Messages can't be sent without a client
+    if (client != null) {
+      webhooks.remove(client);
+    }
+  }
+  
+  /**
+   * Returns the index over the newest submission of each subreddit.
+   *
+   * @return The submission index used by this observable.
+   */
+  public SubmissionIndex getIndex() {
+    return index;
+  }
+  
+  /*package*/ Map<String, Set<SubredditListener>> getListeners() {
+    return listeners;
+  }
+  
+  /*package*/ Map<String, Batch> getObservers() {
     return observers;
   }
+  
+  /**
+   * A single request to Reddit, covering one or more subreddits. All received submissions are
+   * buffered and then distributed to the corresponding listeners once the request has finished.
+   */
+  /*package*/ final class Batch implements SubredditListener {
+    private final List<LinkEntity> links = new ArrayList<>();
+    private final SubredditObserver observer;
+    private final List<String> subreddits;
+    
+    private Batch(String name) {
+      this.subreddits = List.of(name.split("\\+"));
+      this.observer = getObserver(name);
+      this.observer.addListener(this);
+    }
+    
+    @Override
+    public synchronized void notify(LinkEvent event) {
+      links.add(event.getSource());
+    }
+    
+    /*package*/ void poll() throws FailedRequestException {
+      List<LinkEntity> result;
+      
+      try {
+        observer.notifyAllListeners();
+      } finally {
+        synchronized (this) {
+          result = new ArrayList<>(links);
+          links.clear();
+        }
+      }
+      
+      dispatch(result);
+    }
+  }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.TextChannel;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous delivery of messages to text channels.<br>
+ * Messages are sent without waiting for Discord to respond. For each guild, at most
+ * {@code maxInFlight} messages may be sent at the same time. Any further messages are queued until
+ * one of the previous messages has been delivered. If the queue of a guild is full, new messages
+ * are rejected.<br>
+ * Failed deliveries are reported to the failure callback.
+ */
+@NonNullByDefault
+public final class TextChannelQueue {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TextChannelQueue.class);
+  private final Map<Long, GuildQueue> guilds = new ConcurrentHashMap<>();
+  private final BiConsumer<TextChannel, Throwable> onFailure;
+  private final int maxInFlight;
+  private final int maxQueued;
+
+  /**
+   * Creates a new queue instance.
+   *
+   * @param maxInFlight The maximum number of concurrent messages per guild.
+   * @param maxQueued The maximum number of waiting messages per guild.
+   * @param onFailure Called whenever a message couldn't be delivered.
+   */
+  public TextChannelQueue(int maxInFlight, int maxQueued,
+        BiConsumer<TextChannel, Throwable> onFailure) {
+    this.maxInFlight = maxInFlight;
+    this.maxQueued = maxQueued;
+    this.onFailure = onFailure;
+  }
+
+  /**
+   * Sends the message to the given text channel. This method doesn't block.
+   *
+   * @param channel The text channel to which the message is sent.
+   * @param message The message to send.
+   * @return {@code false}, if the message has been rejected because the queue of the guild is full.
+   */
+  public boolean offer(TextChannel channel, Message message) {
+    long guildId = channel.getGuild().getIdLong();
+    boolean accepted = guilds.computeIfAbsent(guildId, k -> new GuildQueue())
+          .offer(new Delivery(channel, message));
+
+    if (!accepted) {
+      LOGGER.warn("Queue for guild {} is full. Drop message for channel {}.",
+            guildId, channel.getIdLong());
+    }
+
+    return accepted;
+  }
+
+  private static final class Delivery {
+    private final TextChannel channel;
+    private final Message message;
+
+    private Delivery(TextChannel channel, Message message) {
+      this.channel = channel;
+      this.message = message;
+    }
+  }
+
+  private final class GuildQueue {
+    private final Deque<Delivery> pending = new ArrayDeque<>();
+    private int inFlight;
+
+    private boolean offer(Delivery delivery) {
+      synchronized (this) {
+        if (inFlight >= maxInFlight) {
+          return pending.size() < maxQueued && pending.add(delivery);
+        }
+
+        inFlight++;
+      }
+
+      // Send outside the lock, the callbacks may be executed on the calling thread
+      send(delivery);
+      return true;
+    }
+
+    private void send(Delivery delivery) {
+      try {
+        delivery.channel.sendMessage(delivery.message).queue(
+              success -> complete(),
+              failure -> {
+                onFailure.accept(delivery.channel, failure);
+                complete();
+              });
+      } catch (RuntimeException e) {
+        // e.g. thrown when the bot is missing the permission to write in this channel
+        onFailure.accept(delivery.channel, e);
+        complete();
+      }
+    }
+
+    private void complete() {
+      @Nullable Delivery next;
+
+      synchronized (this) {
+        next = pending.poll();
+
+        if (next == null) {
+          inFlight--;
+          return;
+        }
+      }
+
+      send(next);
+    }
+  }
+}
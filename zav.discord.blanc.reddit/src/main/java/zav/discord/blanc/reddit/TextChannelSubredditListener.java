@@ -16,8 +16,6 @@
 
 package zav.discord.blanc.reddit;
 
-import static zav.discord.blanc.reddit.internal.MessageUtils.forLink;
-
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.Objects;
 import net.dv8tion.jda.api.entities.TextChannel;
@@ -39,21 +37,28 @@ import zav.jrc.listener.event.LinkEvent;
 public final class TextChannelSubredditListener implements SubredditListener {
   private static final Logger LOGGER = LoggerFactory.getLogger(TextChannelSubredditListener.class);
   private final TextChannel channel;
+  private final MessageCache messages;
+  private final TextChannelQueue queue;
   
   /**
    * Creates a new instance of this class.
    *
    * @param channel The text-channel managed by this listener.
+   * @param messages The cache containing the messages of all received submissions.
+   * @param queue The queue over which the messages are sent.
    */
   @SuppressFBWarnings(value = "EI_EXPOSE_REP2")
-  public TextChannelSubredditListener(TextChannel channel) {
+  public TextChannelSubredditListener(TextChannel channel, MessageCache messages,
+        TextChannelQueue queue) {
     this.channel = channel;
+    this.messages = messages;
+    this.queue = queue;
   }
   
   @Override
   public void notify(LinkEvent linkEvent) {
     try {
-      channel.sendMessage(forLink(linkEvent.getSource())).complete();
+      queue.offer(channel, messages.getMessage(linkEvent.getSource()));
     } catch (Exception e) {
       // Failing to notify this channel shouldn't prevent notifications in other channels.
       LOGGER.error(e.getMessage(), e);
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import club.minnced.discord.webhook.WebhookClientBuilder;
+import club.minnced.discord.webhook.external.JDAWebhookClient;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import net.dv8tion.jda.api.entities.Webhook;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Registry of all webhook clients.<br>
+ * A webhook may observe several subreddits. Rather than creating a new client for each subreddit,
+ * all listeners of a webhook share the same client. Each call to {@link #acquire(Webhook)} has to
+ * be followed by a call to {@link #release(long)} once the client is no longer needed. The client
+ * is discarded after it has been released by all of its listeners.
+ */
+@NonNullByDefault
+public final class WebhookClientRegistry {
+  private final Map<Long, Entry> clients = new ConcurrentHashMap<>();
+  private final Function<Webhook, JDAWebhookClient> factory;
+
+  /**
+   * Creates a new registry instance.
+   *
+   * @param pool The executor service over which the webhooks are notified.
+   */
+  public WebhookClientRegistry(ScheduledExecutorService pool) {
+    // client.close() should be ignored as the pool is shared across the entire application
+    this(webhook -> WebhookClientBuilder.fromJDA(webhook).setExecutorService(pool).buildJDA());
+  }
+
+  /*package*/ WebhookClientRegistry(Function<Webhook, JDAWebhookClient> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Returns the client of the given webhook. A new client is created if no client exists for this
+   * webhook yet.
+   *
+   * @param webhook A Discord webhook.
+   * @return The client shared by all listeners of this webhook.
+   */
+  public JDAWebhookClient acquire(Webhook webhook) {
+    return clients.compute(webhook.getIdLong(), (key, value) -> {
+      Entry result = value == null ? new Entry(factory.apply(webhook)) : value;
+      result.references++;
+      return result;
+    }).client;
+  }
+
+  /**
+   * Releases the client of the given webhook.
+   *
+   * @param webhookId The id of a Discord webhook.
+   * @return The client, if it has been discarded because it is no longer used. Otherwise
+   *     {@code null}.
+   */
+  public @Nullable JDAWebhookClient release(long webhookId) {
+    @Nullable JDAWebhookClient[] discarded = new JDAWebhookClient[1];
+
+    clients.computeIfPresent(webhookId, (key, value) -> {
+      value.references--;
+
+      if (value.references > 0) {
+        return value;
+      }
+
+      discarded[0] = value.client;
+      return null;
+    });
+
+    return discarded[0];
+  }
+
+  /**
+   * Returns the number of webhooks with at least one listener.
+   *
+   * @return The number of webhook clients.
+   */
+  public int size() {
+    return clients.size();
+  }
+
+  private static final class Entry {
+    private final JDAWebhookClient client;
+    private int references;
+
+    private Entry(JDAWebhookClient client) {
+      this.client = client;
+    }
+  }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import club.minnced.discord.webhook.external.JDAWebhookClient;
+import club.minnced.discord.webhook.send.WebhookEmbed;
+import club.minnced.discord.webhook.send.WebhookMessage;
+import club.minnced.discord.webhook.send.WebhookMessageBuilder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivery queue for all webhook messages.<br>
+ * Each webhook has its own queue, so that a busy webhook never delays any other webhook. Discord
+ * limits the requests per webhook, therefore only a single message is sent to a webhook at the same
+ * time. Any further messages remain in the queue until the previous message has been delivered.
+ * <br>
+ * When a queue is flushed, consecutive messages with the same author are combined into a single
+ * message with up to {@link #MAX_EMBEDS} embeds, as long as the combined embeds don't exceed
+ * {@link MessageEmbed#EMBED_MAX_LENGTH_BOT} characters. If a queue is full, new messages are
+ * dropped.<br>
+ * Each queue is bound to the client it has been registered with. Messages which are offered with a
+ * different client, e.g. by a listener which has been notified after its webhook has been released,
+ * are dropped, so that a discarded client is never used again.
+ */
+@NonNullByDefault
+public final class WebhookQueue {
+  /**
+   * The maximum number of embeds in a single webhook message.
+   */
+  public static final int MAX_EMBEDS = 10;
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebhookQueue.class);
+  private final Map<Long, Target> targets = new ConcurrentHashMap<>();
+  private final LongAdder delivered = new LongAdder();
+  private final LongAdder queued = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final int maxQueued;
+
+  /**
+   * Creates a new queue instance.
+   *
+   * @param maxQueued The maximum number of waiting messages per webhook.
+   */
+  public WebhookQueue(int maxQueued) {
+    this.maxQueued = maxQueued;
+  }
+
+  /**
+   * Creates the queue of the given webhook, unless one already exists for this client. A queue
+   * which has been created for a previous client of the same webhook is replaced.
+   *
+   * @param client The client of the webhook to which the messages are sent.
+   */
+  public void register(JDAWebhookClient client) {
+    targets.compute(client.getId(), (key, target) -> {
+      if (target != null && target.client == client) {
+        return target;
+      }
+
+      if (target != null) {
+        target.clear();
+      }
+
+      return new Target(client);
+    });
+  }
+
+  /**
+   * Adds the message to the queue of the given webhook. The message is sent with the next call to
+   * {@link #flush()}.
+   *
+   * @param client The client of the webhook to which the message is sent.
+   * @param message The message to send.
+   * @return {@code false}, if the message has been dropped because the queue is full or because
+   *     no queue has been registered for this client.
+   */
+  public boolean offer(JDAWebhookClient client, WebhookMessage message) {
+    @Nullable Target target = targets.get(client.getId());
+
+    if (target == null || target.client != client) {
+      LOGGER.debug("Webhook {} has been released. Drop message...", client.getId());
+      dropped.increment();
+      return false;
+    }
+
+    return target.offer(message);
+  }
+
+  /**
+   * Removes the queue of the given client. Messages which are still queued are discarded. Queues
+   * which have been registered for another client of the same webhook are retained.
+   *
+   * @param client The client of a Discord webhook.
+   */
+  public void remove(JDAWebhookClient client) {
+    targets.computeIfPresent(client.getId(), (key, target) -> {
+      if (target.client != client) {
+        return target;
+      }
+
+      target.clear();
+      return null;
+    });
+  }
+
+  /**
+   * Sends the queued messages of all webhooks. This method doesn't block.
+   */
+  public void flush() {
+    for (Target target : targets.values()) {
+      target.flush();
+    }
+  }
+
+  /**
+   * Returns the number of submissions which have been delivered successfully.
+   *
+   * @return The number of delivered submissions.
+   */
+  public long getDelivered() {
+    return delivered.sum();
+  }
+
+  /**
+   * Returns the number of submissions which are waiting to be delivered.
+   *
+   * @return The number of queued submissions.
+   */
+  public long getQueued() {
+    return queued.sum();
+  }
+
+  /**
+   * Returns the number of submissions which have been rejected or couldn't be delivered.
+   *
+   * @return The number of dropped submissions.
+   */
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  private static boolean canMerge(WebhookMessage head, WebhookMessage next, int embeds,
+        int length) {
+    return head.getContent() == null
+          && next.getContent() == null
+          && Objects.equals(head.getUsername(), next.getUsername())
+          && Objects.equals(head.getAvatarUrl(), next.getAvatarUrl())
+          && embeds + next.getEmbeds().size() <= MAX_EMBEDS
+          && length + getLength(next) <= MessageEmbed.EMBED_MAX_LENGTH_BOT;
+  }
+
+  /**
+   * Returns the number of characters of all embeds, as counted by Discord towards the limit of a
+   * single message.
+   */
+  private static int getLength(WebhookMessage message) {
+    int length = 0;
+
+    for (WebhookEmbed embed : message.getEmbeds()) {
+      length += getLength(embed.getTitle() == null ? null : embed.getTitle().getText());
+      length += getLength(embed.getDescription());
+      length += getLength(embed.getAuthor() == null ? null : embed.getAuthor().getName());
+      length += getLength(embed.getFooter() == null ? null : embed.getFooter().getText());
+
+      for (WebhookEmbed.EmbedField field : embed.getFields()) {
+        length += getLength(field.getName()) + getLength(field.getValue());
+      }
+    }
+
+    return length;
+  }
+
+  private static int getLength(@Nullable String text) {
+    return text == null ? 0 : text.length();
+  }
+
+  private static WebhookMessage merge(List<WebhookMessage> messages) {
+    if (messages.size() == 1) {
+      return messages.get(0);
+    }
+
+    WebhookMessage head = messages.get(0);
+    List<WebhookEmbed> embeds = new ArrayList<>();
+
+    for (WebhookMessage message : messages) {
+      embeds.addAll(message.getEmbeds());
+    }
+
+    return new WebhookMessageBuilder()
+          .addEmbeds(embeds)
+          .setAvatarUrl(head.getAvatarUrl())
+          .setUsername(head.getUsername())
+          .build();
+  }
+
+  private final class Target {
+    private final Deque<WebhookMessage> pending = new ArrayDeque<>();
+    private final JDAWebhookClient client;
+    private boolean inFlight;
+
+    private Target(JDAWebhookClient client) {
+      this.client = client;
+    }
+
+    private synchronized boolean offer(WebhookMessage message) {
+      if (pending.size() >= maxQueued) {
+        LOGGER.warn("Queue for webhook {} is full. Drop message...", client.getId());
+        dropped.increment();
+        return false;
+      }
+
+      pending.add(message);
+      queued.increment();
+      return true;
+    }
+
+    private synchronized void clear() {
+      queued.add(-pending.size());
+      pending.clear();
+    }
+
+    private void flush() {
+      List<WebhookMessage> messages;
+
+      synchronized (this) {
+        if (inFlight || pending.isEmpty()) {
+          return;
+        }
+
+        messages = poll();
+        inFlight = true;
+      }
+
+      send(messages);
+    }
+
+    private List<WebhookMessage> poll() {
+      List<WebhookMessage> messages = new ArrayList<>();
+      WebhookMessage head = pending.remove();
+      int embeds = head.getEmbeds().size();
+      int length = getLength(head);
+      messages.add(head);
+
+      @Nullable WebhookMessage next = pending.peek();
+
+      while (next != null && canMerge(head, next, embeds, length)) {
+        messages.add(pending.remove());
+        embeds += next.getEmbeds().size();
+        length += getLength(next);
+        next = pending.peek();
+      }
+
+      queued.add(-messages.size());
+      return messages;
+    }
+
+    private void send(List<WebhookMessage> messages) {
+      try {
+        client.send(merge(messages)).whenComplete((result, failure) -> {
+          if (failure == null) {
+            delivered.add(messages.size());
+          } else {
+            LOGGER.error("Failed to notify webhook {}.", client.getId(), failure);
+            dropped.add(messages.size());
+          }
+
+          complete();
+        });
+      } catch (RuntimeException e) {
+        // Failing to notify this webhook shouldn't prevent notifications for other webhooks.
+        LOGGER.error("Failed to notify webhook {}.", client.getId(), e);
+        dropped.add(messages.size());
+        complete();
+      }
+    }
+
+    private void complete() {
+      synchronized (this) {
+        inFlight = false;
+      }
+
+      // Continue with the messages which have been queued in the meantime
+      flush();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import zav.jrc.client.FailedRequestException;
+import zav.jrc.databind.SubredditEntity;
+import zav.jrc.endpoint.subreddit.Subreddit;
+
+/**
+ * Checks whether subreddit icons are only requested once and kept while Reddit is unavailable.
+ */
+@ExtendWith(MockitoExtension.class)
+public class AvatarCacheTest {
+  private static final String URL = "https://www.test.com/image.jpg";
+  private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+  @Mock Subreddit subreddit;
+  @Mock SubredditEntity entity;
+  AtomicLong ticker;
+  AvatarCache avatars;
+
+  /**
+   * Initializes a cache which refreshes its values on the calling thread.
+   */
+  @BeforeEach
+  public void setUp() {
+    ticker = new AtomicLong();
+    avatars = new AvatarCache(name -> subreddit, Runnable::run, ticker::get);
+  }
+
+  @Test
+  public void testGet() throws FailedRequestException {
+    when(subreddit.getAbout()).thenReturn(entity);
+    when(entity.getIconImage()).thenReturn(URL);
+
+    assertEquals(URL, avatars.get("subreddit"));
+    assertEquals(URL, avatars.get("SUBREDDIT"));
+
+    verify(subreddit, times(1)).getAbout();
+  }
+
+  @Test
+  public void testGetUnavailableSubreddit() throws FailedRequestException {
+    when(subreddit.getAbout()).thenThrow(FailedRequestException.wrap(new Exception()));
+
+    assertNull(avatars.get("subreddit"));
+  }
+
+  /**
+   * Use Case: The previous icon should be used if it can't be refreshed.
+   *
+   * @throws FailedRequestException Should never be thrown.
+   */
+  @Test
+  public void testRefreshUnavailableSubreddit() throws FailedRequestException {
+    when(subreddit.getAbout())
+          .thenReturn(entity)
+          .thenThrow(FailedRequestException.wrap(new Exception()));
+    when(entity.getIconImage()).thenReturn(URL);
+
+    assertEquals(URL, avatars.get("subreddit"));
+
+    ticker.addAndGet(Duration.ofHours(2).toNanos());
+
+    assertEquals(URL, avatars.get("subreddit"));
+    assertEquals(URL, avatars.get("subreddit"));
+
+    verify(subreddit, times(2)).getAbout();
+  }
+
+  /**
+   * Use Case: Avatars are requested through the same scheduler as the submissions.
+   *
+   * @throws FailedRequestException Should never be thrown.
+   */
+  @Test
+  public void testGetWithScheduler() throws FailedRequestException {
+    RequestScheduler scheduler = new RequestScheduler(60, Duration.ofMinutes(1), 0, ticker::get);
+    avatars.setScheduler(scheduler);
+    when(subreddit.getAbout()).thenReturn(entity);
+    when(entity.getIconImage()).thenReturn(URL);
+
+    assertEquals(URL, avatars.get("subreddit"));
+
+    // The first slot has been taken by the avatar
+    assertEquals(SECOND, scheduler.reserve());
+  }
+
+  /**
+   * Use Case: Failed avatar requests cause the scheduler to back off.
+   *
+   * @throws FailedRequestException Should never be thrown.
+   */
+  @Test
+  public void testGetUnavailableSubredditWithScheduler() throws FailedRequestException {
+    RequestScheduler scheduler = new RequestScheduler(60, Duration.ofMinutes(1), 0, ticker::get);
+    avatars.setScheduler(scheduler);
+    when(subreddit.getAbout()).thenThrow(FailedRequestException.wrap(new Exception()));
+
+    assertNull(avatars.get("subreddit"));
+
+    ticker.addAndGet(SECOND);
+    scheduler.onFailure();
+
+    // The back-off has been doubled by the failed avatar request
+    assertEquals(2 * SECOND, scheduler.reserve());
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import zav.jrc.databind.LinkEntity;
+
+/**
+ * Checks whether the message of a submission is only created once.
+ */
+public class MessageCacheTest {
+  private static final String URL = "https://www.test.com/image.jpg";
+
+  AtomicInteger requests;
+  MessageCache messages;
+
+  /**
+   * Initializes a cache which counts how often an avatar has been requested.
+   */
+  @BeforeEach
+  public void setUp() {
+    requests = new AtomicInteger();
+    messages = new MessageCache(name -> {
+      requests.incrementAndGet();
+      return URL;
+    });
+  }
+
+  @Test
+  public void testGetMessage() {
+    LinkEntity link = getLink();
+
+    assertSame(messages.getMessage(link), messages.getMessage(link));
+    assertNotSame(messages.getMessage(link), messages.getMessage(getLink()));
+  }
+
+  @Test
+  public void testGetWebhookMessage() {
+    LinkEntity link = getLink();
+
+    assertSame(messages.getWebhookMessage(link), messages.getWebhookMessage(link));
+    assertEquals(URL, messages.getWebhookMessage(link).getAvatarUrl());
+    assertEquals(1, requests.get());
+  }
+
+  private static LinkEntity getLink() {
+    LinkEntity link = new LinkEntity();
+    link.setOver18(false);
+    link.setSpoiler(false);
+    link.setAuthor("author");
+    link.setSubreddit("subreddit");
+    return link;
+  }
+}
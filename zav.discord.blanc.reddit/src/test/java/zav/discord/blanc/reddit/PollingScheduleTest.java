@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks whether the poll interval adapts to the number of submissions in a subreddit.
+ */
+public class PollingScheduleTest {
+  private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+  AtomicLong ticker;
+  PollingSchedule schedule;
+
+  /**
+   * Initializes a schedule with an interval between one and ten minutes.
+   */
+  @BeforeEach
+  public void setUp() {
+    ticker = new AtomicLong(1000 * MINUTE);
+    schedule = new PollingSchedule(Duration.ofMinutes(1), Duration.ofMinutes(10), ticker::get);
+  }
+
+  @Test
+  public void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class,
+          () -> new PollingSchedule(Duration.ZERO, Duration.ofMinutes(1)));
+    assertThrows(IllegalArgumentException.class,
+          () -> new PollingSchedule(Duration.ofMinutes(2), Duration.ofMinutes(1)));
+  }
+
+  /**
+   * Use Case: New subreddits are polled with the minimum interval until their rate is known.
+   */
+  @Test
+  public void testUnknownSubreddit() {
+    assertEquals(0, schedule.getTier("redditdev"));
+    assertEquals(Duration.ofMinutes(1), schedule.getInterval("redditdev"));
+  }
+
+  @Test
+  public void testBusySubreddit() {
+    for (int i = 0; i < 10; ++i) {
+      schedule.record("redditdev", Instant.ofEpochMilli(ticker.addAndGet(MINUTE / 2)));
+    }
+
+    assertEquals(0, schedule.getTier("redditdev"));
+  }
+
+  @Test
+  public void testQuietSubreddit() {
+    for (int i = 0; i < 10; ++i) {
+      schedule.record("redditdev", Instant.ofEpochMilli(ticker.addAndGet(4 * MINUTE)));
+    }
+
+    assertEquals(2, schedule.getTier("redditdev"));
+    assertEquals(Duration.ofMinutes(4), schedule.getInterval("redditdev"));
+  }
+
+  /**
+   * Use Case: The interval never exceeds the maximum interval, rounded down to a power of two.
+   */
+  @Test
+  public void testMaxInterval() {
+    schedule.getTier("redditdev");
+    ticker.addAndGet(60 * MINUTE);
+
+    assertEquals(3, schedule.getTier("redditdev"));
+    assertEquals(Duration.ofMinutes(8), schedule.getInterval("redditdev"));
+  }
+
+  /**
+   * Use Case: Subreddits without any recent submissions are polled less often over time.
+   */
+  @Test
+  public void testSubredditBecomesQuiet() {
+    for (int i = 0; i < 10; ++i) {
+      schedule.record("redditdev", Instant.ofEpochMilli(ticker.addAndGet(MINUTE / 2)));
+    }
+
+    ticker.addAndGet(2 * MINUTE);
+    assertEquals(1, schedule.getTier("redditdev"));
+  }
+
+  /**
+   * Use Case: The tier is re-evaluated at most once per interval.
+   */
+  @Test
+  public void testTierIsSticky() {
+    schedule.getTier("redditdev");
+    ticker.addAndGet(3 * MINUTE / 2);
+    assertEquals(0, schedule.getTier("redditdev"));
+
+    // The subreddit would already qualify for the next tier
+    ticker.addAndGet(MINUTE / 2);
+    assertEquals(0, schedule.getTier("redditdev"));
+
+    ticker.addAndGet(MINUTE / 2);
+    assertEquals(1, schedule.getTier("redditdev"));
+  }
+
+  /**
+   * Use Case: Subreddits are only moved to a lower tier once they fall below the next lower tier.
+   */
+  @Test
+  public void testTierHysteresis() {
+    for (int i = 0; i < 10; ++i) {
+      schedule.record("redditdev", Instant.ofEpochMilli(ticker.addAndGet(4 * MINUTE)));
+    }
+
+    assertEquals(2, schedule.getTier("redditdev"));
+
+    // An average gap of about three minutes would correspond to tier 1
+    for (int i = 0; i < 20; ++i) {
+      schedule.record("redditdev", Instant.ofEpochMilli(ticker.addAndGet(3 * MINUTE)));
+      assertEquals(2, schedule.getTier("redditdev"));
+    }
+
+    for (int i = 0; i < 20; ++i) {
+      schedule.record("redditdev", Instant.ofEpochMilli(ticker.addAndGet(MINUTE / 2)));
+    }
+
+    ticker.addAndGet(MINUTE / 2);
+    assertEquals(0, schedule.getTier("redditdev"));
+  }
+
+  /**
+   * Use Case: Submissions older than the latest submission don't affect the estimate.
+   */
+  @Test
+  public void testRecordOutOfOrder() {
+    schedule.record("redditdev", Instant.ofEpochMilli(ticker.get()));
+    schedule.record("redditdev", Instant.ofEpochMilli(ticker.get() - 60 * MINUTE));
+
+    assertEquals(0, schedule.getTier("redditdev"));
+  }
+
+  @Test
+  public void testRetainAll() {
+    schedule.getTier("redditdev");
+    ticker.addAndGet(60 * MINUTE);
+    schedule.retainAll(List.of());
+
+    // The subreddit is treated as a new subreddit
+    assertEquals(0, schedule.getTier("redditdev"));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks whether requests are spread evenly and adapt to the rate-limit budget.
+ */
+public class RequestSchedulerTest {
+  private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+  AtomicLong ticker;
+  RequestScheduler scheduler;
+
+  /**
+   * Initializes a scheduler with one request per second and no burst.
+   */
+  @BeforeEach
+  public void setUp() {
+    ticker = new AtomicLong();
+    scheduler = new RequestScheduler(60, Duration.ofMinutes(1), 0, ticker::get);
+  }
+
+  @Test
+  public void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class,
+          () -> new RequestScheduler(0, Duration.ofMinutes(1), 0));
+    assertThrows(IllegalArgumentException.class,
+          () -> new RequestScheduler(60, Duration.ZERO, 0));
+  }
+
+  @Test
+  public void testSpreadEvenly() {
+    assertEquals(0, scheduler.reserve());
+    assertEquals(SECOND, scheduler.reserve());
+    assertEquals(2 * SECOND, scheduler.reserve());
+
+    assertEquals(Duration.ofSeconds(1), scheduler.getAverageWait());
+    assertEquals(Duration.ofSeconds(2), scheduler.getMaxWait());
+  }
+
+  @Test
+  public void testBurst() {
+    scheduler = new RequestScheduler(60, Duration.ofMinutes(1), 2, ticker::get);
+
+    // Idle long enough to accumulate the maximum number of permits
+    ticker.addAndGet(10 * SECOND);
+
+    assertEquals(0, scheduler.reserve());
+    assertEquals(0, scheduler.reserve());
+    assertEquals(0, scheduler.reserve());
+    assertEquals(SECOND, scheduler.reserve());
+  }
+
+  @Test
+  public void testBackoff() {
+    scheduler.onFailure();
+    assertEquals(SECOND, scheduler.reserve());
+
+    ticker.addAndGet(2 * SECOND);
+    scheduler.onFailure();
+    assertEquals(2 * SECOND, scheduler.reserve());
+
+    ticker.addAndGet(3 * SECOND);
+    scheduler.onSuccess();
+    scheduler.onFailure();
+    assertEquals(SECOND, scheduler.reserve());
+  }
+
+  @Test
+  public void testAcquire() throws InterruptedException {
+    scheduler = new RequestScheduler(60, Duration.ofMinutes(1), 0);
+    scheduler.acquire();
+
+    assertEquals(0, scheduler.getQueueDepth());
+    assertEquals(Duration.ZERO, scheduler.getMaxWait());
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import zav.discord.blanc.databind.SubmissionIndexEntity;
+import zav.jrc.databind.LinkEntity;
+
+/**
+ * Checks whether the newest submission of each subreddit is remembered across restarts.
+ */
+@ExtendWith(MockitoExtension.class)
+public class SubmissionIndexTest {
+  @Captor ArgumentCaptor<Collection<SubmissionIndexEntity>> captor;
+  MockedStatic<SubmissionIndexEntity> mocked;
+  AtomicLong ticker;
+  SubmissionIndex index;
+  
+  @BeforeEach
+  public void setUp() {
+    mocked = mockStatic(SubmissionIndexEntity.class);
+    ticker = new AtomicLong();
+    index = new SubmissionIndex(ticker::get);
+  }
+  
+  @AfterEach
+  public void tearDown() {
+    mocked.close();
+  }
+  
+  @Test
+  public void testUpdate() {
+    assertTrue(index.update(getLink("RedditDev", "t3_b")));
+    assertFalse(index.update(getLink("RedditDev", "t3_b")));
+    assertFalse(index.update(getLink("redditdev", "t3_a")));
+    assertTrue(index.update(getLink("redditdev", "t3_c")));
+    // Subreddits are independent of each other
+    assertTrue(index.update(getLink("all", "t3_a")));
+    
+    assertEquals("t3_c", index.getName("RedditDev"));
+  }
+  
+  /**
+   * Use Case: Submissions without a valid id can't be compared and are therefore always forwarded.
+   */
+  @Test
+  public void testUpdateInvalidId() {
+    assertTrue(index.update(getLink("RedditDev", "t3_?")));
+    assertTrue(index.update(getLink("RedditDev", "t3_?")));
+    
+    assertNull(index.getName("RedditDev"));
+  }
+  
+  @Test
+  public void testLoad() {
+    SubmissionIndexEntity entity = new SubmissionIndexEntity();
+    entity.setSubreddit("redditdev");
+    entity.setName("t3_b");
+    mocked.when(SubmissionIndexEntity::findAll).thenReturn(List.of(entity));
+    
+    index.load();
+    
+    assertFalse(index.update(getLink("RedditDev", "t3_a")));
+    assertFalse(index.update(getLink("RedditDev", "t3_b")));
+    assertTrue(index.update(getLink("RedditDev", "t3_c")));
+  }
+  
+  /**
+   * Use Case: Only entries which have changed since the last save are written to the database.
+   */
+  @Test
+  public void testSave() {
+    index.update(getLink("RedditDev", "t3_b"));
+    index.save();
+    
+    mocked.verify(() -> SubmissionIndexEntity.mergeAll(captor.capture()));
+    
+    SubmissionIndexEntity entity = captor.getValue().iterator().next();
+    assertEquals("redditdev", entity.getSubreddit());
+    assertEquals("t3_b", entity.getName());
+    
+    mocked.clearInvocations();
+    index.save();
+    
+    mocked.verify(() -> SubmissionIndexEntity.mergeAll(anyCollection()), never());
+  }
+  
+  /**
+   * Use Case: Entries which couldn't be written are written with the next call.
+   */
+  @Test
+  public void testSaveFailed() {
+    index.update(getLink("RedditDev", "t3_b"));
+    mocked.when(() -> SubmissionIndexEntity.mergeAll(anyCollection()))
+          .thenThrow(new IllegalStateException());
+    
+    assertThrows(IllegalStateException.class, () -> index.save());
+    
+    mocked.reset();
+    index.save();
+    
+    mocked.verify(() -> SubmissionIndexEntity.mergeAll(captor.capture()));
+    assertEquals("t3_b", captor.getValue().iterator().next().getName());
+  }
+  
+  /**
+   * Use Case: Entries which couldn't be removed are removed with the next call.
+   */
+  @Test
+  public void testSaveRemoveFailed() {
+    index.update(getLink("RedditDev", "t3_b"));
+    index.retainAll(Set.of());
+    ticker.addAndGet(Duration.ofHours(1).toNanos());
+    index.retainAll(Set.of());
+    mocked.when(() -> SubmissionIndexEntity.removeAll(anyCollection()))
+          .thenThrow(new IllegalStateException());
+    
+    assertThrows(IllegalStateException.class, () -> index.save());
+    
+    mocked.reset();
+    index.save();
+    
+    mocked.verify(() -> SubmissionIndexEntity.removeAll(List.of("redditdev")));
+  }
+  
+  /**
+   * Use Case: Entries of subreddits which are no longer observed are removed from the database.
+   */
+  @Test
+  public void testRetainAll() {
+    index.update(getLink("RedditDev", "t3_b"));
+    index.update(getLink("all", "t3_b"));
+    index.save();
+    
+    index.retainAll(Set.of("all"));
+    ticker.addAndGet(Duration.ofHours(1).toNanos());
+    index.retainAll(Set.of("all"));
+    
+    assertNull(index.getName("RedditDev"));
+    assertEquals("t3_b", index.getName("all"));
+    
+    mocked.clearInvocations();
+    index.save();
+    
+    mocked.verify(() -> SubmissionIndexEntity.removeAll(List.of("redditdev")));
+    mocked.verify(() -> SubmissionIndexEntity.mergeAll(anyCollection()), never());
+    
+    // Observing the subreddit again mustn't remove the new entry
+    index.retainAll(Set.of());
+    ticker.addAndGet(Duration.ofHours(1).toNanos());
+    index.retainAll(Set.of());
+    index.update(getLink("all", "t3_c"));
+    mocked.clearInvocations();
+    index.save();
+    
+    mocked.verify(() -> SubmissionIndexEntity.removeAll(anyCollection()), never());
+    mocked.verify(() -> SubmissionIndexEntity.mergeAll(captor.capture()));
+    assertEquals("t3_c", captor.getValue().iterator().next().getName());
+  }
+  
+  /**
+   * Use Case: Subreddits which are only briefly without listeners keep their entry.
+   */
+  @Test
+  public void testRetainAllGracePeriod() {
+    index.update(getLink("RedditDev", "t3_b"));
+    
+    index.retainAll(Set.of());
+    ticker.addAndGet(Duration.ofMinutes(59).toNanos());
+    index.retainAll(Set.of());
+    
+    assertEquals("t3_b", index.getName("RedditDev"));
+    
+    // The grace period starts again once the subreddit is observed again
+    index.retainAll(Set.of("redditdev"));
+    ticker.addAndGet(Duration.ofMinutes(59).toNanos());
+    index.retainAll(Set.of());
+    ticker.addAndGet(Duration.ofMinutes(59).toNanos());
+    index.retainAll(Set.of());
+    
+    assertEquals("t3_b", index.getName("RedditDev"));
+    
+    ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+    index.retainAll(Set.of());
+    
+    assertNull(index.getName("RedditDev"));
+  }
+  
+  private static LinkEntity getLink(String subreddit, String id) {
+    LinkEntity link = new LinkEntity();
+    link.setSubreddit(subreddit);
+    link.setId(id);
+    return link;
+  }
+}
@@ -16,27 +16,45 @@
 
 package zav.discord.blanc.reddit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import net.dv8tion.jda.api.entities.TextChannel;
 import net.dv8tion.jda.api.entities.Webhook;
 import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import zav.jrc.client.Client;
 import zav.jrc.client.FailedRequestException;
+import zav.jrc.databind.LinkEntity;
+import zav.jrc.listener.SubredditListener;
+import zav.jrc.listener.event.LinkEvent;
 import zav.jrc.listener.observer.SubredditObserver;
 
 /**
@@ -51,8 +69,13 @@ public class SubredditObservableTest {
   @Mock Webhook webhook;
   @Mock Client client;
   @Mock SubredditObserver observer;
+  @Mock SubredditObserver slowObserver;
+  @Mock SubredditListener listener;
+  @Mock SubredditListener listener2;
+  @Captor ArgumentCaptor<LinkEvent> captor;
   
   SubredditObservable observable;
+  ExecutorService workers;
   
   /**
    * Initializes an observable with one text channel and webhook registered.
@@ -60,92 +83,89 @@ public class SubredditObservableTest {
   @BeforeEach
   public void setUp() {    
     observable = spy(new SubredditObservable(client, pool));
+    workers = Executors.newFixedThreadPool(2);
+  }
+  
+  @AfterEach
+  public void tearDown() {
+    workers.shutdownNow();
   }
   
   @Test
   public void testAddTextChannelListener() {
-    when(observable.getObserver(anyString())).thenReturn(observer);
+    assertTrue(observable.addListener("subreddit", textChannel));
+    assertFalse(observable.addListener("SUBREDDIT", textChannel));
     
-    observable.addListener("subreddit", textChannel);
-  
-    verify(observer).addListener(any(TextChannelSubredditListener.class));
+    Set<SubredditListener> listeners = observable.getListeners().get("subreddit");
+    MessageCache messages = new MessageCache(name -> null);
+    TextChannelQueue queue = new TextChannelQueue(1, 1, (channel, e) -> {});
+    SubredditListener expected = new TextChannelSubredditListener(textChannel, messages, queue);
+    assertEquals(Set.of(expected), listeners);
   }
   
   @Test
   public void testAddWebhookListener() {
-    when(observable.getObserver(anyString())).thenReturn(observer);
     when(webhook.getToken()).thenReturn(StringUtils.EMPTY);
     
-    observable.addListener("subreddit", webhook);
-  
-    verify(observer).addListener(any(WebhookSubredditListener.class));
+    assertTrue(observable.addListener("subreddit", webhook));
+    assertFalse(observable.addListener("SUBREDDIT", webhook));
+    
+    Set<SubredditListener> listeners = observable.getListeners().get("subreddit");
+    assertEquals(1, listeners.size());
+    assertTrue(listeners.iterator().next() instanceof WebhookSubredditListener);
   }
   
   @Test
   public void testRemoveLastTextChannelListener() {
-    observable.getObservers().put("subreddit", observer);
-    
-    observable.removeListener("subreddit", textChannel);
-  
-    assertTrue(observable.getObservers().isEmpty());
+    observable.addListener("subreddit", textChannel);
     
-    verify(observer).removeListener(any(TextChannelSubredditListener.class));
+    assertTrue(observable.removeListener("subreddit", textChannel));
+    assertTrue(observable.getListeners().isEmpty());
   }
   
   @Test
   public void testRemoveTextChannelListener() {
-    when(observer.size()).thenReturn(1);
-    observable.getObservers().put("subreddit", observer);
-    
-    observable.removeListener("subreddit", textChannel);
+    observable.addListener("subreddit", textChannel);
+    observable.addListener("subreddit", listener);
     
-    assertFalse(observable.getObservers().isEmpty());
-  
-    verify(observer).removeListener(any(TextChannelSubredditListener.class));
+    assertTrue(observable.removeListener("subreddit", textChannel));
+    assertEquals(Set.of(listener), observable.getListeners().get("subreddit"));
   }
   
   @Test
   public void testRemoveTextChannelObserver() {
-    observable.removeListener("subreddit", textChannel);
-  
-    verify(observer, times(0)).removeListener(any(TextChannelSubredditListener.class));
+    assertFalse(observable.removeListener("subreddit", textChannel));
   }
   
   @Test
   public void testRemoveLastWebhookListener() {
     when(webhook.getToken()).thenReturn(StringUtils.EMPTY);
     
-    observable.getObservers().put("subreddit", observer);
-    observable.removeListener("subreddit", webhook);
-
-    assertTrue(observable.getObservers().isEmpty());
+    observable.addListener("subreddit", webhook);
     
-    verify(observer).removeListener(any(WebhookSubredditListener.class));
+    assertTrue(observable.removeListener("subreddit", webhook));
+    assertTrue(observable.getListeners().isEmpty());
   }
   
   @Test
   public void testRemoveWebhookListener() {
-    when(observer.size()).thenReturn(1);
     when(webhook.getToken()).thenReturn(StringUtils.EMPTY);
-    observable.getObservers().put("subreddit", observer);
-    
-    observable.removeListener("subreddit", webhook);
     
-    assertFalse(observable.getObservers().isEmpty());
+    observable.addListener("subreddit", webhook);
+    observable.addListener("subreddit", listener);
     
-    verify(observer).removeListener(any(WebhookSubredditListener.class));
+    assertTrue(observable.removeListener("subreddit", webhook));
+    assertEquals(Set.of(listener), observable.getListeners().get("subreddit"));
   }
   
   @Test
   public void testRemoveWebhookObserver() {
-    observable.removeListener("subreddit", webhook);
-  
-    verify(observer, times(0)).removeListener(any(WebhookSubredditListener.class));
+    assertFalse(observable.removeListener("subreddit", webhook));
   }
   
   @Test
   public void testNotifyAll() throws FailedRequestException {
-    when(observable.getObserver(anyString())).thenReturn(observer);
+    doReturn(observer).when(observable).getObserver(anyString());
     when(webhook.getToken()).thenReturn(StringUtils.EMPTY);
     
     observable.addListener("subreddit1", webhook);
@@ -162,7 +182,7 @@ public class SubredditObservableTest {
    */
   @Test
   public void testNotifyAllWithError() throws FailedRequestException {
-    when(observable.getObserver(anyString())).thenReturn(observer);
+    doReturn(observer).when(observable).getObserver(anyString());
     when(webhook.getToken()).thenReturn(StringUtils.EMPTY);
     doThrow(FailedRequestException.class).when(observer).notifyAllListeners();
     
@@ -172,4 +192,266 @@ public class SubredditObservableTest {
     
     verify(observer, times(2)).notifyAllListeners();
   }
+  
+  /**
+   * Use Case: Only rate limits and server errors should affect the requests of other subreddits.
+   */
+  @Test
+  public void testIsThrottled() {
+    FailedRequestException error = mock(FailedRequestException.class);
+    
+    when(error.getErrorCode()).thenReturn(429);
+    assertTrue(SubredditObservable.isThrottled(error));
+    when(error.getErrorCode()).thenReturn(503);
+    assertTrue(SubredditObservable.isThrottled(error));
+    when(error.getErrorCode()).thenReturn(403);
+    assertFalse(SubredditObservable.isThrottled(error));
+    when(error.getErrorCode()).thenReturn(404);
+    assertFalse(SubredditObservable.isThrottled(error));
+  }
+  
+  /**
+   * Use Case: In the parallel poll mode, all observers should be notified as well.
+   *
+   * @throws FailedRequestException Should never be thrown.
+   */
+  @Test
+  public void testNotifyAllInParallel() throws FailedRequestException {
+    doReturn(observer).when(observable).getObserver(anyString());
+    when(webhook.getToken()).thenReturn(StringUtils.EMPTY);
+    
+    observable.setWorkers(workers, 2, Duration.ofSeconds(10));
+    observable.addListener("subreddit1", webhook);
+    observable.addListener("subreddit2", textChannel);
+    observable.notifyAllObservers();
+    
+    verify(observer, times(2)).notifyAllListeners();
+  }
+  
+  /**
+   * Use Case: A subreddit which takes longer than a single cycle shouldn't delay any other
+   * subreddit and is skipped until it has finished.
+   *
+   * @throws FailedRequestException Should never be thrown.
+   */
+  @Test
+  public void testNotifyAllWithSlowObserver() throws FailedRequestException {
+    CountDownLatch latch = new CountDownLatch(1);
+    
+    // Simulate a request that can't be cancelled
+    doAnswer(invocation -> {
+      while (latch.getCount() > 0) {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          // Ignore
+        }
+      }
+      return null;
+    }).when(slowObserver).notifyAllListeners();
+    doReturn(slowObserver).when(observable).getObserver("slow");
+    doReturn(observer).when(observable).getObserver("fast");
+    
+    observable.setWorkers(workers, 2, Duration.ofMillis(100));
+    observable.addListener("slow", listener);
+    observable.addListener("fast", listener);
+    observable.notifyAllObservers();
+    observable.notifyAllObservers();
+    latch.countDown();
+    
+    verify(observer, times(2)).notifyAllListeners();
+    verify(slowObserver, times(1)).notifyAllListeners();
+  }
+  
+  /**
+   * Use Case: Multiple subreddits should be requested at once.
+   *
+   * @throws FailedRequestException Should never be thrown.
+   */
+  @Test
+  public void testNotifyAllBatched() throws FailedRequestException {
+    doReturn(observer).when(observable).getObserver("subreddit1+subreddit2");
+    
+    observable.setBatchLimits(10, 100);
+    observable.addListener("subreddit1", listener);
+    observable.addListener("subreddit2", listener);
+    observable.notifyAllObservers();
+    
+    verify(observer, times(1)).notifyAllListeners();
+  }
+  
+  /**
+   * Use Case: Subreddits are only checked again once their poll interval has elapsed.
+   */
+  @Test
+  public void testNotifyAllScheduled() throws FailedRequestException {
+    doReturn(observer).when(observable).getObserver("subreddit");
+    
+    AtomicLong ticker = new AtomicLong(Duration.ofDays(1).toMillis());
+    Duration minInterval = Duration.ofMinutes(1);
+    observable.setPollingSchedule(new PollingSchedule(minInterval, minInterval, ticker::get));
+    observable.addListener("subreddit", listener);
+    
+    observable.notifyAllObservers();
+    verify(observer, times(1)).notifyAllListeners();
+    
+    ticker.addAndGet(Duration.ofSeconds(30).toMillis());
+    observable.notifyAllObservers();
+    verify(observer, times(1)).notifyAllListeners();
+    
+    ticker.addAndGet(Duration.ofSeconds(30).toMillis());
+    observable.notifyAllObservers();
+    verify(observer, times(2)).notifyAllListeners();
+  }
+  
+  /**
+   * Use Case: Subreddits which are moved to another batch keep the time of their last poll.
+   */
+  @Test
+  public void testNotifyAllScheduledRegrouped() throws FailedRequestException {
+    doReturn(observer).when(observable).getObserver("a");
+    doReturn(slowObserver).when(observable).getObserver("a+b");
+    
+    AtomicLong ticker = new AtomicLong(Duration.ofDays(1).toMillis());
+    Duration minInterval = Duration.ofMinutes(1);
+    observable.setPollingSchedule(new PollingSchedule(minInterval, minInterval, ticker::get));
+    observable.setBatchLimits(10, 100);
+    observable.addListener("a", listener);
+    
+    observable.notifyAllObservers();
+    verify(observer, times(1)).notifyAllListeners();
+    
+    // The new batch is only due once the interval of "a" has elapsed
+    ticker.addAndGet(Duration.ofSeconds(30).toMillis());
+    observable.addListener("b", listener);
+    observable.notifyAllObservers();
+    verify(slowObserver, never()).notifyAllListeners();
+    
+    ticker.addAndGet(Duration.ofSeconds(30).toMillis());
+    observable.notifyAllObservers();
+    verify(slowObserver, times(1)).notifyAllListeners();
+  }
+  
+  /**
+   * Use Case: Subreddits of different tiers are never combined into the same batch.
+   */
+  @Test
+  public void testGetBatchesScheduled() {
+    AtomicLong ticker = new AtomicLong(Duration.ofDays(1).toMillis());
+    Duration minInterval = Duration.ofMinutes(1);
+    Duration maxInterval = Duration.ofMinutes(8);
+    observable.setPollingSchedule(new PollingSchedule(minInterval, maxInterval, ticker::get));
+    observable.setBatchLimits(10, 100);
+    
+    observable.addListener("b", listener);
+    observable.addListener("c", listener);
+    assertEquals(List.of("b+c"), observable.getBatches());
+    
+    // Subreddit "a" is new and therefore polled with the minimum interval
+    ticker.addAndGet(Duration.ofMinutes(4).toMillis());
+    observable.addListener("a", listener);
+    assertEquals(List.of("a", "b+c"), observable.getBatches());
+  }
+  
+  /**
+   * Use Case: Batches are limited by both the number of subreddits and the length of their names.
+   */
+  @Test
+  public void testGetBatches() {
+    observable.addListener("c", listener);
+    observable.addListener("a", listener);
+    observable.addListener("dd", listener);
+    observable.addListener("b", listener);
+    
+    observable.setBatchLimits(10, 5);
+    assertEquals(List.of("a+b+c", "dd"), observable.getBatches());
+    
+    // Batches are only split if they exceed the new limits
+    observable.setBatchLimits(2, 100);
+    assertEquals(List.of("a+b", "c", "dd"), observable.getBatches());
+    
+    observable.setBatchLimits(10, 1);
+    assertEquals(List.of("a", "b", "c", "dd"), observable.getBatches());
+  }
+  
+  /**
+   * Use Case: Adding or removing a subreddit only affects a single batch.
+   */
+  @Test
+  public void testGetBatchesStable() {
+    observable.setBatchLimits(2, 100);
+    observable.addListener("a", listener);
+    observable.addListener("b", listener);
+    observable.addListener("c", listener);
+    observable.addListener("d", listener);
+    assertEquals(List.of("a+b", "c+d"), observable.getBatches());
+    
+    observable.removeListener("a", listener);
+    assertEquals(List.of("b", "c+d"), observable.getBatches());
+    
+    // New subreddits fill the first batch with room left
+    observable.addListener("e", listener);
+    observable.addListener("aa", listener);
+    assertEquals(List.of("aa+b", "c+d", "e"), observable.getBatches());
+  }
+  
+  /**
+   * Use Case: Batches which have been regrouped should be discarded.
+   */
+  @Test
+  public void testNotifyAllRegrouped() {
+    doReturn(observer).when(observable).getObserver(anyString());
+    
+    observable.addListener("subreddit1", listener);
+    observable.notifyAllObservers();
+    
+    assertEquals(Set.of("subreddit1"), observable.getObservers().keySet());
+    
+    observable.removeListener("subreddit1", listener);
+    observable.addListener("subreddit2", listener);
+    observable.notifyAllObservers();
+    
+    assertEquals(Set.of("subreddit2"), observable.getObservers().keySet());
+  }
+  
+  /**
+   * Use Case: The submissions of a batch are forwarded to the listeners of their subreddit, from
+   * oldest to newest and at most once.
+   *
+   * @throws FailedRequestException Should never be thrown.
+   */
+  @Test
+  public void testDispatch() throws FailedRequestException {
+    LinkEntity link1 = getLink("t3_c", "Subreddit1");
+    LinkEntity link2 = getLink("b", "subreddit1");
+    LinkEntity link3 = getLink("a", "subreddit2");
+    
+    doReturn(observer).when(observable).getObserver("subreddit1+subreddit2");
+    doAnswer(invocation -> {
+      SubredditListener batch = observable.getObservers().get("subreddit1+subreddit2");
+      batch.notify(new LinkEvent(link1));
+      batch.notify(new LinkEvent(link2));
+      batch.notify(new LinkEvent(link3));
+      return null;
+    }).when(observer).notifyAllListeners();
+    
+    observable.setBatchLimits(10, 100);
+    observable.addListener("subreddit1", listener);
+    observable.addListener("subreddit2", listener2);
+    observable.notifyAllObservers();
+    observable.notifyAllObservers();
+    
+    verify(listener, times(2)).notify(captor.capture());
+    assertEquals(List.of(link2, link1), List.of(
+          captor.getAllValues().get(0).getSource(),
+          captor.getAllValues().get(1).getSource()));
+    verify(listener2, times(1)).notify(any(LinkEvent.class));
+  }
+  
+  private static LinkEntity getLink(String id, String subreddit) {
+    LinkEntity link = new LinkEntity();
+    link.setId(id);
+    link.setSubreddit(subreddit);
+    return link;
+  }
 }
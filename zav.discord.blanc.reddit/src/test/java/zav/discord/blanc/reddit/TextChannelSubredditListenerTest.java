@@ -19,11 +19,14 @@ package zav.discord.blanc.reddit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.function.BiConsumer;
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.TextChannel;
 import net.dv8tion.jda.api.requests.restaction.MessageAction;
@@ -40,31 +43,41 @@ import zav.jrc.listener.event.LinkEvent;
 public class TextChannelSubredditListenerTest {
   
   LinkEntity link;
+  MessageCache messages;
+  TextChannelQueue queue;
+  BiConsumer<TextChannel, Throwable> onFailure;
   TextChannelSubredditListener listener;
   TextChannel textChannel;
+  Guild guild;
   MessageAction action;
   
   /**
    * Initializes a new text-channel based listener.
    */
   @BeforeEach
+  @SuppressWarnings("unchecked")
   public void setUp() {
     textChannel = mock(TextChannel.class);
+    guild = mock(Guild.class);
     action = mock(MessageAction.class);
-    listener = new TextChannelSubredditListener(textChannel);
+    onFailure = mock(BiConsumer.class);
+    messages = new MessageCache(name -> null);
+    queue = new TextChannelQueue(1, 1, onFailure);
+    listener = new TextChannelSubredditListener(textChannel, messages, queue);
 
     link = new LinkEntity();
     link.setOver18(true);
     link.setSpoiler(true);
     link.setAuthor("author");
 
+    when(textChannel.getGuild()).thenReturn(guild);
     when(textChannel.sendMessage(any(Message.class))).thenReturn(action);
   }
 
   @Test
   public void testNotify() {
     listener.notify(new LinkEvent(link));
-    verify(action, times(1)).complete();
+    verify(action, times(1)).queue(any(), any());
   }
   
   /**
@@ -77,6 +90,7 @@ public class TextChannelSubredditListenerTest {
   public void testNotifyWithError() throws FailedRequestException {
     when(textChannel.sendMessage(any(Message.class))).thenThrow(RuntimeException.class);
     listener.notify(new LinkEvent(link));
+    verify(onFailure).accept(eq(textChannel), any(RuntimeException.class));
   }
   
   @Test
@@ -85,9 +99,10 @@ public class TextChannelSubredditListenerTest {
     when(textChannel.getIdLong()).thenReturn(Long.MAX_VALUE);
     
     assertEquals(listener, listener);
-    assertEquals(listener, new TextChannelSubredditListener(textChannel));
+    assertEquals(listener, new TextChannelSubredditListener(textChannel, messages, queue));
     assertNotEquals(listener, new Object());
-    assertNotEquals(listener, new TextChannelSubredditListener(mock(TextChannel.class)));
+    TextChannel other = mock(TextChannel.class);
+    assertNotEquals(listener, new TextChannelSubredditListener(other, messages, queue));
     assertNotEquals(listener.hashCode(), mock(TextChannelSubredditListener.class).hashCode());
   }
 }
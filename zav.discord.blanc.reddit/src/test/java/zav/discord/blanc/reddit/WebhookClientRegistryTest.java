@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import club.minnced.discord.webhook.external.JDAWebhookClient;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.dv8tion.jda.api.entities.Webhook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Checks whether webhook clients are shared and discarded once they are no longer used.
+ */
+@ExtendWith(MockitoExtension.class)
+public class WebhookClientRegistryTest {
+  
+  @Mock Webhook webhook;
+  @Mock JDAWebhookClient client;
+  AtomicInteger created;
+  WebhookClientRegistry clients;
+  
+  /**
+   * Initializes a registry which counts the number of created clients.
+   */
+  @BeforeEach
+  public void setUp() {
+    created = new AtomicInteger();
+    clients = new WebhookClientRegistry(webhook -> {
+      created.incrementAndGet();
+      return client;
+    });
+  }
+  
+  @Test
+  public void testAcquire() {
+    when(webhook.getIdLong()).thenReturn(1L);
+    
+    assertSame(client, clients.acquire(webhook));
+    assertSame(client, clients.acquire(webhook));
+    assertEquals(1, created.get());
+    assertEquals(1, clients.size());
+  }
+  
+  @Test
+  public void testRelease() {
+    when(webhook.getIdLong()).thenReturn(1L);
+    
+    clients.acquire(webhook);
+    clients.acquire(webhook);
+    
+    assertNull(clients.release(1L));
+    assertEquals(1, clients.size());
+    assertSame(client, clients.release(1L));
+    assertEquals(0, clients.size());
+    
+    // A new client has to be created
+    clients.acquire(webhook);
+    assertEquals(2, created.get());
+  }
+  
+  @Test
+  public void testReleaseUnknownWebhook() {
+    assertNull(clients.release(1L));
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2022 Zavarov.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package zav.discord.blanc.reddit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import club.minnced.discord.webhook.external.JDAWebhookClient;
+import club.minnced.discord.webhook.receive.ReadonlyMessage;
+import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
+import club.minnced.discord.webhook.send.WebhookMessage;
+import club.minnced.discord.webhook.send.WebhookMessageBuilder;
+import java.util.concurrent.CompletableFuture;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Checks whether webhook messages are combined and sent one after another.
+ */
+@ExtendWith(MockitoExtension.class)
+public class WebhookQueueTest {
+  private static final String URL = "https://www.test.com/image.jpg";
+  private static final String URL2 = "https://www.test.com/image2.jpg";
+
+  @Mock JDAWebhookClient client;
+  @Mock JDAWebhookClient client2;
+  @Captor ArgumentCaptor<WebhookMessage> captor;
+  WebhookQueue queue;
+
+  @BeforeEach
+  public void setUp() {
+    queue = new WebhookQueue(20);
+    queue.register(client);
+  }
+
+  /**
+   * Use Case: Messages with the same author should be combined, up to the maximum number of embeds
+   * per message.
+   */
+  @Test
+  public void testFlushCombined() {
+    when(client.send(any(WebhookMessage.class)))
+          .thenReturn(CompletableFuture.completedFuture(null));
+
+    for (int i = 0; i < 12; ++i) {
+      queue.offer(client, getMessage(URL));
+    }
+
+    assertEquals(12, queue.getQueued());
+
+    queue.flush();
+
+    verify(client, times(2)).send(captor.capture());
+    assertEquals(10, captor.getAllValues().get(0).getEmbeds().size());
+    assertEquals(2, captor.getAllValues().get(1).getEmbeds().size());
+    assertEquals(12, queue.getDelivered());
+    assertEquals(0, queue.getQueued());
+  }
+
+  /**
+   * Use Case: Messages must not be combined if their embeds exceed the character limit of a single
+   * message.
+   */
+  @Test
+  public void testFlushCombinedLength() {
+    when(client.send(any(WebhookMessage.class)))
+          .thenReturn(CompletableFuture.completedFuture(null));
+
+    String description = "x".repeat(MessageEmbed.DESCRIPTION_MAX_LENGTH);
+
+    for (int i = 0; i < 3; ++i) {
+      queue.offer(client, getMessage(URL, description));
+    }
+
+    queue.flush();
+
+    verify(client, times(3)).send(captor.capture());
+    assertEquals(1, captor.getAllValues().get(0).getEmbeds().size());
+    assertEquals(3, queue.getDelivered());
+  }
+
+  /**
+   * Use Case: Messages with different avatars must not be combined.
+   */
+  @Test
+  public void testFlushDifferentAuthor() {
+    when(client.send(any(WebhookMessage.class)))
+          .thenReturn(CompletableFuture.completedFuture(null));
+
+    queue.offer(client, getMessage(URL));
+    queue.offer(client, getMessage(URL2));
+    queue.flush();
+
+    verify(client, times(2)).send(captor.capture());
+    assertEquals(URL, captor.getAllValues().get(0).getAvatarUrl());
+    assertEquals(URL2, captor.getAllValues().get(1).getAvatarUrl());
+  }
+
+  /**
+   * Use Case: Only a single message is sent to a webhook at the same time.
+   */
+  @Test
+  public void testFlushInFlight() {
+    CompletableFuture<ReadonlyMessage> future = new CompletableFuture<>();
+    when(client.send(any(WebhookMessage.class))).thenReturn(future);
+
+    queue.offer(client, getMessage(URL));
+    queue.flush();
+    queue.offer(client, getMessage(URL));
+    queue.flush();
+
+    verify(client, times(1)).send(any(WebhookMessage.class));
+
+    future.complete(null);
+
+    verify(client, times(2)).send(any(WebhookMessage.class));
+    assertEquals(2, queue.getDelivered());
+  }
+
+  @Test
+  public void testFlushWithError() {
+    when(client.send(any(WebhookMessage.class)))
+          .thenReturn(CompletableFuture.failedFuture(new RuntimeException()));
+
+    queue.offer(client, getMessage(URL));
+    queue.offer(client, getMessage(URL));
+    queue.flush();
+
+    assertEquals(0, queue.getDelivered());
+    assertEquals(2, queue.getDropped());
+  }
+
+  @Test
+  public void testOfferFullQueue() {
+    queue = new WebhookQueue(1);
+    queue.register(client);
+
+    assertTrue(queue.offer(client, getMessage(URL)));
+    assertFalse(queue.offer(client, getMessage(URL)));
+    assertEquals(1, queue.getQueued());
+    assertEquals(1, queue.getDropped());
+  }
+
+  /**
+   * Use Case: Listeners which are notified after their webhook has been released mustn't create a
+   * new queue for the discarded client.
+   */
+  @Test
+  public void testOfferReleased() {
+    queue.offer(client, getMessage(URL));
+    queue.remove(client);
+
+    assertEquals(0, queue.getQueued());
+    assertFalse(queue.offer(client, getMessage(URL)));
+    assertEquals(1, queue.getDropped());
+
+    queue.flush();
+
+    verify(client, never()).send(any(WebhookMessage.class));
+  }
+
+  /**
+   * Use Case: Releasing a previous client mustn't remove the queue of the current client of the
+   * same webhook.
+   */
+  @Test
+  public void testRemovePreviousClient() {
+    when(client2.send(any(WebhookMessage.class)))
+          .thenReturn(CompletableFuture.completedFuture(null));
+
+    queue.register(client2);
+    queue.remove(client);
+
+    assertFalse(queue.offer(client, getMessage(URL)));
+    assertTrue(queue.offer(client2, getMessage(URL)));
+
+    queue.flush();
+
+    verify(client, never()).send(any(WebhookMessage.class));
+    verify(client2, times(1)).send(any(WebhookMessage.class));
+  }
+
+  private static WebhookMessage getMessage(String avatarUrl) {
+    return getMessage(avatarUrl, "description");
+  }
+
+  private static WebhookMessage getMessage(String avatarUrl, String description) {
+    return new WebhookMessageBuilder()
+          .addEmbeds(new WebhookEmbedBuilder().setDescription(description).build())
+          .setAvatarUrl(avatarUrl)
+          .build();
+  }
+}
@@ -50,6 +50,9 @@ import zav.jrc.listener.event.LinkEvent;
 public class WebhookSubredditListenerTest {
   
   LinkEntity link;
+  AvatarCache avatars;
+  MessageCache messages;
+  WebhookQueue queue;
   WebhookSubredditListener listener;
   @Captor ArgumentCaptor<WebhookMessage> captor;
   @Mock JDAWebhookClient client;
@@ -62,7 +65,11 @@ public class WebhookSubredditListenerTest {
    */
   @BeforeEach
   public void setUp() {
-    listener = new WebhookSubredditListener(subreddit, client);
+    avatars = new AvatarCache(name -> subreddit, Runnable::run);
+    messages = new MessageCache(avatars::get);
+    queue = new WebhookQueue(10);
+    queue.register(client);
+    listener = new WebhookSubredditListener(messages, queue, client);
     
     link = new LinkEntity();
     link.setOver18(true);
@@ -82,6 +89,7 @@ public class WebhookSubredditListenerTest {
     when(subreddit.getAbout()).thenReturn(entity);
     when(client.send(any(WebhookMessage.class))).thenThrow(RuntimeException.class);
     listener.notify(new LinkEvent(link));
+    queue.flush();
   }
   
   /**
@@ -97,6 +105,7 @@ public class WebhookSubredditListenerTest {
     when(subreddit.getAbout()).thenReturn(entity);
     when(entity.getIconImage()).thenReturn(url);
     listener.notify(new LinkEvent(link));
+    queue.flush();
     verify(client).send(captor.capture());
     assertEquals(expected, captor.getValue().getAvatarUrl());
   }
@@ -128,6 +137,7 @@ public class WebhookSubredditListenerTest {
     when(subreddit.getAbout()).thenReturn(entity);
     when(entity.getCommunityIcon()).thenReturn(url);
     listener.notify(new LinkEvent(link));
+    queue.flush();
     verify(client).send(captor.capture());
     assertEquals(expected, captor.getValue().getAvatarUrl());
   }
@@ -149,6 +159,7 @@ public class WebhookSubredditListenerTest {
   public void testNotifyUnavailableSubreddit() throws FailedRequestException {
     when(subreddit.getAbout()).thenThrow(FailedRequestException.wrap(new Exception()));
     listener.notify(new LinkEvent(link));
+    queue.flush();
     verify(client).send(captor.capture());
     assertNull(captor.getValue().getAvatarUrl());
   }
@@ -159,9 +170,9 @@ public class WebhookSubredditListenerTest {
     when(client.getId()).thenReturn(Long.MAX_VALUE);
   
     assertEquals(listener, listener);
-    assertEquals(listener, new WebhookSubredditListener(subreddit, client));
+    assertEquals(listener, new WebhookSubredditListener(messages, queue, client));
     assertNotEquals(listener, new Object());
-    assertNotEquals(listener, new WebhookSubredditListener(subreddit, client2));
+    assertNotEquals(listener, new WebhookSubredditListener(messages, queue, client2));
     assertNotEquals(listener.hashCode(), mock(WebhookSubredditListener.class).hashCode());
   }
 }
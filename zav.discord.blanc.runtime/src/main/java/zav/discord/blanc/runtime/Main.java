@@ -21,9 +21,11 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.User;
@@ -36,14 +38,19 @@ import zav.discord.blanc.api.CommandProvider;
 import zav.discord.blanc.api.Shard;
 import zav.discord.blanc.api.cache.AutoResponseCache;
 import zav.discord.blanc.api.cache.SiteCache;
-import zav.discord.blanc.api.listener.AutoResponseListener;
+import zav.discord.blanc.api.listener.AutoResponseHandler;
+import zav.discord.blanc.api.listener.MessagePipeline;
 import zav.discord.blanc.api.listener.SiteComponentListener;
 import zav.discord.blanc.api.listener.SlashCommandListener;
 import zav.discord.blanc.api.listener.TextChannelListener;
+import zav.discord.blanc.api.util.MatcherPool;
+import zav.discord.blanc.api.util.ResponseCooldown;
 import zav.discord.blanc.api.util.ShardSupplier;
 import zav.discord.blanc.databind.Credentials;
 import zav.discord.blanc.databind.Rank;
 import zav.discord.blanc.databind.UserEntity;
+import zav.discord.blanc.reddit.PollingSchedule;
+import zav.discord.blanc.reddit.RequestScheduler;
 import zav.discord.blanc.reddit.SubredditObservable;
 import zav.discord.blanc.runtime.internal.JsonUtils;
 import zav.discord.blanc.runtime.internal.SimpleCommandParser;
@@ -65,6 +72,24 @@ public class Main {
   private static final File DISCORD_CREDENTIALS = new File("DiscordUser.json");
   private static final File REDDIT_CREDENTIALS = new File("RedditUser.json");
   private static final File USER_AGENT = new File("UserAgent.json");
+  private static final int REDDIT_WORKERS = 4;
+  private static final java.time.Duration REDDIT_TIMEOUT = java.time.Duration.ofSeconds(50);
+  private static final int REDDIT_REQUESTS_PER_MINUTE = 100;
+  private static final int REDDIT_BURST = 10;
+  private static final int REDDIT_BATCH_SIZE = 10;
+  private static final int REDDIT_BATCH_LENGTH = 512;
+  private static final java.time.Duration REDDIT_TICK = java.time.Duration.ofSeconds(15);
+  private static final java.time.Duration REDDIT_MIN_INTERVAL = java.time.Duration.ofMinutes(1);
+  private static final java.time.Duration REDDIT_MAX_INTERVAL = java.time.Duration.ofMinutes(16);
+  private static final int AUTO_RESPONSE_WORKERS = 2;
+  private static final int AUTO_RESPONSE_CAPACITY = 256;
+  private static final java.time.Duration AUTO_RESPONSE_GUILD_COOLDOWN = java.time.Duration.ZERO;
+  private static final java.time.Duration AUTO_RESPONSE_CHANNEL_COOLDOWN =
+        java.time.Duration.ofSeconds(2);
+  private static final java.time.Duration AUTO_RESPONSE_PATTERN_COOLDOWN =
+        java.time.Duration.ofSeconds(30);
+  private static final java.time.Duration AUTO_RESPONSE_DUPLICATE_WINDOW =
+        java.time.Duration.ofMinutes(5);
   
   private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
   private final List<CommandData> commands = JsonUtils.getCommands();
@@ -95,12 +120,21 @@ public class Main {
     ScheduledExecutorService pool = Executors.newScheduledThreadPool(2);
     Client client = new Client();
     client.bind(Credentials.class, credentials);
-    client.bind(SubredditObservable.class, new SubredditObservable(reddit, pool));
+    SubredditObservable observable = new SubredditObservable(reddit, pool);
+    ExecutorService workers = Executors.newFixedThreadPool(REDDIT_WORKERS);
+    observable.setWorkers(workers, REDDIT_WORKERS, REDDIT_TIMEOUT);
+    observable.setScheduler(new RequestScheduler(
+          REDDIT_REQUESTS_PER_MINUTE, java.time.Duration.ofMinutes(1), REDDIT_BURST));
+    observable.setBatchLimits(REDDIT_BATCH_SIZE, REDDIT_BATCH_LENGTH);
+    observable.setPollingSchedule(new PollingSchedule(REDDIT_MIN_INTERVAL, REDDIT_MAX_INTERVAL));
+    client.bind(SubredditObservable.class, observable);
     client.postConstruct(new ShardSupplier(client, credentials));
 
     LOGGER.info("Starting jobs for client");
     Runnable job = new RedditJob(client); 
-    pool.scheduleAtFixedRate(job, 1, 1, TimeUnit.MINUTES);
+    // Each subreddit is only checked once its poll interval has elapsed
+    long tick = REDDIT_TICK.toMillis();
+    pool.scheduleAtFixedRate(job, REDDIT_MIN_INTERVAL.toMillis(), tick, TimeUnit.MILLISECONDS);
     
     Runnable cleanupJob = new CleanupJob(client);    
     pool.scheduleAtFixedRate(cleanupJob, 1, 1, TimeUnit.HOURS);
@@ -118,12 +152,17 @@ public class Main {
   
   private void loadShard(Shard shard) throws IOException {
     final ScheduledExecutorService pool = Executors.newScheduledThreadPool(4);
+    final MatcherPool matcherPool = new MatcherPool(AUTO_RESPONSE_WORKERS, AUTO_RESPONSE_CAPACITY);
+    final ResponseCooldown cooldown = new ResponseCooldown(AUTO_RESPONSE_GUILD_COOLDOWN,
+          AUTO_RESPONSE_CHANNEL_COOLDOWN, AUTO_RESPONSE_PATTERN_COOLDOWN,
+          AUTO_RESPONSE_DUPLICATE_WINDOW);
     final JDA jda = shard.getJda();
     
     LOGGER.info("Initializing Application Context");
     shard.bind(AutoResponseCache.class, new AutoResponseCache());
     shard.bind(SiteCache.class, new SiteCache());
     shard.bind(ScheduledExecutorService.class, pool);
+    shard.bind(MatcherPool.class, matcherPool);
     
     LOGGER.info("Adding event listeners for shard {}", jda.getShardInfo());
     CommandProvider provider = new SimpleCommandProvider();
@@ -131,9 +170,18 @@ public class Main {
     List<Object> listeners = new ArrayList<>();
     listeners.add(new SlashCommandListener(pool, parser));
     listeners.add(new TextChannelListener());
-    listeners.add(new AutoResponseListener(shard.get(AutoResponseCache.class)));
+    listeners.add(new MessagePipeline(matcherPool, List.of(
+          new AutoResponseHandler(shard.get(AutoResponseCache.class), cooldown))));
     listeners.add(new SiteComponentListener(shard.get(SiteCache.class)));
     jda.addEventListener(listeners.toArray());
+    pool.scheduleAtFixedRate(matcherPool::logStatistics, 1, 1, TimeUnit.HOURS);
+    pool.scheduleAtFixedRate(cooldown::logStatistics, 1, 1, TimeUnit.HOURS);
+    
+    LOGGER.info("Loading automatic responses for shard {}", jda.getShardInfo());
+    List<Long> guildIds = jda.getGuilds().stream()
+          .map(Guild::getIdLong)
+          .collect(Collectors.toList());
+    pool.execute(() -> shard.get(AutoResponseCache.class).warmUp(guildIds));
     
     LOGGER.info("Clear existing guild commands for shard {}", jda.getShardInfo());
     for (Guild guild : jda.getGuilds()) {
@@ -160,6 +208,7 @@ public class Main {
       UserEntity entity = UserEntity.find(owner);
       entity.setRanks(List.of(Rank.DEVELOPER));
       entity.merge();
+      Rank.invalidate(owner.getIdLong());
     }
   }
   
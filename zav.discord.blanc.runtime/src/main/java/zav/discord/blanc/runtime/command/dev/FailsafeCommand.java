@@ -22,6 +22,7 @@ import net.dv8tion.jda.api.events.interaction.SlashCommandEvent;
 import zav.discord.blanc.command.AbstractCommand;
 import zav.discord.blanc.command.CommandManager;
 import zav.discord.blanc.databind.Rank;
+import zav.discord.blanc.databind.UnitOfWork;
 import zav.discord.blanc.databind.UserEntity;
 
 /**
@@ -99,23 +100,29 @@ public class FailsafeCommand extends AbstractCommand {
    */
   @Override
   public void run() {
-    // Persist entity modifications
-    UserEntity entity = UserEntity.find(author);
     String response;
+    
+    // Persist entity modifications
+    try (UnitOfWork work = UnitOfWork.begin()) {
+      UserEntity entity = UserEntity.find(author);
 
-    if (entity.getRanks().contains(Rank.DEVELOPER)) {
-      entity.getRanks().remove(Rank.DEVELOPER);
-      entity.getRanks().add(Rank.ROOT);
+      if (entity.getRanks().contains(Rank.DEVELOPER)) {
+        entity.getRanks().remove(Rank.DEVELOPER);
+        entity.getRanks().add(Rank.ROOT);
 
-      response = BECOME_ROOT[RANDOMIZER.nextInt(BECOME_ROOT.length)];
-    } else {
-      entity.getRanks().remove(Rank.ROOT);
-      entity.getRanks().add(Rank.DEVELOPER);
+        response = BECOME_ROOT[RANDOMIZER.nextInt(BECOME_ROOT.length)];
+      } else {
+        entity.getRanks().remove(Rank.ROOT);
+        entity.getRanks().add(Rank.DEVELOPER);
 
-      response = BECOME_DEVELOPER[RANDOMIZER.nextInt(BECOME_DEVELOPER.length)];
-    }
+        response = BECOME_DEVELOPER[RANDOMIZER.nextInt(BECOME_DEVELOPER.length)];
+      }
 
-    entity.merge();
+      entity.merge();
+      work.commit();
+    }
+    
+    Rank.invalidate(author.getIdLong());
 
     event.replyFormat(response, author.getAsMention()).complete();
   }
@@ -21,7 +21,9 @@ import java.lang.management.OperatingSystemMXBean;
 import java.lang.management.RuntimeMXBean;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.interaction.SlashCommandEvent;
 import oshi.SystemInfo;
 import oshi.hardware.CentralProcessor;
@@ -33,6 +35,8 @@ import oshi.software.os.OperatingSystem;
 import zav.discord.blanc.command.AbstractCommand;
 import zav.discord.blanc.command.CommandManager;
 import zav.discord.blanc.databind.Rank;
+import zav.discord.blanc.databind.internal.CacheStatistics;
+import zav.discord.blanc.databind.internal.QueryStatistics;
 
 /**
  * This command shows the status of the bot.
@@ -43,6 +47,7 @@ public class StatusCommand extends AbstractCommand {
    */
   private static final int MEBI = 1 << 20;
   private static final double GIGA = 1e9;
+  private static final double MEGA = 1e6;
   
   private final EmbedBuilder messageEmbed = new EmbedBuilder();
   private final SystemInfo systemInfo = new SystemInfo();
@@ -124,6 +129,9 @@ public class StatusCommand extends AbstractCommand {
     messageEmbed.addField("Version", runtime.getSpecVersion(), true);
     // Global Uptime
     messageEmbed.addField("Global Memory", getGlobalMemory(), false);
+    // Database
+    messageEmbed.addField("Database Queries", getQueries(), false);
+    messageEmbed.addField("Entity Cache", getCache(), false);
     
     event.replyEmbeds(messageEmbed.build()).complete();
   }
@@ -164,4 +172,43 @@ public class StatusCommand extends AbstractCommand {
     
     return String.format(pattern, keys, total, used, free, ratio);
   }
+  
+  private String getQueries() {
+    StringBuilder queryBuilder = new StringBuilder();
+    queryBuilder.append(String.format("`%-28s | Count   | Avg (ms) | Slow`%n", "Query"));
+    
+    for (Map.Entry<String, QueryStatistics> entry : QueryStatistics.getAll().entrySet()) {
+      QueryStatistics statistics = entry.getValue();
+      double average = statistics.getTotalNanos() / MEGA / Math.max(statistics.getCount(), 1);
+      String pattern = "`%-28s | %-7d | %-8.2f | %-4d`%n";
+      String line = String.format(pattern, entry.getKey(), statistics.getCount(), average,
+            statistics.getSlowCount());
+      
+      // Discord rejects fields exceeding this length
+      if (queryBuilder.length() + line.length() > MessageEmbed.VALUE_MAX_LENGTH) {
+        break;
+      }
+      
+      queryBuilder.append(line);
+    }
+    
+    return queryBuilder.toString();
+  }
+  
+  private String getCache() {
+    StringBuilder cacheBuilder = new StringBuilder();
+    cacheBuilder.append(String.format("`%-21s | Hits    | Misses  | Ratio`%n", "Entity"));
+    
+    for (Map.Entry<String, CacheStatistics> entry : CacheStatistics.getAll().entrySet()) {
+      CacheStatistics statistics = entry.getValue();
+      long total = statistics.getHits() + statistics.getMisses();
+      double ratio = (100.0 * statistics.getHits()) / Math.max(total, 1);
+      String pattern = "`%-21s | %-7d | %-7d | %-4.1f%%`%n";
+      
+      cacheBuilder.append(String.format(pattern, entry.getKey(), statistics.getHits(),
+            statistics.getMisses(), ratio));
+    }
+    
+    return cacheBuilder.toString();
+  }
 }
@@ -30,6 +30,7 @@ import zav.discord.blanc.command.AbstractGuildCommand;
 import zav.discord.blanc.command.GuildCommandManager;
 import zav.discord.blanc.databind.GuildEntity;
 import zav.discord.blanc.databind.TextChannelEntity;
+import zav.discord.blanc.databind.UnitOfWork;
 import zav.discord.blanc.reddit.SubredditObservable;
 
 /**
@@ -66,16 +67,21 @@ public class LegacyRedditRemoveCommand extends AbstractGuildCommand {
   
   @Override
   public void run() {
-    GuildEntity guildEntity = GuildEntity.find(guild);
-    TextChannelEntity channelEntity = TextChannelEntity.find(channel);
+    final String response;
+    
+    try (UnitOfWork work = UnitOfWork.begin()) {
+      GuildEntity guildEntity = GuildEntity.find(guild);
+      TextChannelEntity channelEntity = TextChannelEntity.find(channel);
 
-    final String response = modify(channelEntity);
+      response = modify(channelEntity);
 
-    if (channelEntity.isEmpty()) {
-      guildEntity.remove(channelEntity);
-    }
+      if (channelEntity.isEmpty()) {
+        guildEntity.remove(channelEntity);
+      }
 
-    guildEntity.merge();
+      guildEntity.merge();
+      work.commit();
+    }
 
     event.reply(response).complete();
   }
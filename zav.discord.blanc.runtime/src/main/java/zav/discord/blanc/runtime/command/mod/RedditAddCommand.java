@@ -27,6 +27,7 @@ import zav.discord.blanc.command.AbstractGuildCommand;
 import zav.discord.blanc.command.GuildCommandManager;
 import zav.discord.blanc.databind.GuildEntity;
 import zav.discord.blanc.databind.TextChannelEntity;
+import zav.discord.blanc.databind.UnitOfWork;
 import zav.discord.blanc.databind.WebhookEntity;
 import zav.discord.blanc.reddit.SubredditObservable;
 import zav.discord.blanc.runtime.internal.SubredditUtils;
@@ -64,9 +65,17 @@ public class RedditAddCommand extends AbstractGuildCommand {
 
   @Override
   public void run() {
-    GuildEntity entity = GuildEntity.find(event.getGuild());
-    event.reply(modify(entity)).complete();
-    entity.merge();
+    String response;
+
+    // Don't keep the unit of work open while waiting for Discord
+    try (UnitOfWork work = UnitOfWork.begin()) {
+      GuildEntity entity = GuildEntity.find(event.getGuild());
+      response = modify(entity);
+      entity.merge();
+      work.commit();
+    }
+
+    event.reply(response).complete();
   }
 
   private String modify(GuildEntity entity) {
@@ -6,10 +6,12 @@ import java.util.regex.Pattern;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.events.interaction.SlashCommandEvent;
 import zav.discord.blanc.api.cache.AutoResponseCache;
+import zav.discord.blanc.api.util.RegexComplexity;
 import zav.discord.blanc.command.AbstractGuildCommand;
 import zav.discord.blanc.command.GuildCommandManager;
 import zav.discord.blanc.databind.AutoResponseEntity;
 import zav.discord.blanc.databind.GuildEntity;
+import zav.discord.blanc.databind.UnitOfWork;
 
 /**
  * This command allows the user to register automatic responses. The bot will respond to any message
@@ -19,6 +21,11 @@ public class ResponseAddCommand extends AbstractGuildCommand {
   private static final Pattern NAMED_GROUP = Pattern.compile("(\\?<\\w+>.*)");
   private final AutoResponseCache cache;
   private final SlashCommandEvent event;
+  /**
+   * Whether a response has been added to the guild. The cache is only refreshed once the change has
+   * been committed, so that a failed commit doesn't leave a phantom response behind.
+   */
+  private boolean modified;
   
   /**
    * Creates a new instance of this command.
@@ -34,9 +41,22 @@ public class ResponseAddCommand extends AbstractGuildCommand {
 
   @Override
   public void run() {
-    GuildEntity entity = GuildEntity.find(event.getGuild());
-    event.reply(modify(entity)).complete();
-    entity.merge();
+    String response;
+
+    // Don't keep the unit of work open while waiting for Discord
+    try (UnitOfWork work = UnitOfWork.begin()) {
+      GuildEntity entity = GuildEntity.find(event.getGuild());
+      response = modify(entity);
+      entity.merge();
+      work.commit();
+    }
+
+    // Rebuild the cached matcher from the committed responses
+    if (modified) {
+      cache.refresh(event.getGuild().getIdLong());
+    }
+
+    event.reply(response).complete();
   }
 
   private String modify(GuildEntity entity) {
@@ -50,11 +70,14 @@ public class ResponseAddCommand extends AbstractGuildCommand {
     // Check that the pattern is a valid regular expression
     Pattern.compile(pattern);
     
+    // Patterns prone to catastrophic backtracking would stall every message of this guild
+    if (!RegexComplexity.isSafe(pattern)) {
+      return getMessage("response_too_complex", pattern);
+    }
+    
     AutoResponseEntity responseEntity = AutoResponseEntity.create(pattern, answer);
     entity.add(responseEntity);
-
-    // Remove the corresponding entry from cache
-    cache.invalidate(event.getGuild());
+    modified = true;
 
     return getMessage("response_added", pattern, answer);
   }
@@ -9,6 +9,7 @@ import zav.discord.blanc.command.AbstractGuildCommand;
 import zav.discord.blanc.command.GuildCommandManager;
 import zav.discord.blanc.databind.AutoResponseEntity;
 import zav.discord.blanc.databind.GuildEntity;
+import zav.discord.blanc.databind.UnitOfWork;
 
 /**
  * This command allows the user to remove automatic responses. The responses are identified by their
@@ -17,6 +18,11 @@ import zav.discord.blanc.databind.GuildEntity;
 public class ResponseRemoveCommand extends AbstractGuildCommand {
   private final AutoResponseCache cache;
   private final SlashCommandEvent event;
+  /**
+   * Whether a response has been removed from the guild. The cache is only refreshed once the change
+   * has been committed.
+   */
+  private boolean modified;
   
   /**
    * Creates a new instance of this command.
@@ -32,9 +38,22 @@ public class ResponseRemoveCommand extends AbstractGuildCommand {
 
   @Override
   public void run() {
-    GuildEntity entity = GuildEntity.find(event.getGuild());
-    event.reply(modify(entity)).complete();
-    entity.merge();
+    String response;
+
+    // Don't keep the unit of work open while waiting for Discord
+    try (UnitOfWork work = UnitOfWork.begin()) {
+      GuildEntity entity = GuildEntity.find(event.getGuild());
+      response = modify(entity);
+      entity.merge();
+      work.commit();
+    }
+
+    // Rebuild the cached matcher from the committed responses
+    if (modified) {
+      cache.refresh(event.getGuild().getIdLong());
+    }
+
+    event.reply(response).complete();
   }
 
   private String modify(GuildEntity entity) {
@@ -46,9 +65,7 @@ public class ResponseRemoveCommand extends AbstractGuildCommand {
     
     AutoResponseEntity responseEntity = entity.getAutoResponses().get(index);
     entity.remove(responseEntity);
-    
-    // Remove the corresponding entry from cache
-    cache.invalidate(event.getGuild());
+    modified = true;
     
     return getMessage("response_removed", responseEntity.getPattern());
   }
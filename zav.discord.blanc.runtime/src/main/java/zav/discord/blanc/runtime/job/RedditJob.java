@@ -24,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import zav.discord.blanc.api.Client;
 import zav.discord.blanc.api.Shard;
+import zav.discord.blanc.reddit.SubmissionIndex;
 import zav.discord.blanc.reddit.SubredditObservable;
 import zav.discord.blanc.reddit.TextChannelInitializer;
 import zav.discord.blanc.reddit.WebhookInitializer;
@@ -45,10 +46,22 @@ public class RedditJob implements Runnable {
   @SuppressFBWarnings(value = "EI_EXPOSE_REP2")
   public RedditJob(Client client) {
     this.observable = client.get(SubredditObservable.class);
+    this.postConstruct(observable.getIndex());
     this.postConstruct(client, new TextChannelInitializer(observable));
     this.postConstruct(client, new WebhookInitializer(observable));
   }
   
+  /**
+   * Restores the newest submission of each subreddit from the database. Submissions which have
+   * already been forwarded before the restart are not forwarded again.
+   *
+   * @param index The index over the newest submission of each subreddit.
+   */
+  public final void postConstruct(SubmissionIndex index) {
+    LOGGER.info("Initializing the submission index.");
+    index.load();
+  }
+  
   /**
    * Creates listener for all text channel that have been stored in the database.<br>
    * If a text channel/webhook no longer exists, they will be automatically removed from the
@@ -96,6 +109,7 @@ public class RedditJob implements Runnable {
     try {
       LOGGER.info("Update Reddit feed.");
       observable.notifyAllObservers();
+      observable.getIndex().save();
     } catch (Exception e) {
       LOGGER.error(e.getMessage(), e);
     }
@@ -42,6 +42,7 @@ import zav.discord.blanc.databind.GuildEntity;
 import zav.discord.blanc.databind.TextChannelEntity;
 import zav.discord.blanc.databind.UserEntity;
 import zav.discord.blanc.databind.WebhookEntity;
+import zav.discord.blanc.reddit.SubmissionIndex;
 import zav.discord.blanc.reddit.SubredditObservable;
 
 /**
@@ -64,6 +65,7 @@ public class AbstractTest {
   public @Mock Webhook webhook;
   public @Mock AuditableRestAction<Void> delete;
   public @Mock SubredditObservable subredditObservable;
+  public @Mock SubmissionIndex submissionIndex;
   public @Mock ScheduledExecutorService queue;
   public @Mock AutoResponseCache responseCache;
   
@@ -91,6 +93,7 @@ public class AbstractTest {
   public void initMocks() {
     lenient().when(client.getShards()).thenReturn(List.of(shard));
     lenient().when(client.get(SubredditObservable.class)).thenReturn(subredditObservable);
+    lenient().when(subredditObservable.getIndex()).thenReturn(submissionIndex);
     lenient().when(client.get(Credentials.class)).thenReturn(credentials);
     lenient().when(shard.get(ScheduledExecutorService.class)).thenReturn(queue);
     lenient().when(shard.get(AutoResponseCache.class)).thenReturn(responseCache);
@@ -1,6 +1,9 @@
 package zav.discord.blanc.runtime.command.mod;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -57,6 +60,7 @@ public class ResponseAddCommandTest extends AbstractTest {
     when(event.getOption("answer")).thenReturn(answer);
     when(pattern.getAsString()).thenReturn(source);
     when(answer.getAsString()).thenReturn(target);
+    when(guild.getIdLong()).thenReturn(1000L);
     
     command.run();
     
@@ -64,7 +68,23 @@ public class ResponseAddCommandTest extends AbstractTest {
     assertEquals(guildEntity.getAutoResponses().get(0).getPattern(), source);
     assertEquals(guildEntity.getAutoResponses().get(0).getAnswer(), target);
 
-    verify(responseCache).invalidate(guild);
+    verify(responseCache).refresh(1000L);
+  }
+
+  /**
+   * Use Case: The cache must not be updated if the response couldn't be persisted.
+   */
+  @Test
+  public void testAddResponseFailed() {
+    when(event.getOption("pattern")).thenReturn(pattern);
+    when(event.getOption("answer")).thenReturn(answer);
+    when(pattern.getAsString()).thenReturn("Hello There");
+    when(answer.getAsString()).thenReturn("General Kenobi");
+    doThrow(IllegalStateException.class).when(guildEntity).merge();
+    
+    assertThrows(IllegalStateException.class, () -> command.run());
+    
+    verify(responseCache, times(0)).refresh(anyLong());
   }
 
   /**
@@ -81,7 +101,24 @@ public class ResponseAddCommandTest extends AbstractTest {
     
     assertEquals(guildEntity.getAutoResponses().size(), 0);
     
-    verify(responseCache, times(0)).invalidate(guild);
+    verify(responseCache, times(0)).refresh(anyLong());
+  }
+  
+  /**
+   * Use Case: Patterns which may backtrack excessively must be rejected.
+   */
+  @Test
+  public void testPatternTooComplex() {
+    when(event.getOption("pattern")).thenReturn(pattern);
+    when(event.getOption("answer")).thenReturn(answer);
+    when(pattern.getAsString()).thenReturn("(\\w+\\s?)+(?=!)");
+    when(answer.getAsString()).thenReturn("General Kenobi");
+    
+    command.run();
+    
+    assertEquals(guildEntity.getAutoResponses().size(), 0);
+    
+    verify(responseCache, times(0)).refresh(anyLong());
   }
   
   @Test
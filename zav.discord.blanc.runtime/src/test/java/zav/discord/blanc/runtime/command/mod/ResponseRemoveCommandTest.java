@@ -1,6 +1,9 @@
 package zav.discord.blanc.runtime.command.mod;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -49,12 +52,27 @@ public class ResponseRemoveCommandTest extends AbstractTest {
   public void testRemoveResponse() {
     when(event.getOption("index")).thenReturn(index);
     when(index.getAsLong()).thenReturn(0L);
+    when(guild.getIdLong()).thenReturn(1000L);
     
     command.run();
     
     assertEquals(guildEntity.getAutoResponses().size(), 0);
 
-    verify(responseCache).invalidate(guild);
+    verify(responseCache).refresh(1000L);
+  }
+
+  /**
+   * Use Case: The cache must not be updated if the removal couldn't be persisted.
+   */
+  @Test
+  public void testRemoveResponseFailed() {
+    when(event.getOption("index")).thenReturn(index);
+    when(index.getAsLong()).thenReturn(0L);
+    doThrow(IllegalStateException.class).when(guildEntity).merge();
+    
+    assertThrows(IllegalStateException.class, () -> command.run());
+    
+    verify(responseCache, times(0)).refresh(anyLong());
   }
 
   /**
@@ -72,7 +90,7 @@ public class ResponseRemoveCommandTest extends AbstractTest {
     assertEquals(guildEntity.getAutoResponses().get(0).getPattern(), "Hello There");
     assertEquals(guildEntity.getAutoResponses().get(0).getAnswer(), "General Kenobi");
 
-    verify(responseCache, times(0)).invalidate(guild);
+    verify(responseCache, times(0)).refresh(anyLong());
   }
   
   @Test
@@ -66,9 +66,16 @@ public class RedditJobTest extends AbstractTest {
     verify(hookInitializer).load(any());
   }
   
+  @Test
+  public void testPostConstructIndex() {
+    // Already called by the constructor
+    verify(submissionIndex).load();
+  }
+  
   @Test
   public void testRun() {
     job.run();
+    verify(submissionIndex).save();
   
     // Catch all exceptions to prevent the job from ending prematurely
     doThrow(new RuntimeException()).when(subredditObservable).notifyAllObservers();